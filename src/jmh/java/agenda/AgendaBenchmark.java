@@ -0,0 +1,97 @@
+package agenda;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Débit des requêtes de l'agenda (eventsInDay, eventsBetween, findByTitle, isFreeFor) et de Event.isInDay,
+ * sur des agendas synthétiques de 10^3 à 10^7 événements (voir AgendaFixture).
+ * Les arguments des requêtes sont tirés à l'avance et parcourus en boucle, pour ne mesurer que la requête.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class AgendaBenchmark {
+
+    // Nombre d'arguments tirés à l'avance pour chaque requête (puissance de 2)
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    Agenda agenda;
+    Event[] events;
+    LocalDate[] days;
+    String[] titles;
+    Event[] candidates;
+    int next;
+
+    @Setup(Level.Trial)
+    public void buildAgenda() {
+        AgendaFixture fixture = new AgendaFixture(size, 42);
+        List<Event> generated = fixture.events(size);
+        agenda = new Agenda();
+        for (Event e : generated) {
+            agenda.addEvent(e);
+        }
+        events = new Event[QUERIES];
+        days = new LocalDate[QUERIES];
+        titles = new String[QUERIES];
+        candidates = new Event[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            events[i] = generated.get(i % generated.size());
+            days[i] = fixture.randomDay();
+            titles[i] = fixture.randomTitle();
+            candidates[i] = fixture.randomSingleEvent();
+        }
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<Event> eventsInDay() {
+        return agenda.eventsInDay(days[nextQuery()]);
+    }
+
+    @Benchmark
+    public void eventsBetweenOneWeek(Blackhole blackhole) {
+        LocalDateTime from = days[nextQuery()].atStartOfDay();
+        agenda.eventsBetween(from, from.plusWeeks(1)).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Event> findByTitle() {
+        return agenda.findByTitle(titles[nextQuery()]);
+    }
+
+    @Benchmark
+    public boolean isFreeFor() {
+        return agenda.isFreeFor(candidates[nextQuery()]);
+    }
+
+    @Benchmark
+    public boolean eventIsInDay() {
+        int i = nextQuery();
+        return events[i].isInDay(days[(i * 31) & (QUERIES - 1)]);
+    }
+}
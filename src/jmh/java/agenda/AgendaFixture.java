@@ -0,0 +1,109 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Générateur d'agendas synthétiques, reproductibles (graine fixe), pour les bancs d'essai.
+ * Mélange réaliste : surtout des événements simples (quelques dizaines par jour), et 10 % d'événements
+ * répétitifs quotidiens, hebdomadaires ou mensuels, avec exceptions et les deux sortes de terminaison.
+ */
+final class AgendaFixture {
+
+    static final LocalDate ORIGIN = LocalDate.of(2020, 1, 1);
+
+    // Nombre moyen d'événements simples par jour : fixe la période couverte par l'agenda
+    private static final int EVENTS_PER_DAY = 40;
+
+    private static final ChronoUnit[] FREQUENCIES = {ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS};
+
+    private final SplittableRandom random;
+    private final int days;
+    private final int titles;
+
+    /**
+     * @param size le nombre d'événements des agendas générés
+     * @param seed la graine du générateur
+     */
+    AgendaFixture(int size, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.days = Math.max(365, size / EVENTS_PER_DAY);
+        this.titles = Math.max(10, size / 10);
+    }
+
+    /**
+     * @return le nombre de jours couverts par les événements générés, à partir de ORIGIN
+     */
+    int days() {
+        return days;
+    }
+
+    /**
+     * @return un jour au hasard dans la période couverte
+     */
+    LocalDate randomDay() {
+        return ORIGIN.plusDays(random.nextInt(days));
+    }
+
+    /**
+     * @return un titre au hasard, parmi ceux utilisés par les événements générés
+     */
+    String randomTitle() {
+        return "Event " + random.nextInt(titles);
+    }
+
+    /**
+     * @return un événement simple au hasard (candidat pour isFreeFor)
+     */
+    Event randomSingleEvent() {
+        return new Event(randomTitle(), randomStart(), randomDuration());
+    }
+
+    /**
+     * @return size événements au hasard
+     */
+    List<Event> events(int size) {
+        List<Event> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(randomEvent());
+        }
+        return events;
+    }
+
+    Event randomEvent() {
+        Event e = new Event(randomTitle(), randomStart(), randomDuration());
+        if (random.nextInt(10) != 0) {
+            return e;
+        }
+        ChronoUnit frequency = FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+        e.setRepetition(frequency);
+        LocalDate first = e.getStart().toLocalDate();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            e.addException(first.plus(1 + random.nextInt(20), frequency));
+        }
+        switch (random.nextInt(3)) {
+            case 0 -> e.setTermination(first.plus(1 + random.nextInt(100), frequency));
+            case 1 -> e.setTermination(1 + random.nextInt(100));
+            default -> {
+                // Pas de terminaison : répétition infinie
+            }
+        }
+        return e;
+    }
+
+    private LocalDateTime randomStart() {
+        return randomDay().atTime(random.nextInt(24), random.nextInt(4) * 15);
+    }
+
+    private Duration randomDuration() {
+        // Surtout des réunions courtes, parfois des événements de plusieurs jours
+        return random.nextInt(50) == 0
+            ? Duration.ofHours(24 + random.nextInt(24 * 10))
+            : Duration.ofMinutes(15 + random.nextInt(12) * 15);
+    }
+}
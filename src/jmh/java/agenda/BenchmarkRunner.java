@@ -0,0 +1,33 @@
+package agenda;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée de target/benchmarks.jar (construit par mvn -Pbenchmark package).
+ * Accepte les options habituelles de JMH, et ajoute toujours le profileur GC
+ * pour mesurer l'allocation par requête (gc.alloc.rate.norm, en octets par opération).
+ * <p>
+ * Exemples :
+ * <pre>
+ * java -jar target/benchmarks.jar                              # tout, de 10^3 à 10^7 événements
+ * java -jar target/benchmarks.jar AgendaBenchmark.eventsInDay -p size=1000,100000
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
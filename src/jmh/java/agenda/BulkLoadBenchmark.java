@@ -0,0 +1,56 @@
+package agenda;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chargement d'un agenda vide : addEvent appelé en boucle, comparé à un seul addAll (index construits en une fois).
+ * Les événements sont régénérés avant chaque appel (hors mesure) : un événement garde la trace des agendas
+ * qui le contiennent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class BulkLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    List<Event> events;
+
+    @Setup(Level.Invocation)
+    public void generateEvents() {
+        events = new AgendaFixture(size, 42).events(size);
+    }
+
+    @Benchmark
+    public Agenda addEventLoop() {
+        Agenda agenda = new Agenda();
+        for (Event e : events) {
+            agenda.addEvent(e);
+        }
+        return agenda;
+    }
+
+    @Benchmark
+    public Agenda addAll() {
+        Agenda agenda = new Agenda();
+        agenda.addAll(events);
+        return agenda;
+    }
+}
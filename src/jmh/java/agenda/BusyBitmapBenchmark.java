@@ -0,0 +1,70 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Grille de disponibilités : union des cartes d'occupation de plusieurs centaines d'agendas
+ * sur une semaine, en créneaux de 15 minutes, comparée au calcul des cartes elles-mêmes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class BusyBitmapBenchmark {
+
+    private static final Duration SLOT = Duration.ofMinutes(15);
+
+    @Param({"500"})
+    int agendas;
+
+    List<Agenda> all;
+    List<BusyBitmap> bitmaps;
+    LocalDateTime from;
+
+    @Setup(Level.Trial)
+    public void buildBitmaps() {
+        AgendaFixture fixture = new AgendaFixture(1000, 42);
+        from = AgendaFixture.ORIGIN.plusDays(100).atStartOfDay();
+        all = new ArrayList<>(agendas);
+        bitmaps = new ArrayList<>(agendas);
+        for (int i = 0; i < agendas; i++) {
+            Agenda agenda = new Agenda();
+            agenda.addAll(fixture.events(1000));
+            all.add(agenda);
+            bitmaps.add(agenda.busyBitmap(from, from.plusWeeks(1), SLOT));
+        }
+    }
+
+    @Benchmark
+    public BusyBitmap union() {
+        return BusyBitmap.union(bitmaps);
+    }
+
+    @Benchmark
+    public BusyBitmap intersection() {
+        return BusyBitmap.intersection(bitmaps);
+    }
+
+    @Benchmark
+    public BusyBitmap buildOne() {
+        return all.get(0).busyBitmap(from, from.plusWeeks(1), SLOT);
+    }
+}
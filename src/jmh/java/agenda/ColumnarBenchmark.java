@@ -0,0 +1,67 @@
+package agenda;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Requêtes de ColumnarAgenda (colonnes de types primitifs, événements construits à la demande),
+ * à comparer avec celles de AgendaBenchmark sur les mêmes agendas synthétiques.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ColumnarBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000", "10000000"})
+    int size;
+
+    ColumnarAgenda agenda;
+    LocalDate[] days;
+    String[] titles;
+    int next;
+
+    @Setup(Level.Trial)
+    public void buildAgenda() {
+        AgendaFixture fixture = new AgendaFixture(size, 42);
+        agenda = new ColumnarAgenda();
+        agenda.addAll(fixture.events(size));
+        days = new LocalDate[QUERIES];
+        titles = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            days[i] = fixture.randomDay();
+            titles[i] = fixture.randomTitle();
+        }
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<Event> eventsInDay() {
+        return agenda.eventsInDay(days[nextQuery()]);
+    }
+
+    @Benchmark
+    public List<Event> findByTitle() {
+        return agenda.findByTitle(titles[nextQuery()]);
+    }
+}
@@ -0,0 +1,91 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Requêtes sur des milliers d'agendas (un par salle ou par personne) selon le nombre de threads de
+ * AgendaFederation : le débit doit croître presque linéairement jusqu'au nombre de cœurs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class FederationBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000"})
+    int agendas;
+
+    @Param({"100"})
+    int eventsPerAgenda;
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    AgendaFederation federation;
+    LocalDate[] days;
+    Event[] candidates;
+    int next;
+
+    @Setup(Level.Trial)
+    public void buildAgendas() {
+        AgendaFixture fixture = new AgendaFixture(eventsPerAgenda, 42);
+        List<Agenda> all = new ArrayList<>(agendas);
+        for (int i = 0; i < agendas; i++) {
+            Agenda agenda = new Agenda();
+            agenda.addAll(fixture.events(eventsPerAgenda));
+            all.add(agenda);
+        }
+        federation = new AgendaFederation(all, parallelism);
+        days = new LocalDate[QUERIES];
+        candidates = new Event[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            days[i] = fixture.randomDay();
+            candidates[i] = new Event("Candidate", days[i].atTime(14, 0), Duration.ofHours(1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        federation.close();
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<Agenda> agendasFreeFor() {
+        return federation.agendasFreeFor(candidates[nextQuery()]);
+    }
+
+    @Benchmark
+    public List<List<Event>> eventsInDay() {
+        return federation.eventsInDay(days[nextQuery()]);
+    }
+
+    @Benchmark
+    public List<Event> findByTitle() {
+        return federation.findByTitle("Event " + (nextQuery() % 10));
+    }
+}
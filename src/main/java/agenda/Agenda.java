@@ -1,9 +1,16 @@
 package agenda;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Description : An agenda that stores events
@@ -12,6 +19,86 @@ public class Agenda {
     // Rôle UML : #events (Composition, 0..*)
     List<Event> events = new ArrayList<>(); // Utilisation de List pour respecter le type Event[*]
 
+    // Ajouté : index des événements simples, intervalle [premier jour, dernier jour] en epoch-day,
+    // rangés par semaine (les événements de plus d'une semaine sont dans un arbre d'intervalles)
+    private final CalendarWheel<Event> singleEvents = new CalendarWheel<>();
+
+    // Ajouté : les événements répétitifs, parcourus séquentiellement (en attendant leur propre index)
+    private final List<Sequenced> repetitiveEvents = new ArrayList<>();
+
+    // Ajouté : index des titres (exact, et trié en minuscules pour la casse et les préfixes)
+    private final TitleIndex titles = TitleIndex.create();
+
+    // Numéro d'ajout, permet de restituer les résultats dans l'ordre d'insertion
+    private long nextSequence;
+
+    // Réindexe un événement simple qui devient répétitif après son ajout
+    private final EventListener reindexer = this::reindex;
+
+    // Accès de isFreeFor aux index (règles communes avec ConcurrentAgenda)
+    private final Occupancy occupancy = new Occupancy() {
+        @Override
+        public int singleCount() {
+            return singleEvents.size();
+        }
+
+        @Override
+        public long minSingleDay() {
+            return singleEvents.minLow();
+        }
+
+        @Override
+        public long maxSingleDay() {
+            return singleEvents.maxHigh();
+        }
+
+        @Override
+        public boolean anySingle(long low, long high, Predicate<EventSnapshot> test) {
+            return singleEvents.anyOverlapping(low, high, e -> test.test(e.freeze()));
+        }
+
+        @Override
+        public boolean anyRepetitive(Predicate<EventSnapshot> test) {
+            for (Sequenced r : repetitiveEvents) {
+                if (test.test(r.event().freeze())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    // Ajouté : cache des résultats de eventsInDay pour les jours les plus demandés
+    static final int DEFAULT_DAY_CACHE_CAPACITY = 64;
+    private final DayCache dayCache;
+
+    // Ajouté : observateurs des ajouts (journal...), créé à la demande
+    private List<AgendaListener> listeners;
+
+    // Ajouté : mesures des requêtes (null : désactivées, le seul coût est alors la lecture de ce champ)
+    private volatile AgendaMetrics metrics;
+
+    /**
+     * Un événement et son numéro d'ajout dans l'agenda
+     */
+    private record Sequenced(long sequence, Event event) {
+    }
+
+    /**
+     * Crée un agenda vide, avec un cache de DEFAULT_DAY_CACHE_CAPACITY jours pour eventsInDay
+     */
+    public Agenda() {
+        this(DEFAULT_DAY_CACHE_CAPACITY);
+    }
+
+    /**
+     * Crée un agenda vide
+     * @param dayCacheCapacity le nombre de jours dont le résultat de eventsInDay est gardé en cache (0 : pas de cache)
+     */
+    public Agenda(int dayCacheCapacity) {
+        this.dayCache = new DayCache(dayCacheCapacity);
+    }
+
     /**
      * Adds an event to this agenda
      *
@@ -19,6 +106,202 @@ public class Agenda {
      */
     public void addEvent(Event e) {
         events.add(e);
+        index(nextSequence++, e);
+        titles.add(e);
+        dayCache.invalidate(e);
+        e.addListener(reindexer);
+        if (listeners != null) {
+            for (AgendaListener l : listeners) {
+                l.eventAdded(e);
+            }
+        }
+    }
+
+    /**
+     * Ajoute plusieurs événements à cet agenda, dans l'ordre de la collection (même résultat que des appels
+     * successifs à addEvent). Les index sont construits une seule fois pour tout le lot :
+     * rangement des événements simples par semaine, regroupement des titres.
+     * @param toAdd les événements à ajouter
+     */
+    public void addAll(Collection<? extends Event> toAdd) {
+        if (toAdd.isEmpty()) {
+            return;
+        }
+        List<Event> added = new ArrayList<>(toAdd);
+        if (events instanceof ArrayList<Event> list) {
+            list.ensureCapacity(events.size() + added.size());
+        }
+        events.addAll(added);
+
+        int singles = 0;
+        long[] lows = new long[added.size()];
+        long[] highs = new long[added.size()];
+        long[] sequences = new long[added.size()];
+        List<Event> singleValues = new ArrayList<>(added.size());
+        for (Event e : added) {
+            long sequence = nextSequence++;
+            if (e.isRepetitive()) {
+                repetitiveEvents.add(new Sequenced(sequence, e));
+            } else {
+                lows[singles] = e.startEpochDay();
+                highs[singles] = Math.max(lows[singles], e.endEpochDay());
+                sequences[singles++] = sequence;
+                singleValues.add(e);
+            }
+        }
+        singleEvents.insertAll(lows, highs, sequences, singleValues);
+        titles.addAll(added);
+        // Un lot touche en général beaucoup de jours : on vide le cache plutôt que de l'invalider événement par événement
+        dayCache.clear();
+
+        for (Event e : added) {
+            e.addListener(reindexer);
+        }
+        if (listeners != null) {
+            for (AgendaListener l : listeners) {
+                l.eventsAdded(added);
+            }
+        }
+    }
+
+    /**
+     * Comme addAll(Collection), pour les événements d'un flux (consommé entièrement avant l'ajout)
+     * @param toAdd les événements à ajouter
+     */
+    public void addAll(Stream<? extends Event> toAdd) {
+        addAll(toAdd.toList());
+    }
+
+    /**
+     * Comme addAll(Collection), pour les événements restants d'un itérateur
+     * @param toAdd les événements à ajouter
+     */
+    public void addAll(Iterator<? extends Event> toAdd) {
+        List<Event> staged = new ArrayList<>();
+        toAdd.forEachRemaining(staged::add);
+        addAll(staged);
+    }
+
+    void addListener(AgendaListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>(1);
+        }
+        listeners.add(listener);
+    }
+
+    void removeListener(AgendaListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    private void index(long sequence, Event e) {
+        if (e.isRepetitive()) {
+            repetitiveEvents.add(new Sequenced(sequence, e));
+        } else {
+            long firstDay = e.startEpochDay();
+            // Les durées nulles ou négatives donnent un intervalle vide : isInDay filtre à la lecture
+            singleEvents.insert(firstDay, Math.max(firstDay, e.endEpochDay()), sequence, e);
+        }
+    }
+
+    /**
+     * Ajouté : les événements que removeFinishedBefore(day) retirerait, sans les retirer
+     * @return les événements concernés, dans l'ordre d'ajout
+     */
+    List<Event> finishedBefore(long day) {
+        BitSet finished = new BitSet(events.size());
+        singleEvents.forEachEvictable(day, (e, sequence) -> finished.set((int) sequence));
+        for (Sequenced r : repetitiveEvents) {
+            if (r.event().freeze().lastTouchedDay() < day) {
+                finished.set((int) r.sequence());
+            }
+        }
+        List<Event> result = new ArrayList<>(finished.cardinality());
+        for (int rank = finished.nextSetBit(0); rank >= 0; rank = finished.nextSetBit(rank + 1)) {
+            result.add(events.get(rank));
+        }
+        return result;
+    }
+
+    /**
+     * Ajouté : retire les événements dont la dernière occurrence finit avant day (epoch-day) : isInDay ne peut
+     * plus être vrai à partir de day. Les événements simples sont retirés par seaux entiers de semaines passées
+     * (un seau qui contient un événement encore en cours est gardé), les événements longs et répétitifs
+     * (terminés) un par un. Les événements restants sont renumérotés : leur rang change.
+     * @return les événements retirés, dans l'ordre d'ajout
+     */
+    List<Event> removeFinishedBefore(long day) {
+        BitSet removed = new BitSet(events.size());
+        singleEvents.evictBefore(day, (e, sequence) -> removed.set((int) sequence));
+        repetitiveEvents.removeIf(r -> {
+            boolean finished = r.event().freeze().lastTouchedDay() < day;
+            if (finished) {
+                removed.set((int) r.sequence());
+            }
+            return finished;
+        });
+        if (removed.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Nouveau rang : ancien rang moins le nombre d'événements retirés avant lui
+        int[] newRank = new int[events.size()];
+        List<Event> kept = new ArrayList<>(events.size() - removed.cardinality());
+        List<Event> result = new ArrayList<>(removed.cardinality());
+        Set<Event> removedEvents = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int rank = 0; rank < events.size(); rank++) {
+            Event e = events.get(rank);
+            if (removed.get(rank)) {
+                result.add(e);
+                removedEvents.add(e);
+                e.removeListener(reindexer);
+            } else {
+                newRank[rank] = kept.size();
+                kept.add(e);
+            }
+        }
+        events = kept;
+        nextSequence = kept.size();
+        singleEvents.renumber(sequence -> newRank[(int) sequence]);
+        repetitiveEvents.replaceAll(r -> new Sequenced(newRank[(int) r.sequence()], r.event()));
+        titles.removeAll(removedEvents);
+        dayCache.clear();
+        return result;
+    }
+
+    private void reindex(Event e) {
+        if (e.isRepetitive()) {
+            long[] sequences = singleEvents.removeAll(e.startEpochDay(), e);
+            // Aucun : déjà indexé comme événement répétitif
+            for (long sequence : sequences) {
+                repetitiveEvents.add(new Sequenced(sequence, e));
+            }
+            if (sequences.length > 0) {
+                // On conserve l'ordre d'insertion dans la liste des événements répétitifs
+                repetitiveEvents.sort(Comparator.comparingLong(Sequenced::sequence));
+            }
+        }
+        // Exception, terminaison ou répétition : les jours concernés ne sont plus à jour
+        dayCache.invalidate(e);
+    }
+
+    /**
+     * Enregistre cet agenda dans un fichier binaire compact (voir AgendaFile)
+     * @param path le fichier à créer ou remplacer
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void save(Path path) throws IOException {
+        AgendaFile.write(this, path);
+    }
+
+    /**
+     * Relit un agenda enregistré par save
+     * @param path le fichier à lire
+     * @return un nouvel agenda contenant les événements enregistrés, dans le même ordre
+     * @throws IOException en cas d'erreur de lecture, ou si le fichier n'est pas un agenda
+     */
+    public static Agenda load(Path path) throws IOException {
+        return AgendaFile.read(path);
     }
 
     /**
@@ -29,59 +312,293 @@ public class Agenda {
      * @return a list of events that occur on that day
      */
     public List<Event> eventsInDay(LocalDate day) {
-        ArrayList<Event> todayEvents = new ArrayList<Event>();
-        for (Event e : events) {
-            if (e.isInDay(day)){
-                todayEvents.add(e);
+        AgendaMetrics m = metrics;
+        if (m == null) {
+            return eventsInDay(day, null);
+        }
+        long begin = System.nanoTime();
+        int[] scanned = {0};
+        List<Event> result = eventsInDay(day, scanned);
+        m.record(AgendaMetrics.Query.EVENTS_IN_DAY, System.nanoTime() - begin, scanned[0], result.size());
+        return result;
+    }
+
+    /**
+     * @param scanned compteur des événements examinés (null : pas de comptage)
+     */
+    private List<Event> eventsInDay(LocalDate day, int[] scanned) {
+        long epochDay = day.toEpochDay();
+        List<Event> cached = dayCache.get(epochDay);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        // Version lue avant le calcul : une invalidation pendant le calcul empêche de mettre en cache un résultat périmé
+        long version = dayCache.version();
+        List<Event> todayEvents = computeEventsInDay(day, scanned);
+        dayCache.put(epochDay, todayEvents, version);
+        return todayEvents;
+    }
+
+    /**
+     * Ajouté : active (ou désactive, avec null) la mesure de eventsInDay, isFreeFor et findByTitle
+     * @param metrics le destinataire des mesures, ou null
+     */
+    public void setMetrics(AgendaMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return les statistiques du cache de eventsInDay (requêtes servies par le cache ou calculées)
+     */
+    public CacheStats dayCacheStats() {
+        return dayCache.stats();
+    }
+
+    private List<Event> computeEventsInDay(LocalDate day, int[] scanned) {
+        // Événements simples : seaux de la semaine du jour et de la précédente, et événements longs
+        List<Sequenced> singles = new ArrayList<>();
+        long epochDay = day.toEpochDay();
+        singleEvents.forEachOverlapping(epochDay, epochDay, (e, sequence) -> {
+            if (scanned != null) {
+                scanned[0]++;
+            }
+            if (e.isInDay(day)) {
+                singles.add(new Sequenced(sequence, e));
             }
+        });
+        singles.sort(Comparator.comparingLong(Sequenced::sequence));
+
+        ArrayList<Event> todayEvents = new ArrayList<Event>();
+        mergeInOrder(singles, r -> r.isInDay(day), (e, sequence) -> todayEvents.add(e));
+        if (scanned != null) {
+            scanned[0] += repetitiveEvents.size();
         }
         return todayEvents;
     }
+
+    /**
+     * Parcourt, dans l'ordre d'ajout, les événements dont au moins une occurrence chevauche [from, to[
+     * @param action appelée avec chaque événement et son numéro d'ajout (son rang dans events)
+     */
+    void forEachEventBetween(LocalDateTime from, LocalDateTime to, ObjLongConsumer<Event> action) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        List<Sequenced> singles = new ArrayList<>();
+        singleEvents.forEachOverlapping(from.toLocalDate().toEpochDay(), to.toLocalDate().toEpochDay(), (e, sequence) -> {
+            if (e.occurrences(from, to).hasNext()) {
+                singles.add(new Sequenced(sequence, e));
+            }
+        });
+        singles.sort(Comparator.comparingLong(Sequenced::sequence));
+        mergeInOrder(singles, r -> r.occurrences(from, to).hasNext(), action);
+    }
+
+    /**
+     * Fusionne les événements simples retenus (triés par numéro d'ajout) avec les événements répétitifs
+     * acceptés par keep, pour restituer l'ordre d'ajout
+     */
+    private void mergeInOrder(List<Sequenced> singles, Predicate<Event> keep, ObjLongConsumer<Event> action) {
+        int i = 0;
+        for (Sequenced r : repetitiveEvents) {
+            if (!keep.test(r.event())) {
+                continue;
+            }
+            while (i < singles.size() && singles.get(i).sequence() < r.sequence()) {
+                Sequenced s = singles.get(i++);
+                action.accept(s.event(), s.sequence());
+            }
+            action.accept(r.event(), r.sequence());
+        }
+        while (i < singles.size()) {
+            Sequenced s = singles.get(i++);
+            action.accept(s.event(), s.sequence());
+        }
+    }
     
+    /**
+     * Calcule, en une seule passe, les occurrences des événements de l'agenda qui chevauchent la fenêtre [from, to[,
+     * triées par instant de début (puis par ordre d'ajout).
+     * Le flux est paresseux : les occurrences des événements répétitifs ne sont calculées qu'au fur et à mesure
+     * de la consommation, en sautant directement à la première occurrence de la fenêtre.
+     *
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     * @return les occurrences qui ont lieu dans la fenêtre
+     */
+    public Stream<Occurrence> eventsBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Stream.empty();
+        }
+        PriorityQueue<OccurrenceSource> sources = new PriorityQueue<>();
+
+        // Événements simples : recherche dans l'index sur les jours de la fenêtre
+        List<Sequenced> singles = new ArrayList<>();
+        singleEvents.forEachOverlapping(from.toLocalDate().toEpochDay(), to.toLocalDate().toEpochDay(), (e, sequence) ->
+            singles.add(new Sequenced(sequence, e)));
+        singles.sort(Comparator.comparingLong(Sequenced::sequence));
+        for (Sequenced s : singles) {
+            OccurrenceSource.offer(sources, s.sequence(), s.event().occurrences(from, to));
+        }
+        for (Sequenced r : repetitiveEvents) {
+            OccurrenceSource.offer(sources, r.sequence(), r.event().occurrences(from, to));
+        }
+
+        Iterator<Occurrence> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !sources.isEmpty();
+            }
+
+            @Override
+            public Occurrence next() {
+                OccurrenceSource source = sources.poll();
+                if (source == null) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence current = source.current;
+                OccurrenceSource.offer(sources, source.sequence, source.occurrences);
+                return current;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Liste tous les couples d'occurrences qui se chevauchent dans la fenêtre [from, to[ (événements doublement
+     * réservés), en un seul balayage des occurrences triées par début : O(n log n + k) pour k conflits.
+     * Pour suivre les conflits au fil des ajouts sans tout recalculer, voir ConflictTracker.
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     * @return les conflits, dans l'ordre de début de leur seconde occurrence
+     */
+    public List<Conflict> conflicts(LocalDateTime from, LocalDateTime to) {
+        List<Conflict> conflicts = new ArrayList<>();
+        // Occurrences commencées et pas encore terminées, la plus tôt finie en tête
+        PriorityQueue<Occurrence> active = new PriorityQueue<>(Comparator.comparing(Occurrence::end));
+        eventsBetween(from, to).forEach(o -> {
+            while (!active.isEmpty() && !active.peek().end().isAfter(o.start())) {
+                active.poll();
+            }
+            for (Occurrence earlier : active) {
+                if (earlier.start().isBefore(o.end())) { // Faux seulement pour une durée nulle ou négative
+                    conflicts.add(new Conflict(earlier, o));
+                }
+            }
+            active.add(o);
+        });
+        return conflicts;
+    }
+
+    /**
+     * Calcule l'occupation de l'agenda sur une fenêtre, un bit par créneau (voir BusyBitmap)
+     * @param from début de la fenêtre
+     * @param to fin de la fenêtre, arrondie au créneau suivant
+     * @param slot la durée d'un créneau
+     * @return la carte d'occupation de l'agenda
+     */
+    public BusyBitmap busyBitmap(LocalDateTime from, LocalDateTime to, Duration slot) {
+        return BusyBitmap.of(this, from, to, slot);
+    }
+
+    /**
+     * Les occurrences restantes d'un événement, ordonnées par leur prochaine occurrence pour la fusion
+     */
+    private static final class OccurrenceSource implements Comparable<OccurrenceSource> {
+        final long sequence;
+        final Iterator<Occurrence> occurrences;
+        final Occurrence current;
+
+        private OccurrenceSource(long sequence, Iterator<Occurrence> occurrences) {
+            this.sequence = sequence;
+            this.occurrences = occurrences;
+            this.current = occurrences.next();
+        }
+
+        static void offer(PriorityQueue<OccurrenceSource> sources, long sequence, Iterator<Occurrence> occurrences) {
+            if (occurrences.hasNext()) {
+                sources.add(new OccurrenceSource(sequence, occurrences));
+            }
+        }
+
+        @Override
+        public int compareTo(OccurrenceSource other) {
+            int c = current.start().compareTo(other.current.start());
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
+    }
+
     // --- Début des questions complémentaires (implémentées) ---
 
     /**
      * Trouver les événements de l'agenda en fonction de leur titre
-     * @param title le titre à rechercher
+     * @param title le titre à rechercher (null : les événements sans titre)
      * @return les événements qui ont le même titre
      */
     public List<Event> findByTitle(String title) {
-        List<Event> eventsWithTitle = new ArrayList<>();
-        for (Event e : events) {
-            if (e.getTitle().equals(title)) {
-                eventsWithTitle.add(e);
-            }
+        AgendaMetrics m = metrics;
+        long begin = m == null ? 0 : System.nanoTime();
+        // Recherche dans l'index des titres, O(1)
+        List<Event> result = titles.find(title);
+        if (m != null) {
+            // L'index ne renvoie que des événements de ce titre : rien d'autre n'est examiné
+            m.record(AgendaMetrics.Query.FIND_BY_TITLE, System.nanoTime() - begin, result.size(), result.size());
         }
-        return eventsWithTitle;
+        return result;
+    }
+
+    /**
+     * Trouver les événements dont le titre est égal à title, sans tenir compte de la casse
+     * @param title le titre à rechercher (null : les événements sans titre, comme findByTitle)
+     * @return les événements correspondants, dans l'ordre d'ajout
+     */
+    public List<Event> findByTitleIgnoreCase(String title) {
+        return titles.findIgnoreCase(title);
+    }
+
+    /**
+     * Trouver les événements dont le titre commence par prefix, sans tenir compte de la casse
+     * (recherche au fil de la frappe), en O(log n + k)
+     * @param prefix le début du titre
+     * @return les événements correspondants, triés par titre puis dans l'ordre d'ajout
+     */
+    public List<Event> findByTitlePrefix(String prefix) {
+        return findByTitlePrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Comme findByTitlePrefix(prefix), en s'arrêtant après limit événements
+     * @param prefix le début du titre
+     * @param limit le nombre maximal d'événements renvoyés
+     * @return au plus limit événements correspondants
+     */
+    public List<Event> findByTitlePrefix(String prefix, int limit) {
+        return titles.findByPrefix(prefix, limit);
     }
     
     /**
      * Déterminer s’il y a de la place dans l'agenda pour un événement (aucun autre événement au même moment)
-     * @param e L'événement à tester (on se limitera aux événements sans répétition selon la consigne originale)
+     * Toutes les occurrences sont prises en compte, que l'événement testé ou ceux de l'agenda se répètent ou non.
+     * @param e L'événement à tester
      * @return vrai s’il y a de la place dans l'agenda pour cet événement
      */
     public boolean isFreeFor(Event e) {
-        // Pour les événements simples (sans répétition), on vérifie l'intervalle de temps.
-        
-        // Calculer l'intervalle de l'événement à tester.
-        // Utilisation de .isAfter() et .isBefore() pour la comparaison de temps.
-        LocalDateTime testStart = e.getStart();
-        LocalDateTime testEnd = e.getStart().plus(e.getDuration());
-
-        for (Event existingEvent : events) {
-            // Limiter aux événements sans répétition comme demandé dans la consigne (pour la simplicité du test)
-            // Pour être précis, cette méthode devrait fonctionner aussi avec des événements répétitifs,
-            // mais l'implémentation est plus complexe (calculer toutes les occurrences).
-            
-            // On vérifie la superposition avec les événements existants
-            LocalDateTime existingStart = existingEvent.getStart();
-            LocalDateTime existingEnd = existingEvent.getStart().plus(existingEvent.getDuration());
-
-            // Condition de chevauchement : (Début1 < Fin2) ET (Fin1 > Début2)
-            if (testStart.isBefore(existingEnd) && testEnd.isAfter(existingStart)) {
-                return false; // Il y a un conflit
-            }
-        }
-        return true; // Aucune superposition trouvée
-    }
-}
\ No newline at end of file
+        AgendaMetrics m = metrics;
+        if (m == null) {
+            return isFreeFor(e, null);
+        }
+        long begin = System.nanoTime();
+        int[] scanned = {0};
+        boolean free = isFreeFor(e, scanned);
+        m.record(AgendaMetrics.Query.IS_FREE_FOR, System.nanoTime() - begin, scanned[0], free ? 0 : 1);
+        return free;
+    }
+
+    /**
+     * @param scanned compteur des événements comparés à e (null : pas de comptage)
+     */
+    private boolean isFreeFor(Event e, int[] scanned) {
+        return Occupancy.isFreeFor(occupancy, e.freeze(), scanned);
+    }
+}
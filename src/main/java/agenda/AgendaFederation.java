@@ -0,0 +1,196 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Requêtes sur un ensemble d'agendas (une salle, une personne par agenda), réparties sur un ForkJoinPool :
+ * chaque agenda est interrogé par une seule tâche, les résultats sont rassemblés dans l'ordre des agendas.
+ * <p>
+ * Les agendas ne doivent pas être modifiés pendant une requête (Agenda n'est pas prévu pour des écritures
+ * concurrentes) ; ils peuvent l'être entre deux requêtes.
+ */
+public final class AgendaFederation implements AutoCloseable {
+
+    // Nombre de tranches par thread : assez pour équilibrer des agendas de tailles différentes
+    private static final int SLICES_PER_THREAD = 8;
+
+    private final List<Agenda> agendas;
+    private final ForkJoinPool pool;
+    private final boolean ownPool;
+    // Nombre d'agendas en dessous duquel une tranche est traitée sans être redécoupée
+    private final int sliceSize;
+
+    /**
+     * Fédère des agendas, interrogés en parallèle sur le pool commun (ForkJoinPool.commonPool())
+     * @param agendas les agendas, dans l'ordre des résultats
+     */
+    public AgendaFederation(List<Agenda> agendas) {
+        this(agendas, ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Fédère des agendas, interrogés par un pool dédié de parallelism threads (à libérer par close)
+     * @param agendas les agendas, dans l'ordre des résultats
+     * @param parallelism le nombre de threads utilisés par les requêtes
+     */
+    public AgendaFederation(List<Agenda> agendas, int parallelism) {
+        this(agendas, new ForkJoinPool(parallelism), true);
+    }
+
+    private AgendaFederation(List<Agenda> agendas, ForkJoinPool pool, boolean ownPool) {
+        this.agendas = List.copyOf(agendas);
+        this.pool = pool;
+        this.ownPool = ownPool;
+        this.sliceSize = Math.max(1, this.agendas.size() / (pool.getParallelism() * SLICES_PER_THREAD));
+    }
+
+    /**
+     * @return le nombre de threads utilisés par les requêtes
+     */
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return les agendas fédérés, dans l'ordre des résultats
+     */
+    public List<Agenda> agendas() {
+        return agendas;
+    }
+
+    /**
+     * @param day le jour à tester
+     * @return pour chaque agenda (dans l'ordre), le résultat de eventsInDay(day)
+     */
+    public List<List<Event>> eventsInDay(LocalDate day) {
+        return List.copyOf(perAgenda(i -> agendas.get(i).eventsInDay(day)));
+    }
+
+    /**
+     * @param title le titre à rechercher
+     * @return les événements de tous les agendas qui ont ce titre, agenda par agenda
+     */
+    public List<Event> findByTitle(String title) {
+        List<Event> found = new ArrayList<>();
+        for (List<Event> r : perAgenda(i -> agendas.get(i).findByTitle(title))) {
+            found.addAll(r);
+        }
+        return found;
+    }
+
+    /**
+     * @param e l'événement à placer (il n'est pas modifié pendant la requête)
+     * @return les agendas qui ont de la place pour e (isFreeFor), dans l'ordre
+     */
+    public List<Agenda> agendasFreeFor(Event e) {
+        boolean[] free = new boolean[agendas.size()];
+        forEachAgenda(i -> free[i] = agendas.get(i).isFreeFor(e));
+        List<Agenda> result = new ArrayList<>();
+        for (int i = 0; i < free.length; i++) {
+            if (free[i]) {
+                result.add(agendas.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cherche les premiers créneaux où tous les agendas sont libres (voir FreeSlotFinder)
+     * @param length la durée de l'événement à placer
+     * @param from début inclusif de la fenêtre de recherche
+     * @param to fin exclusive de la fenêtre de recherche
+     * @param limit le nombre maximal de créneaux renvoyés
+     * @return au plus limit créneaux libres d'au moins length, dans l'ordre
+     */
+    public List<FreeSlot> commonFreeSlots(Duration length, LocalDateTime from, LocalDateTime to, int limit) {
+        return FreeSlotFinder.earliest(length, from, to, limit, agendas);
+    }
+
+    /**
+     * Calcule en parallèle la carte d'occupation de chaque agenda, puis leur union
+     * @param from début de la fenêtre
+     * @param to fin de la fenêtre, arrondie au créneau suivant
+     * @param slot la durée d'un créneau
+     * @return les créneaux où au moins un agenda est occupé (les autres : libres pour tous)
+     */
+    public BusyBitmap busyUnion(LocalDateTime from, LocalDateTime to, Duration slot) {
+        BusyBitmap[] bitmaps = new BusyBitmap[agendas.size()];
+        forEachAgenda(i -> bitmaps[i] = agendas.get(i).busyBitmap(from, to, slot));
+        return bitmaps.length == 0 ? new Agenda().busyBitmap(from, to, slot) : BusyBitmap.union(List.of(bitmaps));
+    }
+
+    /**
+     * Libère le pool dédié (rien à faire pour le pool commun)
+     */
+    @Override
+    public void close() {
+        if (ownPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return le résultat de query pour chaque indice d'agenda (calculés en parallèle), dans l'ordre
+     */
+    private <T> List<T> perAgenda(IntFunction<T> query) {
+        // Chaque tâche écrit ses propres indices, sans changer la taille de la liste
+        List<T> results = new ArrayList<>(Collections.nCopies(agendas.size(), null));
+        forEachAgenda(i -> results.set(i, query.apply(i)));
+        return results;
+    }
+
+    /**
+     * Appelle action pour chaque indice d'agenda, en parallèle ; les écritures faites par action
+     * sont visibles au retour (join)
+     */
+    private void forEachAgenda(IntConsumer action) {
+        if (agendas.size() <= sliceSize || pool.getParallelism() == 1) {
+            for (int i = 0; i < agendas.size(); i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new Slice(0, agendas.size(), sliceSize, action));
+    }
+
+    /**
+     * Tranche [from, to[ des agendas, coupée en deux tant qu'elle dépasse sliceSize.
+     * Une tâche n'est jamais sérialisée (RecursiveAction est Serializable) : l'action n'en fait pas partie.
+     */
+    private static final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int sliceSize;
+        private final transient IntConsumer action;
+
+        Slice(int from, int to, int sliceSize, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.sliceSize = sliceSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= sliceSize) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Slice(from, middle, sliceSize, action), new Slice(middle, to, sliceSize, action));
+        }
+    }
+}
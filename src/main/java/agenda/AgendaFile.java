@@ -0,0 +1,432 @@
+package agenda;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Format binaire compact d'un agenda, en colonnes : une colonne par attribut, pour tous les événements
+ * dans l'ordre d'ajout (secondes epoch du début, secondes de la durée, code de fréquence...).
+ * Les titres sont stockés une seule fois (dictionnaire trié), les exceptions en epoch-days.
+ * Le fichier contient aussi les index nécessaires pour l'interroger directement en mémoire projetée
+ * (voir MappedAgenda), sans désérialiser tous les événements.
+ * <p>
+ * Organisation (entiers big-endian) : un en-tête de HEADER_SIZE octets, puis les colonnes de long,
+ * les colonnes d'int et les colonnes d'octets, dans l'ordre des constantes ci-dessous.
+ * L'en-tête contient aussi SHORT_SPAN_DAYS (version 2) : un fichier garde la limite avec laquelle
+ * son index des événements simples courts a été construit.
+ * La taille d'un fichier est limitée à 2 Go (taille maximale d'une projection).
+ */
+public final class AgendaFile {
+
+    static final int MAGIC = 0x41474431; // "AGD1"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 40;
+
+    // Un événement simple est court (index trié par premier jour) s'il touche au plus ce nombre de jours
+    static final int SHORT_SPAN_DAYS = 7;
+
+    // Codes de terminaison
+    static final byte NO_TERMINATION = 0;
+    static final byte TERMINATION_DATE = 1;
+    static final byte TERMINATION_COUNT = 2;
+
+    // Code de fréquence d'un événement simple (sinon : ordinal de ChronoUnit + 1)
+    static final byte NO_REPETITION = 0;
+
+    private static final ChronoUnit[] UNITS = ChronoUnit.values();
+
+    private AgendaFile() {
+    }
+
+    /**
+     * Enregistre les événements de l'agenda (avec leurs répétitions, exceptions et terminaisons)
+     * @param agenda l'agenda à enregistrer
+     * @param path le fichier à créer ou remplacer
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void write(Agenda agenda, Path path) throws IOException {
+        write(agenda.events, path);
+    }
+
+    /**
+     * Relit entièrement un agenda enregistré par write
+     * @param path le fichier à lire
+     * @return un nouvel agenda contenant les événements enregistrés, dans le même ordre
+     * @throws IOException en cas d'erreur de lecture, ou si le fichier n'est pas un agenda
+     */
+    public static Agenda read(Path path) throws IOException {
+        return map(path).toAgenda();
+    }
+
+    /**
+     * Ouvre un agenda enregistré par write en mémoire projetée : seul l'en-tête est lu,
+     * les événements sont construits à la demande par les requêtes
+     * @param path le fichier à ouvrir
+     * @return une vue en lecture seule de l'agenda enregistré
+     * @throws IOException en cas d'erreur de lecture, ou si le fichier n'est pas un agenda
+     */
+    public static MappedAgenda map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier d'agenda trop grand (2 Go au plus) : " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedAgenda(Layout.read(buffer, path));
+        }
+    }
+
+    static void write(List<Event> events, Path path) throws IOException {
+        int count = events.size();
+        EventSnapshot[] snapshots = new EventSnapshot[count];
+        for (int i = 0; i < count; i++) {
+            snapshots[i] = events.get(i).freeze();
+        }
+
+        // Dictionnaire des titres, trié par octets UTF-8 (recherche dichotomique dans le fichier)
+        Map<String, byte[]> encoded = new HashMap<>();
+        for (EventSnapshot e : snapshots) {
+            if (e.title() != null) {
+                encoded.computeIfAbsent(e.title(), t -> t.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        List<Map.Entry<String, byte[]>> sorted = new ArrayList<>(encoded.entrySet());
+        sorted.sort((a, b) -> Arrays.compareUnsigned(a.getValue(), b.getValue()));
+        Map<String, Integer> titleIds = new HashMap<>();
+        byte[][] titles = new byte[sorted.size()][];
+        int titleBytesLength = 0;
+        for (int t = 0; t < titles.length; t++) {
+            titleIds.put(sorted.get(t).getKey(), t);
+            titles[t] = sorted.get(t).getValue();
+            titleBytesLength += titles[t].length;
+        }
+
+        // Index : événements simples courts triés par premier jour, les autres à part
+        int exceptionCount = 0;
+        int postingCount = 0;
+        List<Integer> shortSingles = new ArrayList<>();
+        List<Integer> others = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            EventSnapshot e = snapshots[i];
+            if (e.isRepetitive()) {
+                exceptionCount += e.repetition().exceptionDays().length;
+            }
+            if (e.title() != null) {
+                postingCount++;
+            }
+            if (!e.isRepetitive() && e.lastTouchedDay() - e.firstTouchedDay() < SHORT_SPAN_DAYS) {
+                shortSingles.add(i);
+            } else {
+                others.add(i);
+            }
+        }
+        shortSingles.sort((a, b) -> Long.compare(snapshots[a].firstTouchedDay(), snapshots[b].firstTouchedDay()));
+
+        long size = new Layout(null, count, titles.length, exceptionCount, postingCount, SHORT_SPAN_DAYS,
+            shortSingles.size(), others.size(), titleBytesLength).size;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Agenda trop grand pour un seul fichier (2 Go au plus)");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            Layout layout = new Layout(out, count, titles.length, exceptionCount, postingCount, SHORT_SPAN_DAYS,
+                shortSingles.size(), others.size(), titleBytesLength);
+            layout.writeHeader();
+
+            int exception = 0;
+            int[] postingStart = new int[titles.length + 1];
+            for (int i = 0; i < count; i++) {
+                EventSnapshot e = snapshots[i];
+                LocalDateTime start = e.start();
+                layout.putLong(layout.startSeconds, i, start.toEpochSecond(ZoneOffset.UTC));
+                layout.putInt(layout.startNanos, i, start.getNano());
+                layout.putLong(layout.durationSeconds, i, e.duration().getSeconds());
+                layout.putInt(layout.durationNanos, i, e.duration().getNano());
+                layout.putLong(layout.firstDays, i, e.firstTouchedDay());
+                layout.putLong(layout.lastDays, i, e.lastTouchedDay());
+                int titleId = e.title() == null ? -1 : titleIds.get(e.title());
+                layout.putInt(layout.titleIds, i, titleId);
+                if (titleId >= 0) {
+                    postingStart[titleId + 1]++;
+                }
+                layout.putInt(layout.exceptionStarts, i, exception);
+                RepetitionSnapshot repetition = e.repetition();
+                if (repetition == null) {
+                    layout.putByte(layout.frequencies, i, NO_REPETITION);
+                    layout.putByte(layout.terminationKinds, i, NO_TERMINATION);
+                    continue;
+                }
+                layout.putByte(layout.frequencies, i, (byte) (repetition.frequency().ordinal() + 1));
+                for (long day : repetition.exceptionDays()) {
+                    layout.putLong(layout.exceptions, exception++, day);
+                }
+                Termination termination = repetition.termination();
+                if (termination != null && termination.terminationDateInclusive() != null) {
+                    layout.putByte(layout.terminationKinds, i, TERMINATION_DATE);
+                    layout.putLong(layout.terminations, i, termination.terminationDateInclusive().toEpochDay());
+                } else if (termination != null && termination.numberOfOccurrences() > 0) {
+                    layout.putByte(layout.terminationKinds, i, TERMINATION_COUNT);
+                    layout.putLong(layout.terminations, i, termination.numberOfOccurrences());
+                } else {
+                    layout.putByte(layout.terminationKinds, i, NO_TERMINATION);
+                }
+            }
+            layout.putInt(layout.exceptionStarts, count, exception);
+
+            // Titres, et pour chaque titre ses événements dans l'ordre d'ajout
+            int titleOffset = 0;
+            for (int t = 0; t < titles.length; t++) {
+                layout.putInt(layout.titleStarts, t, titleOffset);
+                out.put((int) layout.titleBytes + titleOffset, titles[t]);
+                titleOffset += titles[t].length;
+                postingStart[t + 1] += postingStart[t];
+            }
+            layout.putInt(layout.titleStarts, titles.length, titleOffset);
+            for (int t = 0; t <= titles.length; t++) {
+                layout.putInt(layout.postingStarts, t, postingStart[t]);
+            }
+            int[] nextPosting = Arrays.copyOf(postingStart, titles.length);
+            for (int i = 0; i < count; i++) {
+                int titleId = layout.getInt(layout.titleIds, i);
+                if (titleId >= 0) {
+                    layout.putInt(layout.postings, nextPosting[titleId]++, i);
+                }
+            }
+            for (int k = 0; k < shortSingles.size(); k++) {
+                layout.putInt(layout.shortSingles, k, shortSingles.get(k));
+            }
+            for (int k = 0; k < others.size(); k++) {
+                layout.putInt(layout.others, k, others.get(k));
+            }
+            out.force();
+        }
+    }
+
+    static ChronoUnit frequency(byte code) {
+        return UNITS[code - 1];
+    }
+
+    /**
+     * Position des colonnes dans le fichier, calculée à partir des tailles de l'en-tête
+     */
+    static final class Layout {
+        final ByteBuffer buffer;
+        final int count;
+        final int titleCount;
+        final int exceptionCount;
+        final int postingCount;
+        // Nombre maximal de jours touchés par un événement simple court, lu dans l'en-tête
+        final int shortSpanDays;
+        final int shortSingleCount;
+        final int otherCount;
+        final int titleBytesLength;
+
+        // Colonnes de long
+        final long startSeconds;
+        final long durationSeconds;
+        final long firstDays;
+        final long lastDays;
+        final long terminations;
+        final long exceptions;
+        // Colonnes d'int
+        final long startNanos;
+        final long durationNanos;
+        final long titleIds;
+        final long exceptionStarts;
+        final long titleStarts;
+        final long postingStarts;
+        final long postings;
+        final long shortSingles;
+        final long others;
+        // Colonnes d'octets
+        final long frequencies;
+        final long terminationKinds;
+        final long titleBytes;
+        final long size;
+        // Titres déjà décodés, partagés par tous les événements de même titre (remplis à la demande)
+        private final String[] decodedTitles;
+
+        Layout(ByteBuffer buffer, int count, int titleCount, int exceptionCount, int postingCount,
+                       int shortSpanDays, int shortSingleCount, int otherCount, int titleBytesLength) {
+            this.buffer = buffer;
+            this.count = count;
+            this.titleCount = titleCount;
+            this.exceptionCount = exceptionCount;
+            this.postingCount = postingCount;
+            this.shortSpanDays = shortSpanDays;
+            this.shortSingleCount = shortSingleCount;
+            this.otherCount = otherCount;
+            this.titleBytesLength = titleBytesLength;
+            this.decodedTitles = new String[titleCount];
+            long position = HEADER_SIZE;
+            startSeconds = position;
+            durationSeconds = position += 8L * count;
+            firstDays = position += 8L * count;
+            lastDays = position += 8L * count;
+            terminations = position += 8L * count;
+            exceptions = position += 8L * count;
+            startNanos = position += 8L * exceptionCount;
+            durationNanos = position += 4L * count;
+            titleIds = position += 4L * count;
+            exceptionStarts = position += 4L * count;
+            titleStarts = position += 4L * (count + 1);
+            postingStarts = position += 4L * (titleCount + 1);
+            postings = position += 4L * (titleCount + 1);
+            shortSingles = position += 4L * postingCount;
+            others = position += 4L * shortSingleCount;
+            frequencies = position += 4L * otherCount;
+            terminationKinds = position += count;
+            titleBytes = position += count;
+            size = position + titleBytesLength;
+        }
+
+        void writeHeader() {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, count);
+            buffer.putInt(12, titleCount);
+            buffer.putInt(16, exceptionCount);
+            buffer.putInt(20, postingCount);
+            buffer.putInt(24, shortSingleCount);
+            buffer.putInt(28, otherCount);
+            buffer.putInt(32, titleBytesLength);
+            buffer.putInt(36, shortSpanDays);
+        }
+
+        static Layout read(ByteBuffer in, Path path) throws IOException {
+            if (in.capacity() < HEADER_SIZE || in.getInt(0) != MAGIC) {
+                throw new IOException("Ce fichier n'est pas un agenda : " + path);
+            }
+            if (in.getInt(4) != VERSION) {
+                throw new IOException("Version de fichier d'agenda non prise en charge : " + in.getInt(4));
+            }
+            if (in.getInt(36) < 1) {
+                throw new IOException("Fichier d'agenda tronqué ou corrompu : " + path);
+            }
+            Layout layout = new Layout(in, in.getInt(8), in.getInt(12), in.getInt(16), in.getInt(20), in.getInt(36),
+                in.getInt(24), in.getInt(28), in.getInt(32));
+            if (layout.size != in.capacity()) {
+                throw new IOException("Fichier d'agenda tronqué ou corrompu : " + path);
+            }
+            return layout;
+        }
+
+        long getLong(long column, int index) {
+            return buffer.getLong((int) (column + 8L * index));
+        }
+
+        int getInt(long column, int index) {
+            return buffer.getInt((int) (column + 4L * index));
+        }
+
+        byte getByte(long column, int index) {
+            return buffer.get((int) (column + index));
+        }
+
+        void putLong(long column, int index, long value) {
+            buffer.putLong((int) (column + 8L * index), value);
+        }
+
+        void putInt(long column, int index, int value) {
+            buffer.putInt((int) (column + 4L * index), value);
+        }
+
+        void putByte(long column, int index, byte value) {
+            buffer.put((int) (column + index), value);
+        }
+
+        /**
+         * @return le titre d'identifiant id
+         */
+        String title(int id) {
+            String title = decodedTitles[id];
+            if (title == null) {
+                int from = getInt(titleStarts, id);
+                byte[] bytes = new byte[getInt(titleStarts, id + 1) - from];
+                buffer.get((int) (titleBytes + from), bytes);
+                title = Event.internTitle(new String(bytes, StandardCharsets.UTF_8));
+                decodedTitles[id] = title;
+            }
+            return title;
+        }
+
+        /**
+         * Recherche dichotomique d'un titre dans le dictionnaire, sur les octets UTF-8
+         * @return l'identifiant du titre, ou -1 s'il n'existe pas
+         */
+        int titleId(String title) {
+            byte[] key = title.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = titleCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = compareTitle(mid, key);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        private int compareTitle(int id, byte[] key) {
+            int from = getInt(titleStarts, id);
+            int length = getInt(titleStarts, id + 1) - from;
+            int position = (int) (titleBytes + from);
+            for (int k = 0; k < Math.min(length, key.length); k++) {
+                int c = Byte.compareUnsigned(buffer.get(position + k), key[k]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        /**
+         * Reconstruit l'événement d'indice i
+         */
+        Event event(int i) {
+            int titleId = getInt(titleIds, i);
+            LocalDateTime start = LocalDateTime.ofEpochSecond(getLong(startSeconds, i), getInt(startNanos, i), ZoneOffset.UTC);
+            Duration duration = Duration.ofSeconds(getLong(durationSeconds, i), getInt(durationNanos, i));
+            Event e = new Event(titleId < 0 ? null : title(titleId), start, duration);
+            byte frequency = getByte(frequencies, i);
+            if (frequency == NO_REPETITION) {
+                return e;
+            }
+            e.setRepetition(frequency(frequency));
+            int from = getInt(exceptionStarts, i);
+            long[] days = new long[getInt(exceptionStarts, i + 1) - from];
+            for (int k = 0; k < days.length; k++) {
+                days[k] = getLong(exceptions, from + k);
+            }
+            e.addExceptions(days);
+            switch (getByte(terminationKinds, i)) {
+                case TERMINATION_DATE -> e.setTermination(LocalDate.ofEpochDay(getLong(terminations, i)));
+                case TERMINATION_COUNT -> e.setTermination(getLong(terminations, i));
+                default -> {
+                    // Pas de terminaison
+                }
+            }
+            return e;
+        }
+    }
+}
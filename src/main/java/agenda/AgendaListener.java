@@ -0,0 +1,28 @@
+package agenda;
+
+import java.util.List;
+
+/**
+ * Observateur des ajouts d'événements à un agenda (journal, suivi des conflits...).
+ * Les modifications ultérieures d'un événement sont signalées par EventListener.
+ */
+interface AgendaListener {
+
+    /**
+     * Appelé après l'ajout (et l'indexation) d'un événement
+     * @param event l'événement ajouté
+     */
+    void eventAdded(Event event);
+
+    /**
+     * Appelé après l'ajout (et l'indexation) d'un lot d'événements par addAll :
+     * ce sont les added.size() derniers événements de l'agenda.
+     * Par défaut, équivaut à un appel à eventAdded pour chacun, dans l'ordre.
+     * @param added les événements ajoutés, dans l'ordre
+     */
+    default void eventsAdded(List<Event> added) {
+        for (Event e : added) {
+            eventAdded(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package agenda;
+
+/**
+ * Mesures des requêtes d'un agenda (voir Agenda.setMetrics) : pour chaque appel, sa durée, le nombre
+ * d'événements examinés et le nombre d'événements trouvés.
+ * record est appelée par le thread de la requête, après son calcul : elle doit être rapide et supporter
+ * des appels concurrents. Implémentations fournies : MetricsRecorder (en mémoire), JfrAgendaMetrics
+ * (événements JDK Flight Recorder).
+ */
+public interface AgendaMetrics {
+
+    /**
+     * Les requêtes mesurées
+     */
+    enum Query {
+        EVENTS_IN_DAY,
+        IS_FREE_FOR,
+        FIND_BY_TITLE
+    }
+
+    /**
+     * @param query la requête
+     * @param nanos sa durée, en nanosecondes
+     * @param scanned le nombre d'événements examinés (candidats de l'index, événements répétitifs testés)
+     * @param returned le nombre d'événements trouvés (pour isFreeFor : 1 si un conflit a été trouvé, sinon 0)
+     */
+    void record(Query query, long nanos, int scanned, int returned);
+}
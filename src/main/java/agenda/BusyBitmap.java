@@ -0,0 +1,255 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Occupation d'un agenda sur une fenêtre découpée en créneaux de même durée : un bit par créneau
+ * (1 : occupé), rangés dans des long. Le créneau i est [origin + i * slot, origin + (i + 1) * slot[.
+ * <p>
+ * Un créneau est occupé si un événement de cette durée, placé sur ce créneau, serait refusé par
+ * Agenda.isFreeFor : il chevauche une occurrence (répétitions comprises).
+ * Les cartes de plusieurs agendas (même fenêtre, mêmes créneaux) se combinent par opérations bit à bit :
+ * union pour « quelqu'un est occupé », intersection pour « tout le monde est occupé ».
+ * Les instances sont immuables.
+ */
+public final class BusyBitmap {
+
+    private final LocalDateTime origin;
+    private final Duration slot;
+    private final int size;
+    private final long[] words;
+
+    private BusyBitmap(LocalDateTime origin, Duration slot, int size, long[] words) {
+        this.origin = origin;
+        this.slot = slot;
+        this.size = size;
+        this.words = words;
+    }
+
+    /**
+     * Calcule l'occupation d'un agenda
+     * @param agenda l'agenda
+     * @param from début de la fenêtre (début du premier créneau)
+     * @param to fin de la fenêtre, arrondie au créneau suivant
+     * @param slot la durée d'un créneau (5 ou 15 minutes...)
+     * @return la carte d'occupation de l'agenda sur la fenêtre
+     */
+    public static BusyBitmap of(Agenda agenda, LocalDateTime from, LocalDateTime to, Duration slot) {
+        if (slot.isZero() || slot.isNegative()) {
+            throw new IllegalArgumentException("La durée d'un créneau doit être strictement positive.");
+        }
+        long slotNanos = slot.toNanos();
+        long size = from.isBefore(to) ? Math.ceilDiv(Duration.between(from, to).toNanos(), slotNanos) : 0;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trop de créneaux : " + size);
+        }
+        BusyBitmap bitmap = new BusyBitmap(from, slot, (int) size, new long[(int) ((size + 63) >>> 6)]);
+        if (size == 0) {
+            return bitmap;
+        }
+        LocalDateTime end = bitmap.slotStart((int) size);
+        agenda.eventsBetween(from, end).forEach(o -> {
+            // Créneaux i tels que début du créneau < fin de l'occurrence et fin du créneau > début de l'occurrence
+            long first = o.start().isAfter(from) ? Duration.between(from, o.start()).toNanos() / slotNanos : 0;
+            long last = o.end().isBefore(end) ? Math.ceilDiv(Duration.between(from, o.end()).toNanos(), slotNanos) : size;
+            bitmap.setRange((int) first, (int) Math.max(first, last));
+        });
+        return bitmap;
+    }
+
+    /**
+     * @param bitmaps des cartes de même fenêtre et mêmes créneaux (au moins une)
+     * @return les créneaux où au moins un agenda est occupé
+     */
+    public static BusyBitmap union(Collection<BusyBitmap> bitmaps) {
+        return combine(bitmaps, true);
+    }
+
+    /**
+     * @param bitmaps des cartes de même fenêtre et mêmes créneaux (au moins une)
+     * @return les créneaux où tous les agendas sont occupés
+     */
+    public static BusyBitmap intersection(Collection<BusyBitmap> bitmaps) {
+        return combine(bitmaps, false);
+    }
+
+    private static BusyBitmap combine(Collection<BusyBitmap> bitmaps, boolean union) {
+        Iterator<BusyBitmap> it = bitmaps.iterator();
+        if (!it.hasNext()) {
+            throw new IllegalArgumentException("Aucune carte à combiner.");
+        }
+        BusyBitmap first = it.next();
+        long[] result = first.words.clone();
+        while (it.hasNext()) {
+            long[] other = first.checkCompatible(it.next()).words;
+            for (int w = 0; w < result.length; w++) {
+                result[w] = union ? result[w] | other[w] : result[w] & other[w];
+            }
+        }
+        return new BusyBitmap(first.origin, first.slot, first.size, result);
+    }
+
+    /**
+     * @param other une carte de même fenêtre et mêmes créneaux
+     * @return les créneaux occupés dans les deux cartes
+     */
+    public BusyBitmap and(BusyBitmap other) {
+        long[] theirs = checkCompatible(other).words;
+        long[] result = new long[words.length];
+        for (int w = 0; w < result.length; w++) {
+            result[w] = words[w] & theirs[w];
+        }
+        return new BusyBitmap(origin, slot, size, result);
+    }
+
+    /**
+     * @param other une carte de même fenêtre et mêmes créneaux
+     * @return les créneaux occupés dans l'une ou l'autre carte
+     */
+    public BusyBitmap or(BusyBitmap other) {
+        long[] theirs = checkCompatible(other).words;
+        long[] result = new long[words.length];
+        for (int w = 0; w < result.length; w++) {
+            result[w] = words[w] | theirs[w];
+        }
+        return new BusyBitmap(origin, slot, size, result);
+    }
+
+    /**
+     * @return la carte inverse : les créneaux libres deviennent occupés et inversement
+     */
+    public BusyBitmap not() {
+        long[] result = new long[words.length];
+        for (int w = 0; w < result.length; w++) {
+            result[w] = ~words[w];
+        }
+        if ((size & 63) != 0) {
+            result[result.length - 1] &= (1L << size) - 1; // Les bits au-delà du dernier créneau restent à 0
+        }
+        return new BusyBitmap(origin, slot, size, result);
+    }
+
+    public LocalDateTime origin() {
+        return origin;
+    }
+
+    public Duration slot() {
+        return slot;
+    }
+
+    /**
+     * @return le nombre de créneaux
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return le début du créneau i (ou la fin de la fenêtre pour i = size())
+     */
+    public LocalDateTime slotStart(int i) {
+        return origin.plus(slot.multipliedBy(i));
+    }
+
+    /**
+     * @return vrai si le créneau i est occupé
+     */
+    public boolean isBusy(int i) {
+        checkIndex(i);
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * @return le nombre de créneaux occupés
+     */
+    public int busyCount() {
+        int count = 0;
+        for (long w : words) {
+            count += Long.bitCount(w);
+        }
+        return count;
+    }
+
+    /**
+     * @return le premier créneau occupé à partir de from, ou -1 s'il n'y en a pas
+     */
+    public int nextBusy(int from) {
+        return next(from, 0);
+    }
+
+    /**
+     * @return le premier créneau libre à partir de from, ou -1 s'il n'y en a pas
+     */
+    public int nextFree(int from) {
+        return next(from, -1);
+    }
+
+    /**
+     * Premier bit à 1 de (mot ^ flip) à partir de from
+     */
+    private int next(int from, long flip) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException(from);
+        }
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = (words[w] ^ flip) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < size ? i : -1;
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w] ^ flip;
+        }
+    }
+
+    private void setRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        Arrays.fill(words, firstWord + 1, lastWord, -1L);
+        words[lastWord] |= lastMask;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+    }
+
+    private BusyBitmap checkCompatible(BusyBitmap other) {
+        if (!origin.equals(other.origin) || !slot.equals(other.slot) || size != other.size) {
+            throw new IllegalArgumentException("Cartes incompatibles : fenêtres ou créneaux différents.");
+        }
+        return other;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BusyBitmap other && origin.equals(other.origin) && slot.equals(other.slot)
+            && size == other.size && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * origin.hashCode() + slot.hashCode()) + Arrays.hashCode(words);
+    }
+}
@@ -0,0 +1,12 @@
+package agenda;
+
+/**
+ * Statistiques d'un cache de l'agenda
+ *
+ * @param hits le nombre de requêtes servies par le cache
+ * @param misses le nombre de requêtes calculées (absentes du cache)
+ * @param size le nombre d'entrées actuellement en cache
+ * @param capacity le nombre maximal d'entrées
+ */
+public record CacheStats(long hits, long misses, int size, int capacity) {
+}
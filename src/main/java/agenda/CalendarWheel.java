@@ -0,0 +1,335 @@
+package agenda;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Index d'intervalles de jours [low, high] (epoch-days) rangés par semaine : une table de hachage associe
+ * à chaque semaine (floorDiv(low, BUCKET_DAYS)) le seau des intervalles courts qui y commencent.
+ * Un intervalle court couvre au plus BUCKET_DAYS jours : une recherche sur un jour ne lit que deux seaux.
+ * Chaque seau est trié par début : une recherche y trouve par dichotomie le premier intervalle qui peut la toucher
+ * (début au plus tôt low moins la plus grande durée du seau), soit O(log n + k) pour des événements d'un jour.
+ * Les intervalles plus longs vont dans un arbre d'intervalles de débordement.
+ * <p>
+ * Les seaux sont indépendants : ceux des semaines passées peuvent être retirés d'un coup (evictBefore)
+ * sans toucher aux autres. Les clés étant hachées, un intervalle lointain n'a pas besoin d'être traité à part.
+ * Même interface que IntervalTree pour les opérations utilisées par Agenda.
+ *
+ * @param <T> le type des valeurs associées aux intervalles
+ */
+final class CalendarWheel<T> {
+
+    // Largeur d'un seau (une semaine), et durée maximale (en jours touchés) d'un intervalle court
+    static final int BUCKET_DAYS = 7;
+
+    /**
+     * Les intervalles courts qui commencent dans une semaine, triés par début (à début égal, dans l'ordre d'ajout)
+     */
+    private static final class Bucket {
+        long[] lows = new long[4];
+        long[] highs = new long[4];
+        long[] ids = new long[4];
+        Object[] values = new Object[4];
+        int count;
+        long maxHigh = Long.MIN_VALUE;
+        // Plus grande durée (high - low) des intervalles du seau (elle peut rester plus large après un retrait)
+        long maxSpan;
+
+        void add(long low, long high, long id, Object value) {
+            if (count == lows.length) {
+                int capacity = count * 2;
+                lows = Arrays.copyOf(lows, capacity);
+                highs = Arrays.copyOf(highs, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            // Ajouts dans l'ordre chronologique : en fin de seau, sans décalage
+            int i = count == 0 || lows[count - 1] <= low ? count : firstStartingAfter(low);
+            System.arraycopy(lows, i, lows, i + 1, count - i);
+            System.arraycopy(highs, i, highs, i + 1, count - i);
+            System.arraycopy(ids, i, ids, i + 1, count - i);
+            System.arraycopy(values, i, values, i + 1, count - i);
+            lows[i] = low;
+            highs[i] = high;
+            ids[i] = id;
+            values[i] = value;
+            count++;
+            maxHigh = Math.max(maxHigh, high);
+            maxSpan = Math.max(maxSpan, high - low);
+        }
+
+        /**
+         * @return l'indice du premier intervalle qui commence après day (count s'il n'y en a pas)
+         */
+        int firstStartingAfter(long day) {
+            int from = 0;
+            int to = count;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (lows[middle] <= day) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+            return from;
+        }
+
+        void removeAt(int i) {
+            count--;
+            System.arraycopy(lows, i + 1, lows, i, count - i);
+            System.arraycopy(highs, i + 1, highs, i, count - i);
+            System.arraycopy(ids, i + 1, ids, i, count - i);
+            System.arraycopy(values, i + 1, values, i, count - i);
+            values[count] = null;
+        }
+    }
+
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+    private final IntervalTree<T> overflow = new IntervalTree<>();
+    private int shortCount;
+    // Bornes des intervalles courts (elles peuvent rester plus larges après un retrait)
+    private long minLow = Long.MAX_VALUE;
+    private long maxHigh = Long.MIN_VALUE;
+
+    int size() {
+        return shortCount + overflow.size();
+    }
+
+    /**
+     * @return le nombre de seaux (semaines) non vides
+     */
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * @return une borne inférieure des débuts d'intervalle (Long.MAX_VALUE si l'index est vide)
+     */
+    long minLow() {
+        return Math.min(shortCount == 0 ? Long.MAX_VALUE : minLow, overflow.minLow());
+    }
+
+    /**
+     * @return une borne supérieure des fins d'intervalle (Long.MIN_VALUE si l'index est vide)
+     */
+    long maxHigh() {
+        return Math.max(shortCount == 0 ? Long.MIN_VALUE : maxHigh, overflow.maxHigh());
+    }
+
+    /**
+     * Ajoute l'intervalle [low, high] associé à value : O(1) pour un intervalle court ajouté dans l'ordre
+     * chronologique, sinon un décalage dans le seau de sa semaine
+     */
+    void insert(long low, long high, long id, T value) {
+        if (high - low >= BUCKET_DAYS) {
+            overflow.insert(low, high, id, value);
+            return;
+        }
+        buckets.computeIfAbsent(Math.floorDiv(low, BUCKET_DAYS), week -> new Bucket()).add(low, high, id, value);
+        shortCount++;
+        minLow = Math.min(minLow, low);
+        maxHigh = Math.max(maxHigh, high);
+    }
+
+    /**
+     * Ajoute plusieurs intervalles : les courts un par un (comme insert), les longs d'un coup dans l'arbre
+     */
+    void insertAll(long[] lows, long[] highs, long[] ids, List<? extends T> values) {
+        int count = values.size();
+        long[] longLows = new long[0];
+        long[] longHighs = new long[0];
+        long[] longIds = new long[0];
+        int longCount = 0;
+        int[] longIndexes = new int[0];
+        for (int i = 0; i < count; i++) {
+            if (highs[i] - lows[i] < BUCKET_DAYS) {
+                insert(lows[i], highs[i], ids[i], values.get(i));
+                continue;
+            }
+            if (longCount == longLows.length) {
+                int capacity = Math.max(16, longCount * 2);
+                longLows = Arrays.copyOf(longLows, capacity);
+                longHighs = Arrays.copyOf(longHighs, capacity);
+                longIds = Arrays.copyOf(longIds, capacity);
+                longIndexes = Arrays.copyOf(longIndexes, capacity);
+            }
+            longLows[longCount] = lows[i];
+            longHighs[longCount] = highs[i];
+            longIds[longCount] = ids[i];
+            longIndexes[longCount] = i;
+            longCount++;
+        }
+        if (longCount > 0) {
+            int[] indexes = Arrays.copyOf(longIndexes, longCount);
+            overflow.insertAll(longLows, longHighs, longIds, new AbstractList<T>() {
+                @Override
+                public T get(int index) {
+                    return values.get(indexes[index]);
+                }
+
+                @Override
+                public int size() {
+                    return indexes.length;
+                }
+            });
+        }
+    }
+
+    /**
+     * Supprime tous les intervalles commençant à low et associés à value (comparaison par identité)
+     * @return les identifiants des intervalles supprimés
+     */
+    long[] removeAll(long low, T value) {
+        long[] ids = overflow.removeAll(low, value);
+        Long week = Math.floorDiv(low, BUCKET_DAYS);
+        Bucket bucket = buckets.get(week);
+        if (bucket == null) {
+            return ids;
+        }
+        for (int i = 0; i < bucket.count; ) {
+            if (bucket.lows[i] == low && bucket.values[i] == value) {
+                ids = Arrays.copyOf(ids, ids.length + 1);
+                ids[ids.length - 1] = bucket.ids[i];
+                bucket.removeAt(i);
+                shortCount--;
+            } else {
+                i++;
+            }
+        }
+        if (bucket.count == 0) {
+            buckets.remove(week);
+        }
+        return ids;
+    }
+
+    /**
+     * Parcourt tous les intervalles qui chevauchent [low, high] : seaux des semaines concernées, puis débordement
+     */
+    void forEachOverlapping(long low, long high, ObjLongConsumer<T> action) {
+        visitShort(low, high, (value, id) -> {
+            action.accept(value, id);
+            return false;
+        });
+        overflow.forEachOverlapping(low, high, action);
+    }
+
+    /**
+     * Détermine si l'un des intervalles qui chevauchent [low, high] vérifie le prédicat.
+     * La recherche s'arrête au premier trouvé.
+     */
+    boolean anyOverlapping(long low, long high, Predicate<T> predicate) {
+        return visitShort(low, high, (value, id) -> predicate.test(value))
+            || overflow.anyOverlapping(low, high, predicate);
+    }
+
+    /**
+     * Retire d'un coup les intervalles qui finissent avant day : les seaux entièrement passés, sans toucher
+     * aux autres, et les intervalles longs terminés
+     * @param evicted appelée avec chaque valeur retirée et son identifiant
+     * @return le nombre d'intervalles retirés
+     */
+    int evictBefore(long day, ObjLongConsumer<T> evicted) {
+        int removed = 0;
+        for (Iterator<Bucket> it = buckets.values().iterator(); it.hasNext(); ) {
+            Bucket bucket = it.next();
+            if (bucket.maxHigh >= day) {
+                continue;
+            }
+            for (int i = 0; i < bucket.count; i++) {
+                evicted.accept(value(bucket, i), bucket.ids[i]);
+            }
+            removed += bucket.count;
+            shortCount -= bucket.count;
+            it.remove();
+        }
+        return removed + overflow.removeEndingBefore(day, evicted);
+    }
+
+    /**
+     * Parcourt, sans les retirer, les intervalles que evictBefore(day) retirerait
+     * @param action appelée avec chaque valeur et son identifiant
+     */
+    void forEachEvictable(long day, ObjLongConsumer<T> action) {
+        for (Bucket bucket : buckets.values()) {
+            if (bucket.maxHigh < day) {
+                for (int i = 0; i < bucket.count; i++) {
+                    action.accept(value(bucket, i), bucket.ids[i]);
+                }
+            }
+        }
+        overflow.forEachEndingBefore(day, action);
+    }
+
+    /**
+     * Change les identifiants de tous les intervalles (voir IntervalTree.renumber)
+     */
+    void renumber(LongUnaryOperator renumber) {
+        for (Bucket bucket : buckets.values()) {
+            for (int i = 0; i < bucket.count; i++) {
+                bucket.ids[i] = renumber.applyAsLong(bucket.ids[i]);
+            }
+        }
+        overflow.renumber(renumber);
+    }
+
+    /**
+     * Parcourt les intervalles courts qui chevauchent [low, high], jusqu'à ce que visit renvoie vrai
+     * @return vrai si visit a renvoyé vrai
+     */
+    private boolean visitShort(long low, long high, Visitor<T> visit) {
+        if (shortCount == 0 || high < minLow || low > maxHigh) {
+            return false;
+        }
+        // Un intervalle court qui touche low commence au plus tôt BUCKET_DAYS - 1 jours avant
+        long firstWeek = Math.floorDiv(Math.max(low, minLow) - (BUCKET_DAYS - 1), BUCKET_DAYS);
+        long lastWeek = Math.floorDiv(Math.min(high, maxHigh), BUCKET_DAYS);
+        if (lastWeek - firstWeek >= buckets.size()) {
+            // Fenêtre plus large que l'index : on parcourt les seaux existants plutôt que les semaines
+            for (Bucket bucket : buckets.values()) {
+                if (visitBucket(bucket, low, high, visit)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (long week = firstWeek; week <= lastWeek; week++) {
+            Bucket bucket = buckets.get(week);
+            if (bucket != null && visitBucket(bucket, low, high, visit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean visitBucket(Bucket bucket, long low, long high, Visitor<T> visit) {
+        if (bucket.maxHigh < low) {
+            return false;
+        }
+        // Un intervalle du seau qui touche low commence au plus tôt maxSpan jours avant
+        int i = low <= Long.MIN_VALUE + bucket.maxSpan ? 0 : bucket.firstStartingAfter(low - bucket.maxSpan - 1);
+        for (; i < bucket.count && bucket.lows[i] <= high; i++) {
+            if (bucket.highs[i] >= low && visit.visit(value(bucket, i), bucket.ids[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(Bucket bucket, int i) {
+        return (T) bucket.values[i];
+    }
+
+    @FunctionalInterface
+    private interface Visitor<T> {
+        boolean visit(T value, long id);
+    }
+}
@@ -0,0 +1,280 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agenda compact en mémoire : les événements sont rangés par colonnes dans des tableaux de types primitifs
+ * (début, durée, identifiant de titre, code de fréquence, jours extrêmes), une cinquantaine d'octets par
+ * événement simple au lieu de plusieurs objets (Event, LocalDateTime, Duration, état figé, nœud d'index).
+ * Les requêtes parcourent ces colonnes ; les Event ne sont construits qu'à la demande, pour les résultats.
+ * <p>
+ * Les événements sont ajoutés par valeur : l'état de l'événement au moment de l'ajout est copié, ses
+ * modifications ultérieures ne sont pas vues, et les Event renvoyés sont des copies indépendantes.
+ * Seuls les événements répétitifs (minoritaires) gardent leur état figé (EventSnapshot), pour leurs exceptions
+ * et leur terminaison. Les résultats sont les mêmes, dans le même ordre, que ceux d'un Agenda contenant
+ * les mêmes événements. Comme Agenda, cette classe n'est pas prévue pour être utilisée par plusieurs threads.
+ */
+public final class ColumnarAgenda {
+
+    private static final int NONE = -1;
+
+    // Un événement simple est court (trié par premier jour) s'il touche au plus ce nombre de jours
+    static final int SHORT_SPAN_DAYS = 7;
+
+    private int size;
+    private long[] startSeconds = new long[16];
+    private int[] startNanos = new int[16];
+    private long[] durationSeconds = new long[16];
+    private int[] durationNanos = new int[16];
+    private int[] titleIds = new int[16];
+    private byte[] frequencies = new byte[16];          // codes de AgendaFile (NO_REPETITION : événement simple)
+    private long[] firstDays = new long[16];            // premier jour où isInDay peut être vrai
+    private long[] lastDays = new long[16];             // dernier jour (Long.MAX_VALUE : répétition sans fin)
+    private int[] nextWithSameTitle = new int[16];      // rang suivant de même titre, ou NONE
+
+    // Dictionnaire des titres (null compris), et premier et dernier rang de chaque titre
+    // (listes chaînées par nextWithSameTitle)
+    private final Map<String, Integer> titleIndex = new HashMap<>();
+    private final List<String> titles = new ArrayList<>();
+    private int[] firstOfTitle = new int[16];
+    private int[] lastOfTitle = new int[16];
+
+    // États figés des événements répétitifs, par rang
+    private final Map<Integer, EventSnapshot> repetitive = new HashMap<>();
+
+    // Événements simples courts (au plus SHORT_SPAN_DAYS jours), clés (premier jour << 32 | rang) ;
+    // les sortedShort premières sont triées, les suivantes (ajouts récents) le seront à la prochaine requête
+    private long[] shortSingles = new long[16];
+    private int shortCount;
+    private int sortedShort;
+    // Les autres : événements simples longs et événements répétitifs, par rang croissant
+    private int[] others = new int[16];
+    private int otherCount;
+
+    /**
+     * Ajoute (une copie de) l'événement
+     * @param e l'événement à ajouter
+     */
+    public void addEvent(Event e) {
+        EventSnapshot s = e.freeze();
+        int rank = size;
+        if (rank == startSeconds.length) {
+            grow();
+        }
+        startSeconds[rank] = s.start().toEpochSecond(ZoneOffset.UTC);
+        startNanos[rank] = s.start().getNano();
+        durationSeconds[rank] = s.duration().getSeconds();
+        durationNanos[rank] = s.duration().getNano();
+        firstDays[rank] = s.firstTouchedDay();
+        lastDays[rank] = s.lastTouchedDay();
+        indexTitle(rank, s.title());
+        if (s.isRepetitive()) {
+            frequencies[rank] = (byte) (s.repetition().frequency().ordinal() + 1);
+            repetitive.put(rank, s);
+            addOther(rank);
+        } else {
+            frequencies[rank] = AgendaFile.NO_REPETITION;
+            if (lastDays[rank] - firstDays[rank] < SHORT_SPAN_DAYS) {
+                if (shortCount == shortSingles.length) {
+                    shortSingles = Arrays.copyOf(shortSingles, shortCount * 2);
+                }
+                shortSingles[shortCount++] = firstDays[rank] << 32 | rank;
+            } else {
+                addOther(rank);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Ajoute (une copie de) chaque événement, dans l'ordre
+     * @param toAdd les événements à ajouter
+     */
+    public void addAll(Collection<? extends Event> toAdd) {
+        reserve(size + toAdd.size());
+        for (Event e : toAdd) {
+            addEvent(e);
+        }
+    }
+
+    /**
+     * @return le nombre d'événements ajoutés
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Construit l'événement d'un rang donné
+     * @param index le rang d'ajout de l'événement (de 0 à size() - 1)
+     * @return un nouvel Event, dans l'état où l'événement a été ajouté
+     */
+    public Event event(int index) {
+        return snapshot(index).toEvent();
+    }
+
+    /**
+     * @param index le rang d'ajout de l'événement (de 0 à size() - 1)
+     * @return l'état figé de l'événement de ce rang
+     */
+    public EventSnapshot snapshot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        EventSnapshot s = repetitive.get(index);
+        if (s != null) {
+            return s;
+        }
+        return new EventSnapshot(titles.get(titleIds[index]),
+            LocalDateTime.ofEpochSecond(startSeconds[index], startNanos[index], ZoneOffset.UTC),
+            Duration.ofSeconds(durationSeconds[index], durationNanos[index]), null);
+    }
+
+    /**
+     * Calcule les événements qui ont lieu un jour donné (mêmes résultats que Agenda.eventsInDay)
+     * @param day le jour à tester
+     * @return les événements de ce jour (nouveaux Event), dans l'ordre d'ajout
+     */
+    public List<Event> eventsInDay(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        sortShortSingles();
+        int[] ranks = new int[16];
+        int found = 0;
+        // Événements simples courts : leur premier jour est dans ]day - SHORT_SPAN_DAYS, day]
+        long firstKey = (epochDay - SHORT_SPAN_DAYS + 1) << 32;
+        int k = Arrays.binarySearch(shortSingles, 0, shortCount, firstKey);
+        for (k = k < 0 ? -k - 1 : k; k < shortCount && shortSingles[k] >> 32 <= epochDay; k++) {
+            int rank = (int) shortSingles[k];
+            if (lastDays[rank] >= epochDay) {
+                ranks = append(ranks, found++, rank);
+            }
+        }
+        // Les autres : filtrés sur les jours extrêmes, puis par isInDay pour les répétitifs
+        for (int o = 0; o < otherCount; o++) {
+            int rank = others[o];
+            if (firstDays[rank] <= epochDay && epochDay <= lastDays[rank]
+                && (frequencies[rank] == AgendaFile.NO_REPETITION || repetitive.get(rank).isInDay(day))) {
+                ranks = append(ranks, found++, rank);
+            }
+        }
+        Arrays.sort(ranks, 0, found);
+        List<Event> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(event(ranks[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @param title le titre à rechercher
+     * @return les événements qui ont ce titre (nouveaux Event), dans l'ordre d'ajout
+     */
+    public List<Event> findByTitle(String title) {
+        List<Event> result = new ArrayList<>();
+        Integer id = titleIndex.get(title);
+        if (id != null) {
+            for (int rank = firstOfTitle[id]; rank != NONE; rank = nextWithSameTitle[rank]) {
+                result.add(event(rank));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return un Agenda contenant (des copies de) tous les événements, dans le même ordre
+     */
+    public Agenda toAgenda() {
+        List<Event> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            all.add(event(i));
+        }
+        Agenda agenda = new Agenda();
+        agenda.addAll(all);
+        return agenda;
+    }
+
+    private void indexTitle(int rank, String title) {
+        nextWithSameTitle[rank] = NONE;
+        Integer known = titleIndex.get(title);
+        int id;
+        if (known == null) {
+            id = titles.size();
+            titles.add(title);
+            titleIndex.put(title, id);
+            if (id == firstOfTitle.length) {
+                firstOfTitle = Arrays.copyOf(firstOfTitle, id * 2);
+                lastOfTitle = Arrays.copyOf(lastOfTitle, id * 2);
+            }
+            firstOfTitle[id] = rank;
+        } else {
+            id = known;
+            nextWithSameTitle[lastOfTitle[id]] = rank;
+        }
+        lastOfTitle[id] = rank;
+        titleIds[rank] = id;
+    }
+
+    private void addOther(int rank) {
+        if (otherCount == others.length) {
+            others = Arrays.copyOf(others, otherCount * 2);
+        }
+        others[otherCount++] = rank;
+    }
+
+    /**
+     * Trie les clés ajoutées depuis la dernière requête, puis les fusionne avec celles déjà triées
+     */
+    private void sortShortSingles() {
+        if (sortedShort == shortCount) {
+            return;
+        }
+        Arrays.parallelSort(shortSingles, sortedShort, shortCount);
+        if (sortedShort > 0 && shortSingles[sortedShort - 1] > shortSingles[sortedShort]) {
+            long[] merged = new long[shortSingles.length];
+            int i = 0;
+            int j = sortedShort;
+            for (int k = 0; k < shortCount; k++) {
+                merged[k] = j == shortCount || (i < sortedShort && shortSingles[i] < shortSingles[j])
+                    ? shortSingles[i++] : shortSingles[j++];
+            }
+            shortSingles = merged;
+        }
+        sortedShort = shortCount;
+    }
+
+    private static int[] append(int[] values, int index, int value) {
+        if (index == values.length) {
+            values = Arrays.copyOf(values, index * 2);
+        }
+        values[index] = value;
+        return values;
+    }
+
+    private void grow() {
+        reserve(Math.max(16, size * 2));
+    }
+
+    private void reserve(int capacity) {
+        if (capacity <= startSeconds.length) {
+            return;
+        }
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        startNanos = Arrays.copyOf(startNanos, capacity);
+        durationSeconds = Arrays.copyOf(durationSeconds, capacity);
+        durationNanos = Arrays.copyOf(durationNanos, capacity);
+        titleIds = Arrays.copyOf(titleIds, capacity);
+        frequencies = Arrays.copyOf(frequencies, capacity);
+        firstDays = Arrays.copyOf(firstDays, capacity);
+        lastDays = Arrays.copyOf(lastDays, capacity);
+        nextWithSameTitle = Arrays.copyOf(nextWithSameTitle, capacity);
+    }
+}
@@ -0,0 +1,274 @@
+package agenda;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Un agenda utilisable par plusieurs threads : les lectures (eventsInDay, findByTitle, isFreeFor)
+ * ne prennent aucun verrou et ne sont jamais bloquées par les écritures.
+ * Les résultats sont les mêmes que ceux d'un Agenda auquel on aurait ajouté les événements dans le même ordre.
+ * <p>
+ * Les événements simples sont rangés par jour (un tableau par jour touché) ; ceux qui s'étendent sur plus de
+ * MAX_BUCKETS jours, et les événements répétitifs, sont dans des tableaux à part.
+ * Les tableaux sont des PublishedArray : un ajout écrit dans une case libre puis publie la nouvelle longueur,
+ * avec une croissance amortie (n ajouts dans un même tableau coûtent O(n)). Les écritures sont sérialisées
+ * entre elles. Un retrait (événement devenu répétitif) remplace le tableau concerné par une copie.
+ * Les règles de isFreeFor et l'index des titres sont ceux de Agenda (Occupancy, TitleIndex).
+ * <p>
+ * Les index conservent l'état figé (EventSnapshot) de chaque événement : une lecture ne voit jamais
+ * un événement à moitié modifié. Une modification ultérieure (répétition, exceptions, terminaison)
+ * remplace cet état figé, elle est visible des lectures suivantes.
+ */
+public class ConcurrentAgenda {
+
+    // Au-delà de ce nombre de jours, un événement simple va dans la liste des événements longs
+    static final int MAX_BUCKETS = 7;
+
+    /**
+     * Un événement, son numéro d'ajout et son état figé au moment de l'indexation
+     */
+    private record Entry(long sequence, Event event, EventSnapshot snapshot) {
+    }
+
+    // Événements simples, par jour (epoch-day) touché
+    private final Map<Long, PublishedArray<Entry>> byDay = new ConcurrentHashMap<>();
+    // Événements simples longs, et événements répétitifs
+    private volatile PublishedArray<Entry> longEvents = new PublishedArray<>();
+    private volatile PublishedArray<Entry> repetitiveEvents = new PublishedArray<>();
+    // Jours extrêmes touchés par les événements simples (bornes de recherche pour isFreeFor)
+    private volatile long minDay = Long.MAX_VALUE;
+    private volatile long maxDay = Long.MIN_VALUE;
+    private volatile int singleCount;
+
+    // Index des titres : exact, et en minuscules trié (casse, préfixe)
+    private final TitleIndex titles = TitleIndex.concurrent();
+
+    // Protège les écritures (les lectures n'en ont pas besoin)
+    private final Object writeLock = new Object();
+    private long nextSequence;
+    private volatile int size;
+
+    private final EventListener reindexer = this::reindex;
+
+    // Accès de isFreeFor aux index, sans verrou
+    private final Occupancy occupancy = new Occupancy() {
+        @Override
+        public int singleCount() {
+            return singleCount;
+        }
+
+        @Override
+        public long minSingleDay() {
+            return minDay;
+        }
+
+        @Override
+        public long maxSingleDay() {
+            return maxDay;
+        }
+
+        @Override
+        public boolean anySingle(long low, long high, Predicate<EventSnapshot> test) {
+            Predicate<Entry> onSnapshot = entry -> test.test(entry.snapshot());
+            long first = Math.max(low, minDay);
+            long last = Math.min(high, maxDay);
+            if (first <= last && last - first >= byDay.size()) {
+                // Fenêtre plus large que l'index : on parcourt les jours existants plutôt que la fenêtre
+                for (Map.Entry<Long, PublishedArray<Entry>> day : byDay.entrySet()) {
+                    if (day.getKey() >= first && day.getKey() <= last && day.getValue().anyMatch(onSnapshot)) {
+                        return true;
+                    }
+                }
+            } else {
+                for (long day = first; day <= last; day++) {
+                    PublishedArray<Entry> entries = byDay.get(day);
+                    if (entries != null && entries.anyMatch(onSnapshot)) {
+                        return true;
+                    }
+                }
+            }
+            // Les événements longs sont peu nombreux : on les compare tous
+            return longEvents.anyMatch(onSnapshot);
+        }
+
+        @Override
+        public boolean anyRepetitive(Predicate<EventSnapshot> test) {
+            return repetitiveEvents.anyMatch(entry -> test.test(entry.snapshot()));
+        }
+    };
+
+    /**
+     * Ajoute un événement à cet agenda
+     * @param e l'événement à ajouter
+     */
+    public void addEvent(Event e) {
+        synchronized (writeLock) {
+            index(new Entry(nextSequence++, e, e.freeze()));
+            titles.add(e);
+            size++;
+            e.addListener(reindexer);
+        }
+    }
+
+    /**
+     * @return le nombre d'événements ajoutés
+     */
+    public int size() {
+        return size;
+    }
+
+    private void index(Entry entry) {
+        EventSnapshot e = entry.snapshot();
+        if (e.isRepetitive()) {
+            repetitiveEvents.add(entry);
+            return;
+        }
+        long first = e.startEpochDay();
+        long last = Math.max(first, e.endEpochDay());
+        if (last - first >= MAX_BUCKETS) {
+            longEvents.add(entry);
+        } else {
+            for (long day = first; day <= last; day++) {
+                byDay.computeIfAbsent(day, d -> new PublishedArray<>()).add(entry);
+            }
+        }
+        // Mises à jour faites sous le verrou d'écriture : pas de course entre écrivains
+        if (first < minDay) {
+            minDay = first;
+        }
+        if (last > maxDay) {
+            maxDay = last;
+        }
+        singleCount++;
+    }
+
+    private void reindex(Event e) {
+        synchronized (writeLock) {
+            if (!e.isRepetitive()) {
+                return;
+            }
+            EventSnapshot frozen = e.freeze();
+            Predicate<Entry> same = entry -> entry.event() == e;
+            // Événement déjà répétitif : on remplace son état figé
+            List<Entry> moved = new ArrayList<>();
+            for (Entry entry : repetitiveEvents.toList()) {
+                if (same.test(entry)) {
+                    moved.add(entry);
+                }
+            }
+            if (moved.isEmpty()) {
+                // Événement simple devenu répétitif : on le retire des jours et des événements longs
+                long first = e.startEpochDay();
+                long last = Math.max(first, e.endEpochDay());
+                if (last - first >= MAX_BUCKETS) {
+                    for (Entry entry : longEvents.toList()) {
+                        if (same.test(entry)) {
+                            moved.add(entry);
+                        }
+                    }
+                    longEvents = longEvents.without(same);
+                } else {
+                    for (long day = first; day <= last; day++) {
+                        PublishedArray<Entry> entries = byDay.get(day);
+                        if (entries == null) {
+                            continue;
+                        }
+                        if (day == first) {
+                            for (Entry entry : entries.toList()) {
+                                if (same.test(entry)) {
+                                    moved.add(entry);
+                                }
+                            }
+                        }
+                        PublishedArray<Entry> remaining = entries.without(same);
+                        if (remaining.isEmpty()) {
+                            byDay.remove(day);
+                        } else {
+                            byDay.put(day, remaining);
+                        }
+                    }
+                }
+                singleCount -= moved.size();
+            }
+            if (moved.isEmpty()) {
+                return;
+            }
+            List<Entry> updated = new ArrayList<>(repetitiveEvents.without(same).toList());
+            for (Entry entry : moved) {
+                updated.add(new Entry(entry.sequence(), e, frozen));
+            }
+            updated.sort(Comparator.comparingLong(Entry::sequence));
+            PublishedArray<Entry> replaced = new PublishedArray<>();
+            replaced.addAll(updated);
+            repetitiveEvents = replaced;
+        }
+    }
+
+    /**
+     * Calcule les événements qui ont lieu un jour donné (mêmes résultats, dans le même ordre, que Agenda.eventsInDay)
+     * @param day le jour à tester
+     * @return la liste des événements de ce jour
+     */
+    public List<Event> eventsInDay(LocalDate day) {
+        List<Entry> found = new ArrayList<>();
+        Predicate<Entry> collect = entry -> {
+            if (entry.snapshot().isInDay(day)) {
+                found.add(entry);
+            }
+            return false;
+        };
+        PublishedArray<Entry> sameDay = byDay.get(day.toEpochDay());
+        if (sameDay != null) {
+            sameDay.anyMatch(collect);
+        }
+        longEvents.anyMatch(collect);
+        repetitiveEvents.anyMatch(collect);
+        found.sort(Comparator.comparingLong(Entry::sequence));
+        List<Event> result = new ArrayList<>(found.size());
+        for (Entry entry : found) {
+            result.add(entry.event());
+        }
+        return result;
+    }
+
+    /**
+     * Trouver les événements de l'agenda en fonction de leur titre
+     * @param title le titre à rechercher (null : les événements sans titre)
+     * @return les événements qui ont le même titre, dans l'ordre d'ajout
+     */
+    public List<Event> findByTitle(String title) {
+        return titles.find(title);
+    }
+
+    /**
+     * Trouver les événements dont le titre est égal à title, sans tenir compte de la casse
+     * @param title le titre à rechercher (null : les événements sans titre, comme findByTitle)
+     * @return les événements correspondants, dans l'ordre d'ajout
+     */
+    public List<Event> findByTitleIgnoreCase(String title) {
+        return titles.findIgnoreCase(title);
+    }
+
+    /**
+     * Trouver les événements dont le titre commence par prefix, sans tenir compte de la casse
+     * @param prefix le début du titre
+     * @return les événements correspondants, triés par titre puis dans l'ordre d'ajout
+     */
+    public List<Event> findByTitlePrefix(String prefix) {
+        return titles.findByPrefix(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Déterminer s’il y a de la place dans l'agenda pour un événement (mêmes règles que Agenda.isFreeFor)
+     * @param candidate L'événement à tester
+     * @return vrai s’il y a de la place dans l'agenda pour cet événement
+     */
+    public boolean isFreeFor(Event candidate) {
+        return Occupancy.isFreeFor(occupancy, candidate.freeze(), null);
+    }
+}
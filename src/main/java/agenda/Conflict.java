@@ -0,0 +1,18 @@
+package agenda;
+
+/**
+ * Deux occurrences qui se chevauchent (au sens de Agenda.isFreeFor), la première étant celle qui commence
+ * le plus tôt (ou, à début égal, celle de l'événement ajouté le premier).
+ *
+ * @param first l'occurrence qui commence la première
+ * @param second l'occurrence qui commence pendant first
+ */
+public record Conflict(Occurrence first, Occurrence second) {
+
+    /**
+     * Condition de chevauchement de isFreeFor : (Début1 < Fin2) ET (Fin1 > Début2)
+     */
+    static boolean overlap(Occurrence a, Occurrence b) {
+        return a.start().isBefore(b.end()) && a.end().isAfter(b.start());
+    }
+}
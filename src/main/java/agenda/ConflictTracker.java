@@ -0,0 +1,211 @@
+package agenda;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suivi incrémental des conflits d'un agenda sur une fenêtre [from, to[ : chaque ajout (addEvent, addAll)
+ * ou modification d'un événement (répétition, exception, terminaison) ne recalcule que les conflits
+ * de cet événement, en cherchant les occurrences qu'il chevauche dans un arbre d'intervalles.
+ * Le résultat est toujours celui de Agenda.conflicts(from, to).
+ * <p>
+ * Chaque ajout est une entrée distincte : un événement ajouté deux fois est en conflit avec lui-même.
+ * <p>
+ * Le suivi s'abonne à l'agenda et à chacun de ses événements : detach (ou close) les désabonne,
+ * les conflits restent alors ceux du moment du détachement.
+ */
+public final class ConflictTracker implements AutoCloseable {
+
+    private final Agenda agenda;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    // Occurrences de la fenêtre, sur [début, fin] en secondes (filtrées ensuite avec la condition exacte)
+    private final IntervalTree<Slot> occurrences = new IntervalTree<>();
+    private long nextSlotId;
+    // Pour chaque entrée (rang d'ajout dans l'agenda), ses occurrences dans l'arbre et ses conflits
+    private final List<List<Slot>> slotsByEntry = new ArrayList<>();
+    private final List<List<Pair>> pairsByEntry = new ArrayList<>();
+    // Les entrées de chaque événement (un événement peut être ajouté plusieurs fois)
+    private final Map<Event, List<Integer>> entriesByEvent = new IdentityHashMap<>();
+    private final Set<Pair> pairs = new LinkedHashSet<>();
+
+    private final EventListener changeListener = this::eventChanged;
+    private final AgendaListener addListener = this::eventAdded;
+    private boolean detached;
+
+    /**
+     * Une occurrence d'une entrée, dans l'arbre
+     */
+    private record Slot(long id, int entry, Occurrence occurrence) {
+    }
+
+    /**
+     * Un conflit entre deux entrées (égalité par identité : deux conflits identiques restent distincts)
+     */
+    private static final class Pair {
+        final int firstEntry;
+        final int secondEntry;
+        final Conflict conflict;
+
+        Pair(int firstEntry, int secondEntry, Conflict conflict) {
+            this.firstEntry = firstEntry;
+            this.secondEntry = secondEntry;
+            this.conflict = conflict;
+        }
+    }
+
+    private ConflictTracker(Agenda agenda, LocalDateTime from, LocalDateTime to) {
+        this.agenda = agenda;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Commence le suivi des conflits d'un agenda : les conflits des événements déjà présents sont calculés,
+     * puis tenus à jour à chaque ajout ou modification
+     * @param agenda l'agenda à surveiller
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     * @return le suivi des conflits
+     */
+    public static ConflictTracker attach(Agenda agenda, LocalDateTime from, LocalDateTime to) {
+        ConflictTracker tracker = new ConflictTracker(agenda, from, to);
+        for (Event e : agenda.events) {
+            tracker.eventAdded(e);
+        }
+        agenda.addListener(tracker.addListener);
+        return tracker;
+    }
+
+    /**
+     * Arrête le suivi : le suivi n'observe plus l'agenda ni ses événements (sans effet s'il est déjà détaché)
+     */
+    public synchronized void detach() {
+        if (detached) {
+            return;
+        }
+        detached = true;
+        agenda.removeListener(addListener);
+        for (Event e : entriesByEvent.keySet()) {
+            e.removeListener(changeListener);
+        }
+    }
+
+    /**
+     * Équivaut à detach
+     */
+    @Override
+    public void close() {
+        detach();
+    }
+
+    /**
+     * @return les conflits actuels, dans l'ordre de début de leur seconde occurrence
+     */
+    public synchronized List<Conflict> conflicts() {
+        List<Conflict> result = new ArrayList<>(pairs.size());
+        for (Pair p : pairs) {
+            result.add(p.conflict);
+        }
+        result.sort(Comparator.comparing((Conflict c) -> c.second().start()));
+        return result;
+    }
+
+    /**
+     * @return le nombre de conflits actuels
+     */
+    public synchronized int size() {
+        return pairs.size();
+    }
+
+    private synchronized void eventAdded(Event e) {
+        int entry = slotsByEntry.size();
+        slotsByEntry.add(new ArrayList<>(1));
+        pairsByEntry.add(new ArrayList<>(1));
+        List<Integer> entries = entriesByEvent.get(e);
+        if (entries == null) {
+            entries = new ArrayList<>(1);
+            entriesByEvent.put(e, entries);
+            e.addListener(changeListener);
+        }
+        entries.add(entry);
+        insert(entry, e);
+    }
+
+    /**
+     * Les occurrences d'un événement ont changé : on retire celles de toutes ses entrées et leurs conflits,
+     * puis on les réinsère
+     */
+    private synchronized void eventChanged(Event e) {
+        List<Integer> entries = entriesByEvent.get(e);
+        for (int entry : entries) {
+            for (Slot s : slotsByEntry.get(entry)) {
+                occurrences.remove(low(s.occurrence()), s.id());
+            }
+            slotsByEntry.get(entry).clear();
+            for (Pair p : pairsByEntry.get(entry)) {
+                int other = p.firstEntry == entry ? p.secondEntry : p.firstEntry;
+                if (pairs.remove(p) && other != entry) {
+                    pairsByEntry.get(other).remove(p);
+                }
+            }
+            pairsByEntry.get(entry).clear();
+        }
+        for (int entry : entries) {
+            insert(entry, e);
+        }
+    }
+
+    /**
+     * Ajoute les occurrences de l'entrée dans l'arbre, avec leurs conflits avec celles qui y sont déjà
+     */
+    private void insert(int entry, Event e) {
+        for (Iterator<Occurrence> it = e.occurrences(from, to); it.hasNext(); ) {
+            Occurrence o = it.next();
+            long low = low(o);
+            long high = Math.max(low, high(o));
+            occurrences.forEachOverlapping(low, high, (existing, id) -> {
+                if (Conflict.overlap(existing.occurrence(), o)) {
+                    addPair(existing, entry, o);
+                }
+            });
+            Slot slot = new Slot(nextSlotId++, entry, o);
+            occurrences.insert(low, high, slot.id(), slot);
+            slotsByEntry.get(entry).add(slot);
+        }
+    }
+
+    private void addPair(Slot existing, int entry, Occurrence o) {
+        Occurrence other = existing.occurrence();
+        // La première occurrence est celle qui commence le plus tôt, puis celle de l'entrée ajoutée la première
+        boolean existingFirst = other.start().isBefore(o.start())
+            || (other.start().equals(o.start()) && existing.entry() <= entry);
+        Pair p = existingFirst
+            ? new Pair(existing.entry(), entry, new Conflict(other, o))
+            : new Pair(entry, existing.entry(), new Conflict(o, other));
+        pairs.add(p);
+        pairsByEntry.get(existing.entry()).add(p);
+        if (existing.entry() != entry) {
+            pairsByEntry.get(entry).add(p);
+        }
+    }
+
+    private static long low(Occurrence o) {
+        return Math.min(o.start().toEpochSecond(ZoneOffset.UTC), o.end().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static long high(Occurrence o) {
+        // Arrondi à la seconde supérieure : l'intervalle en secondes contient toujours l'occurrence
+        LocalDateTime last = o.end().isAfter(o.start()) ? o.end() : o.start();
+        return last.toEpochSecond(ZoneOffset.UTC) + (last.getNano() > 0 ? 1 : 0);
+    }
+}
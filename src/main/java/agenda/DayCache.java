@@ -0,0 +1,145 @@
+package agenda;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache LRU borné des résultats de Agenda.eventsInDay, par jour (epoch-day).
+ * L'invalidation est précise : seuls les jours dont le résultat change à cause d'un événement sont retirés,
+ * quelle que soit la durée de l'événement ou sa répétition. Un index inverse (événement -> jours en cache
+ * où il apparaît) évite de parcourir toutes les listes en cache à chaque invalidation.
+ * Les méthodes sont synchronisées. Chaque invalidation change la version du cache : un résultat calculé
+ * avant une invalidation (version lue avant le calcul, voir version et put) n'est pas mis en cache.
+ */
+final class DayCache {
+
+    private final int capacity;
+    // Ordre d'accès : le premier est le moins récemment utilisé
+    private final LinkedHashMap<Long, List<Event>> days;
+    // Index inverse : pour chaque événement (par identité), les jours en cache où il apparaît
+    private final Map<Event, Set<Long>> daysOf = new IdentityHashMap<>();
+    private long version;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity le nombre maximal de jours en cache (0 : pas de cache)
+     */
+    DayCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être positive ou nulle.");
+        }
+        this.capacity = capacity;
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Event>> eldest) {
+                if (size() > DayCache.this.capacity) {
+                    unlink(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return les événements en cache pour ce jour (liste immuable), ou null s'il n'est pas en cache
+     */
+    synchronized List<Event> get(long day) {
+        List<Event> cached = days.get(day);
+        if (cached == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return cached;
+    }
+
+    /**
+     * @return la version du cache, à lire avant de calculer un résultat à passer à put
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Met en cache le résultat d'un jour, sauf si le cache a été invalidé depuis la lecture de version
+     * (le résultat a pu être calculé sur un état déjà dépassé)
+     * @param version la version lue avant le calcul de events
+     */
+    synchronized void put(long day, List<Event> events, long version) {
+        if (capacity == 0 || version != this.version) {
+            return;
+        }
+        List<Event> previous = days.remove(day);
+        if (previous != null) {
+            unlink(day, previous);
+        }
+        List<Event> copy = List.copyOf(events);
+        for (Event e : copy) {
+            daysOf.computeIfAbsent(e, k -> new HashSet<>()).add(day);
+        }
+        days.put(day, copy);
+    }
+
+    /**
+     * Retire les jours dont le résultat peut avoir changé à cause de e (ajout ou modification) :
+     * ceux où e apparaissait (index inverse), et ceux où il apparaît maintenant. Pour un événement simple,
+     * seuls ses jours sont testés ; pour un événement répétitif, chaque jour en cache (sans parcourir sa liste).
+     * À appeler après la modification des index de l'agenda.
+     */
+    synchronized void invalidate(Event e) {
+        version++;
+        Set<Long> stale = daysOf.get(e);
+        List<Long> removed = stale == null ? new ArrayList<>() : new ArrayList<>(stale);
+        EventSnapshot s = e.freeze();
+        long lastDay = Math.max(s.startEpochDay(), s.endEpochDay());
+        if (s.isRepetitive() || lastDay - s.startEpochDay() >= days.size()) {
+            for (Long day : days.keySet()) {
+                if (s.isInDay(LocalDate.ofEpochDay(day))) {
+                    removed.add(day);
+                }
+            }
+        } else {
+            for (long day = s.startEpochDay(); day <= lastDay; day++) {
+                if (days.containsKey(day) && s.isInDay(LocalDate.ofEpochDay(day))) {
+                    removed.add(day);
+                }
+            }
+        }
+        for (Long day : removed) {
+            List<Event> events = days.remove(day);
+            if (events != null) {
+                unlink(day, events);
+            }
+        }
+    }
+
+    /**
+     * Vide le cache (ajout d'un lot d'événements)
+     */
+    synchronized void clear() {
+        version++;
+        days.clear();
+        daysOf.clear();
+    }
+
+    synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, days.size(), capacity);
+    }
+
+    private void unlink(long day, List<Event> events) {
+        for (Event e : events) {
+            Set<Long> cachedDays = daysOf.get(e);
+            if (cachedDays != null && cachedDays.remove(day) && cachedDays.isEmpty()) {
+                daysOf.remove(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package agenda;
+
+/**
+ * Calculs de calendrier (grégorien proleptique, comme LocalDate) directement sur les epoch-days,
+ * sans allouer de LocalDate. Utilisé dans les boucles internes du calcul des occurrences.
+ * Algorithmes « days from civil » / « civil from days » de H. Hinnant.
+ */
+final class EpochDays {
+
+    // Nombre de jours entre le 0000-03-01 et le 1970-01-01
+    private static final long DAYS_0000_TO_1970 = 719_468;
+    // Un cycle grégorien complet (400 ans)
+    static final long DAYS_PER_CYCLE = 146_097;
+
+    private EpochDays() {
+    }
+
+    /**
+     * @return l'epoch-day de la date year-month-day
+     */
+    static long of(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * @return le jour du mois (1..31) de l'epoch-day donné
+     */
+    static int dayOfMonth(long epochDay) {
+        long dayOfYear = marchBasedDayOfYear(epochDay);
+        long mp = (5 * dayOfYear + 2) / 153;
+        return (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+    }
+
+    /**
+     * Le premier jour, à partir de epochDay (inclus), dont le jour du mois vaut dayOfMonth.
+     * Les mois trop courts (ex : février pour le 30) sont sautés.
+     */
+    static long nextDayOfMonth(long epochDay, int dayOfMonth) {
+        long dayOfYear = marchBasedDayOfYear(epochDay);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOf(epochDay, month);
+        if (day > dayOfMonth) {
+            month++;
+        }
+        while (true) {
+            if (month > 12) {
+                month = 1;
+                year++;
+            }
+            if (lengthOfMonth(year, month) >= dayOfMonth) {
+                return of(year, month, dayOfMonth);
+            }
+            month++;
+        }
+    }
+
+    /**
+     * Le dernier jour, jusqu'à epochDay (inclus), dont le jour du mois vaut dayOfMonth.
+     * Les mois trop courts sont sautés, comme dans nextDayOfMonth.
+     */
+    static long previousDayOfMonth(long epochDay, int dayOfMonth) {
+        long dayOfYear = marchBasedDayOfYear(epochDay);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOf(epochDay, month);
+        if (day < dayOfMonth) {
+            month--;
+        }
+        while (true) {
+            if (month < 1) {
+                month = 12;
+                year--;
+            }
+            if (lengthOfMonth(year, month) >= dayOfMonth) {
+                return of(year, month, dayOfMonth);
+            }
+            month--;
+        }
+    }
+
+    static int lengthOfMonth(long year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Le rang du jour dans une année commençant au 1er mars (0..365)
+     */
+    private static long marchBasedDayOfYear(long epochDay) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long dayOfEra = z - Math.floorDiv(z, DAYS_PER_CYCLE) * DAYS_PER_CYCLE;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+
+    private static long yearOf(long epochDay, int month) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_CYCLE);
+        long dayOfEra = z - era * DAYS_PER_CYCLE;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        return yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    }
+}
@@ -4,8 +4,9 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Event {
 
@@ -17,13 +18,39 @@ public class Event {
     // Rôle UML : Représente l'association de composition avec Repetition (0..1)
     private Repetition repetition;
 
+    // Ajouté : dictionnaire des titres partagés (voir internTitle)
+    private static final WeakInterner TITLES = new WeakInterner();
+
+    // Ajouté : observateurs (agendas...) prévenus des modifications, créé à la demande.
+    // Copie à l'écriture : un événement peut être ajouté à des agendas utilisés par plusieurs threads
+    private volatile CopyOnWriteArrayList<EventListener> listeners;
+
+    // Ajouté : état figé correspondant, avec les valeurs précalculées (epoch-day).
+    // Recalculé à chaque modification, avant de prévenir les observateurs.
+    private EventSnapshot snapshot;
+
     /**
      * «constructor»+Event(t: String, st: LocalDateTime, d: Duration)
      */
     public Event(String title, LocalDateTime start, Duration duration) {
-        this.title = title;
+        this.title = internTitle(title);
         this.start = start;
         this.duration = duration;
+        this.snapshot = new EventSnapshot(this.title, start, duration, null);
+    }
+
+    /**
+     * Ajouté : les titres sont partagés : des millions d'événements n'ont que quelques milliers de titres distincts.
+     * Le dictionnaire est propre aux événements (pas la table globale de String.intern) et ne sert qu'à la création ;
+     * ses références sont faibles : les titres qui ne sont plus utilisés restent récupérables par le ramasse-miettes.
+     * Il est sans verrou (WeakInterner) : des créations en parallèle ne se bloquent pas entre elles.
+     * @return l'instance partagée de ce titre (deux titres égaux donnent la même instance)
+     */
+    static String internTitle(String title) {
+        if (title == null) {
+            return null;
+        }
+        return TITLES.intern(title);
     }
 
     /**
@@ -32,6 +59,7 @@ public class Event {
     public void setRepetition(ChronoUnit frequency) {
         // Crée Repetition en lui passant la date de début de l'Event (pour la logique)
         this.repetition = new Repetition(frequency, this.start.toLocalDate());
+        fireChanged();
     }
 
     /**
@@ -40,6 +68,17 @@ public class Event {
     public void addException(LocalDate date) {
         if (repetition != null) {
             repetition.addException(date);
+            fireChanged();
+        }
+    }
+
+    /**
+     * Ajouté : plusieurs exceptions d'un coup, en epoch-days triés (relecture d'un fichier, d'un journal, d'un export)
+     */
+    void addExceptions(long[] days) {
+        if (repetition != null && days.length > 0) {
+            repetition.addExceptions(days);
+            fireChanged();
         }
     }
 
@@ -53,6 +92,7 @@ public class Event {
         }
         // Utilisation du constructeur simple et conforme du UML
         repetition.setTermination(new Termination(terminationInclusive));
+        fireChanged();
     }
 
     /**
@@ -65,6 +105,7 @@ public class Event {
         }
         // Utilisation du constructeur simple et conforme du UML
         repetition.setTermination(new Termination(numberOfOccurrences));
+        fireChanged();
     }
     
     // --- Getters conformes pour la Question 2 / Tests unitaires ---
@@ -81,6 +122,13 @@ public class Event {
         return duration;
     }
 
+    /**
+     * @return vrai si cet événement se répète
+     */
+    public boolean isRepetitive() {
+        return repetition != null;
+    }
+
     // Ajouté pour les tests unitaires et la lisibilité du code original
 
     public LocalDate getTerminationDate() {
@@ -99,36 +147,128 @@ public class Event {
         return 0;
     }
 
+    /**
+     * @return l'état actuel de cet événement, immuable (aucune copie : il est recalculé à chaque modification)
+     */
+    public EventSnapshot freeze() {
+        return snapshot;
+    }
+
     /**
      * Opération UML : +isInDay(d: LocalDate): boolean
      * Gère la répétition, la durée et les exceptions.
      */
     public boolean isInDay(LocalDate aDay) {
-        LocalDate eventStartDay = start.toLocalDate();
-        LocalDate eventEndDay = start.plus(duration).minusNanos(1).toLocalDate();
+        return snapshot.isInDay(aDay);
+    }
 
-        if (repetition == null) {
-            boolean occursSingle = !aDay.isBefore(eventStartDay) && !aDay.isAfter(eventEndDay);
-            return occursSingle;
+    long startEpochDay() {
+        return snapshot.startEpochDay();
+    }
+
+    long endEpochDay() {
+        return snapshot.endEpochDay();
+    }
+
+    long spillDays() {
+        return snapshot.spillDays();
+    }
+
+    // Ajouté : gestion des observateurs, utilisée par les index de l'agenda
+
+    /**
+     * Enregistre un observateur ; un observateur déjà enregistré ne l'est pas une seconde fois
+     * (un événement ajouté plusieurs fois au même agenda ne le prévient qu'une fois)
+     */
+    void addListener(EventListener listener) {
+        CopyOnWriteArrayList<EventListener> current = listeners;
+        if (current == null) {
+            synchronized (this) {
+                current = listeners;
+                if (current == null) {
+                    current = new CopyOnWriteArrayList<>();
+                    listeners = current;
+                }
+            }
         }
+        current.addIfAbsent(listener);
+    }
 
-        Termination term = repetition.getTermination();
-        LocalDate lastOccurrence = null;
-        if (term != null) {
-            lastOccurrence = term.calculateTerminationDate(eventStartDay, repetition.getFrequency());
+    void removeListener(EventListener listener) {
+        CopyOnWriteArrayList<EventListener> current = listeners;
+        if (current != null) {
+            current.remove(listener);
         }
+    }
 
-        boolean recurring = repetition.isRecurringOn(aDay);
-        boolean isLastOccurrence = lastOccurrence != null && (aDay.equals(lastOccurrence) ||
-            // Si la durée déborde sur le jour suivant la dernière occurrence
-            (aDay.isAfter(lastOccurrence) && lastOccurrence != null &&
-                lastOccurrence.atTime(start.toLocalTime()).plus(duration).toLocalDate().equals(aDay)));
-        if (recurring || isLastOccurrence) {
-            LocalDateTime startOfOccurrence = aDay.atTime(start.toLocalTime());
-            LocalDateTime endOfOccurrence = startOfOccurrence.plus(duration);
-            return endOfOccurrence.toLocalDate().isAfter(aDay.minusDays(1)) && startOfOccurrence.toLocalDate().isBefore(aDay.plusDays(1));
+    private void fireChanged() {
+        snapshot = new EventSnapshot(title, start, duration, repetition == null ? null : repetition.freeze());
+        CopyOnWriteArrayList<EventListener> current = listeners;
+        if (current != null) {
+            for (EventListener l : current) {
+                l.eventChanged(this);
+            }
         }
-        return false;
+    }
+
+    /**
+     * Calcule le prochain jour (epoch-day), à partir de from (inclus), où commence une occurrence de cet événement
+     * @return le jour de la prochaine occurrence, ou Repetition.NONE s'il n'y en a plus
+     */
+    long nextOccurrenceDay(long from) {
+        return snapshot.nextOccurrenceDay(from);
+    }
+
+    /**
+     * Détermine si une occurrence de cet événement chevauche l'intervalle [from, to[
+     */
+    boolean conflictsWith(LocalDateTime from, LocalDateTime to) {
+        return snapshot.conflictsWith(from, to);
+    }
+
+    /**
+     * Détermine si une occurrence de cet événement chevauche une occurrence de other
+     */
+    boolean conflictsWith(Event other) {
+        return snapshot.conflictsWith(other.snapshot);
+    }
+
+    // Ajouté : curseur d'occurrences, calculé directement à partir de la fréquence, des exceptions et de
+    // la terminaison (un saut par occurrence, sans tester les jours un à un)
+
+    /**
+     * @param t l'instant à partir duquel chercher
+     * @return la première occurrence qui commence à t ou après, ou null s'il n'y en a plus
+     */
+    public Occurrence nextOccurrenceAfter(LocalDateTime t) {
+        return snapshot.nextOccurrenceAfter(this, t);
+    }
+
+    /**
+     * @param t l'instant avant lequel chercher
+     * @return la dernière occurrence qui commence strictement avant t, ou null s'il n'y en a pas
+     */
+    public Occurrence previousOccurrenceBefore(LocalDateTime t) {
+        return snapshot.previousOccurrenceBefore(this, t);
+    }
+
+    /**
+     * Parcourt paresseusement, dans l'ordre chronologique, les occurrences de cet événement
+     * qui chevauchent la fenêtre [from, to[ (voir Occurrence.overlaps)
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     */
+    public Iterator<Occurrence> occurrences(LocalDateTime from, LocalDateTime to) {
+        return snapshot.occurrences(this, from, to);
+    }
+
+    /**
+     * Parcourt les mêmes occurrences que occurrences(from, to), de la plus récente à la plus ancienne
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     */
+    public Iterator<Occurrence> occurrencesDescending(LocalDateTime from, LocalDateTime to) {
+        return snapshot.occurrencesDescending(this, from, to);
     }
 
     @Override
@@ -0,0 +1,14 @@
+package agenda;
+
+/**
+ * Observateur des modifications d'un événement (répétition, exceptions, terminaison).
+ * Permet aux agendas de garder leurs index à jour quand un événement déjà ajouté est modifié.
+ */
+interface EventListener {
+
+    /**
+     * Appelé après chaque modification de l'événement
+     * @param event l'événement modifié
+     */
+    void eventChanged(Event event);
+}
@@ -0,0 +1,495 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * État figé (immuable) d'un Event : titre, début, durée et répétition figée, avec les valeurs dérivées
+ * précalculées (fin, jours touchés, dernière occurrence).
+ * Obtenu par Event.freeze() sans copie, ou construit directement avec EventSnapshot.builder(...).
+ * Peut être partagé entre threads et conservé dans des index ou des caches sans copie défensive.
+ */
+public final class EventSnapshot {
+
+    private final String title;
+    private final LocalDateTime start;
+    private final Duration duration;
+    private final LocalDateTime end;
+    // Répétition figée, ou null pour un événement simple
+    private final RepetitionSnapshot repetition;
+
+    // Valeurs précalculées (epoch-day)
+    private final long startDay;   // jour du début
+    private final long endDay;     // dernier jour touché par une occurrence
+    private final long spillDays;  // nombre de jours entre le début et la fin d'une occurrence
+
+    // Écart maximal, en jours, entre deux occurrences mensuelles (le 31 : du 31 août au 31 octobre)
+    private static final long MONTHLY_GAP = 62;
+    // Durée après laquelle les occurrences mensuelles sont tombées sur chaque jour de la semaine (578 jours, le 31)
+    private static final long MONTHLY_WEEKDAYS = 578 + MONTHLY_GAP;
+    // Deux cycles bissextiles (8 ans) : contient toujours un 29 février, même autour d'une année séculaire
+    private static final long LEAP_CYCLES_DAYS = 2 * 1461;
+
+    EventSnapshot(String title, LocalDateTime start, Duration duration, RepetitionSnapshot repetition) {
+        this.title = title;
+        this.start = start;
+        this.duration = duration;
+        this.end = start.plus(duration);
+        this.repetition = repetition;
+        this.startDay = start.toLocalDate().toEpochDay();
+        this.endDay = end.minusNanos(1).toLocalDate().toEpochDay();
+        this.spillDays = end.toLocalDate().toEpochDay() - startDay;
+    }
+
+    /**
+     * Construire directement un événement immuable
+     * @return un constructeur pour l'événement title, commençant à start et durant duration
+     */
+    public static Builder builder(String title, LocalDateTime start, Duration duration) {
+        return new Builder(new Event(title, start, duration));
+    }
+
+    /**
+     * Constructeur d'EventSnapshot : mêmes opérations que l'Event modifiable, puis build()
+     */
+    public static final class Builder {
+        private final Event event;
+
+        private Builder(Event event) {
+            this.event = event;
+        }
+
+        public Builder repetition(ChronoUnit frequency) {
+            event.setRepetition(frequency);
+            return this;
+        }
+
+        public Builder exception(LocalDate date) {
+            event.addException(date);
+            return this;
+        }
+
+        public Builder termination(LocalDate terminationInclusive) {
+            event.setTermination(terminationInclusive);
+            return this;
+        }
+
+        public Builder termination(long numberOfOccurrences) {
+            event.setTermination(numberOfOccurrences);
+            return this;
+        }
+
+        public EventSnapshot build() {
+            return event.freeze();
+        }
+    }
+
+    public String title() {
+        return title;
+    }
+
+    public LocalDateTime start() {
+        return start;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    /**
+     * @return la fin de la (première) occurrence
+     */
+    public LocalDateTime end() {
+        return end;
+    }
+
+    /**
+     * @return la répétition figée, ou null pour un événement simple
+     */
+    public RepetitionSnapshot repetition() {
+        return repetition;
+    }
+
+    public boolean isRepetitive() {
+        return repetition != null;
+    }
+
+    /**
+     * @return la date de la dernière occurrence : la date du début pour un événement simple,
+     * la dernière occurrence selon la terminaison pour un événement répétitif (null s'il ne se termine pas)
+     */
+    public LocalDate lastOccurrence() {
+        return repetition == null ? start.toLocalDate() : repetition.lastOccurrence();
+    }
+
+    /**
+     * @return un nouvel Event modifiable, dans le même état
+     */
+    public Event toEvent() {
+        Event e = new Event(title, start, duration);
+        if (repetition != null) {
+            e.setRepetition(repetition.frequency());
+            e.addExceptions(repetition.exceptionDays());
+            Termination termination = repetition.termination();
+            if (termination != null && termination.terminationDateInclusive() != null) {
+                e.setTermination(termination.terminationDateInclusive());
+            } else if (termination != null && termination.numberOfOccurrences() > 0) {
+                e.setTermination(termination.numberOfOccurrences());
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Même calcul que Event.isInDay
+     * Gère la répétition, la durée et les exceptions.
+     */
+    public boolean isInDay(LocalDate aDay) {
+        long day = aDay.toEpochDay();
+        if (repetition == null) {
+            return day >= startDay && day <= endDay;
+        }
+        if (spillDays < 0) {
+            return false; // Durée négative qui finit la veille : jamais dans le jour
+        }
+        if (repetition.occursOn(day)) {
+            return true;
+        }
+        // La dernière occurrence compte toujours, ainsi que le jour où sa durée déborde
+        long lastOccurrence = repetition.terminationDay();
+        return lastOccurrence != Repetition.NONE
+            && (day == lastOccurrence || (day > lastOccurrence && day == lastOccurrence + spillDays));
+    }
+
+    long startEpochDay() {
+        return startDay;
+    }
+
+    long endEpochDay() {
+        return endDay;
+    }
+
+    long spillDays() {
+        return spillDays;
+    }
+
+    /**
+     * @return le premier jour (epoch-day) où isInDay peut être vrai
+     */
+    long firstTouchedDay() {
+        if (repetition == null || repetition.terminationDay() == Repetition.NONE) {
+            return startDay;
+        }
+        // La dernière occurrence compte même si elle tombe avant le début
+        return Math.min(startDay, repetition.terminationDay());
+    }
+
+    /**
+     * @return le dernier jour (epoch-day) où isInDay peut être vrai, Long.MAX_VALUE si l'événement se répète
+     * indéfiniment ; inférieur à firstTouchedDay si isInDay n'est jamais vrai
+     */
+    long lastTouchedDay() {
+        if (repetition == null) {
+            return endDay;
+        }
+        if (spillDays < 0) {
+            return firstTouchedDay() - 1;
+        }
+        long terminationDay = repetition.terminationDay();
+        if (terminationDay == Repetition.NONE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(repetition.lastDay(), terminationDay + spillDays);
+    }
+
+    /**
+     * @return le dernier jour (epoch-day) où une occurrence peut commencer, Long.MAX_VALUE si l'événement
+     * se répète indéfiniment
+     */
+    long lastStartDay() {
+        if (repetition == null) {
+            return startDay;
+        }
+        long terminationDay = repetition.terminationDay();
+        return terminationDay == Repetition.NONE ? Long.MAX_VALUE : Math.max(repetition.lastDay(), terminationDay);
+    }
+
+    /**
+     * Calcule le prochain jour (epoch-day), à partir de from (inclus), où commence une occurrence de cet événement.
+     * Pour un événement répétitif, la dernière occurrence (terminaison) compte comme dans isInDay.
+     *
+     * @return le jour de la prochaine occurrence, ou Repetition.NONE s'il n'y en a plus
+     */
+    long nextOccurrenceDay(long from) {
+        if (repetition == null) {
+            return from > startDay ? Repetition.NONE : startDay;
+        }
+        long next = repetition.nextOccurrence(from);
+        long last = repetition.terminationDay();
+        if (last != Repetition.NONE && last >= from && (next == Repetition.NONE || last < next)) {
+            return last;
+        }
+        return next;
+    }
+
+    /**
+     * Calcul symétrique de nextOccurrenceDay : le dernier jour, jusqu'à from (inclus), où commence une occurrence
+     * @return le jour de l'occurrence précédente, ou Repetition.NONE s'il n'y en a pas
+     */
+    long previousOccurrenceDay(long from) {
+        if (repetition == null) {
+            return from < startDay ? Repetition.NONE : startDay;
+        }
+        long previous = repetition.previousOccurrence(from);
+        long last = repetition.terminationDay();
+        if (last != Repetition.NONE && last <= from && last > previous) {
+            return last;
+        }
+        return previous;
+    }
+
+    /**
+     * @param owner l'événement indiqué dans l'occurrence produite
+     * @return la première occurrence qui commence à t ou après, ou null s'il n'y en a plus
+     */
+    Occurrence nextOccurrenceAfter(Event owner, LocalDateTime t) {
+        long d = nextOccurrenceDay(t.toLocalDate().toEpochDay());
+        // Toutes les occurrences commencent à la même heure : au plus une occurrence à sauter
+        if (d != Repetition.NONE && occurrenceStart(d).isBefore(t)) {
+            d = nextOccurrenceDay(d + 1);
+        }
+        return d == Repetition.NONE ? null : occurrence(owner, d);
+    }
+
+    /**
+     * @param owner l'événement indiqué dans l'occurrence produite
+     * @return la dernière occurrence qui commence strictement avant t, ou null s'il n'y en a pas
+     */
+    Occurrence previousOccurrenceBefore(Event owner, LocalDateTime t) {
+        long d = previousOccurrenceDay(t.toLocalDate().toEpochDay());
+        if (d != Repetition.NONE && !occurrenceStart(d).isBefore(t)) {
+            d = previousOccurrenceDay(d - 1);
+        }
+        return d == Repetition.NONE ? null : occurrence(owner, d);
+    }
+
+    private Occurrence occurrence(Event owner, long day) {
+        LocalDateTime occurrenceStart = occurrenceStart(day);
+        return new Occurrence(owner, occurrenceStart, occurrenceStart.plus(duration));
+    }
+
+    /**
+     * Détermine si une occurrence de cet événement chevauche l'intervalle [from, to[
+     * (même condition de chevauchement que Agenda.isFreeFor).
+     */
+    boolean conflictsWith(LocalDateTime from, LocalDateTime to) {
+        long firstDay = from.toLocalDate().toEpochDay() - Math.max(0, spillDays);
+        for (long d = nextOccurrenceDay(firstDay); d != Repetition.NONE; d = nextOccurrenceDay(d + 1)) {
+            LocalDateTime occurrenceStart = occurrenceStart(d);
+            if (!occurrenceStart.isBefore(to)) {
+                return false;
+            }
+            if (occurrenceStart.plus(duration).isAfter(from)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Détermine si une occurrence de cet événement chevauche une occurrence de other.
+     * Les deux suites d'occurrences sont parcourues ensemble : on fait avancer celle dont l'occurrence
+     * courante finit le plus tôt, directement jusqu'à la première occurrence qui finit après le début de l'autre.
+     * Le parcours s'arrête à l'horizon (conflictHorizon) : les dernières occurrences des terminaisons,
+     * qui ne suivent pas forcément la fréquence, sont alors vérifiées à part.
+     */
+    boolean conflictsWith(EventSnapshot other) {
+        long horizon = conflictHorizon(other);
+        long a = nextOccurrenceDay(Long.MIN_VALUE);
+        long b = other.nextOccurrenceDay(Long.MIN_VALUE);
+        while (a != Repetition.NONE && b != Repetition.NONE) {
+            if (Math.min(a, b) > horizon) {
+                return lastOccurrenceConflictsWith(other) || other.lastOccurrenceConflictsWith(this);
+            }
+            LocalDateTime aStart = occurrenceStart(a);
+            LocalDateTime aEnd = aStart.plus(duration);
+            LocalDateTime bStart = other.occurrenceStart(b);
+            LocalDateTime bEnd = bStart.plus(other.duration);
+            if (aStart.isBefore(bEnd) && aEnd.isAfter(bStart)) {
+                return true;
+            }
+            if (!aEnd.isAfter(bEnd)) {
+                a = firstOccurrenceEndingAfter(bStart, a + 1);
+            } else {
+                b = other.firstOccurrenceEndingAfter(aStart, b + 1);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Le dernier jour à examiner pour chercher un chevauchement avec other (Long.MAX_VALUE : tout parcourir).
+     * Au-delà des débuts et des exceptions, les deux répétitions sont régulières : un chevauchement plus tardif
+     * se retrouve, décalé, dans une fenêtre dont la largeur ne dépend que des fréquences (voir commonWindow).
+     * Une répétition terminée avant l'horizon arrête le parcours d'elle-même.
+     */
+    private long conflictHorizon(EventSnapshot other) {
+        if (repetition == null || other.repetition == null) {
+            return Long.MAX_VALUE;
+        }
+        long spill = Math.max(Math.abs(spillDays), Math.abs(other.spillDays));
+        long window = commonWindow(repetition.frequency(), other.repetition.frequency(), spill);
+        long regular = Math.max(Math.max(startDay, other.startDay),
+            Math.max(lastExceptionDay(), other.lastExceptionDay()));
+        // Marge d'un débordement de chaque côté : les occurrences décalées restent après regular
+        return regular + window + 2 * (spill + 1);
+    }
+
+    /**
+     * Largeur d'une fenêtre qui contient, décalée, toute configuration d'occurrences des deux fréquences :
+     * <ul>
+     * <li>quotidien (et autres unités, tous les jours) et hebdomadaire : le ppcm des périodes, 1 ou 7 jours ;</li>
+     * <li>mensuel et quotidien : l'écart maximal entre deux occurrences mensuelles ;</li>
+     * <li>mensuel et hebdomadaire : seul compte le jour de la semaine des occurrences mensuelles,
+     * et tous les jours de la semaine sont atteints en MONTHLY_WEEKDAYS jours ;</li>
+     * <li>mensuel et mensuel : seule compte la longueur des mois voisins, dont toutes les suites apparaissent
+     * en deux cycles bissextiles (les années séculaires ne donnent rien de nouveau tant que les occurrences
+     * durent moins d'un an) ; au-delà, un cycle grégorien complet de 400 ans.</li>
+     * </ul>
+     */
+    private static long commonWindow(ChronoUnit a, ChronoUnit b, long spill) {
+        boolean monthly = a == ChronoUnit.MONTHS || b == ChronoUnit.MONTHS;
+        boolean weekly = a == ChronoUnit.WEEKS || b == ChronoUnit.WEEKS;
+        if (!monthly) {
+            return weekly ? 7 : 1;
+        }
+        if (a == b) {
+            return spill < 366 ? LEAP_CYCLES_DAYS + MONTHLY_GAP : EpochDays.DAYS_PER_CYCLE;
+        }
+        return weekly ? MONTHLY_WEEKDAYS : MONTHLY_GAP;
+    }
+
+    /**
+     * Vérifie la dernière occurrence selon la terminaison, qui ne suit pas forcément la fréquence
+     */
+    private boolean lastOccurrenceConflictsWith(EventSnapshot other) {
+        if (repetition == null || repetition.terminationDay() == Repetition.NONE) {
+            return false;
+        }
+        LocalDateTime lastStart = occurrenceStart(repetition.terminationDay());
+        return other.conflictsWith(lastStart, lastStart.plus(duration));
+    }
+
+    private long lastExceptionDay() {
+        long[] exceptions = repetition.exceptionDays();
+        return exceptions.length == 0 ? Long.MIN_VALUE : exceptions[exceptions.length - 1];
+    }
+
+    /**
+     * La première occurrence, à partir du jour minDay, qui finit strictement après t
+     */
+    private long firstOccurrenceEndingAfter(LocalDateTime t, long minDay) {
+        long d = nextOccurrenceDay(Math.max(minDay, t.toLocalDate().toEpochDay() - Math.max(0, spillDays) - 1));
+        while (d != Repetition.NONE && !occurrenceStart(d).plus(duration).isAfter(t)) {
+            d = nextOccurrenceDay(d + 1);
+        }
+        return d;
+    }
+
+    LocalDateTime occurrenceStart(long day) {
+        return LocalDate.ofEpochDay(day).atTime(start.toLocalTime());
+    }
+
+    /**
+     * Parcourt paresseusement, dans l'ordre chronologique, les occurrences de cet événement
+     * qui chevauchent la fenêtre [from, to[. Aucune occurrence n'est calculée à l'avance.
+     *
+     * @param owner l'événement indiqué dans les occurrences produites
+     */
+    Iterator<Occurrence> occurrences(Event owner, LocalDateTime from, LocalDateTime to) {
+        // Une occurrence commencée quelques jours avant from peut encore déborder dans la fenêtre
+        long firstDay = from.toLocalDate().toEpochDay() - Math.max(0, spillDays);
+        return new Iterator<>() {
+            private Occurrence next = advance(firstDay);
+
+            private Occurrence advance(long day) {
+                for (long d = nextOccurrenceDay(day); d != Repetition.NONE; d = nextOccurrenceDay(d + 1)) {
+                    LocalDateTime occurrenceStart = occurrenceStart(d);
+                    if (!occurrenceStart.isBefore(to)) {
+                        return null;
+                    }
+                    Occurrence o = new Occurrence(owner, occurrenceStart, occurrenceStart.plus(duration));
+                    if (o.overlaps(from, to)) {
+                        return o;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Occurrence next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence current = next;
+                next = advance(current.start().toLocalDate().toEpochDay() + 1);
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Parcourt paresseusement, dans l'ordre chronologique inverse, les mêmes occurrences que occurrences(owner,
+     * from, to). Toutes les occurrences ayant la même durée, la première rencontrée qui finit avant from
+     * arrête le parcours.
+     *
+     * @param owner l'événement indiqué dans les occurrences produites
+     */
+    Iterator<Occurrence> occurrencesDescending(Event owner, LocalDateTime from, LocalDateTime to) {
+        long lastDay = to.toLocalDate().toEpochDay();
+        return new Iterator<>() {
+            private Occurrence next = advance(lastDay);
+
+            private Occurrence advance(long day) {
+                for (long d = previousOccurrenceDay(day); d != Repetition.NONE; d = previousOccurrenceDay(d - 1)) {
+                    LocalDateTime occurrenceStart = occurrenceStart(d);
+                    if (!occurrenceStart.isBefore(to)) {
+                        continue; // Même jour que to, mais à partir de to
+                    }
+                    Occurrence o = new Occurrence(owner, occurrenceStart, occurrenceStart.plus(duration));
+                    return o.overlaps(from, to) ? o : null;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Occurrence next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence current = next;
+                next = advance(current.start().toLocalDate().toEpochDay() - 1);
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "EventSnapshot{title='%s', start=%s, duration=%s}".formatted(title, start, duration);
+    }
+}
@@ -0,0 +1,21 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Un créneau libre : un intervalle [start, end[ où aucun des agendas consultés n'a d'occurrence.
+ * Tout événement qui commence entre start et end - durée y trouve sa place.
+ *
+ * @param start le début du créneau
+ * @param end la fin du créneau (début de l'occurrence suivante, ou fin de la fenêtre de recherche)
+ */
+public record FreeSlot(LocalDateTime start, LocalDateTime end) {
+
+    /**
+     * @return la durée du créneau
+     */
+    public Duration duration() {
+        return Duration.between(start, end);
+    }
+}
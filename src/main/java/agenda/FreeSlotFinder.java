@@ -0,0 +1,105 @@
+package agenda;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Recherche des premiers créneaux libres communs à un ou plusieurs agendas, en une seule passe :
+ * les occurrences de tous les agendas (eventsBetween, répétitions comprises, calculées au fil de l'eau)
+ * sont fusionnées par instant de début, et les intervalles occupés sont balayés dans l'ordre.
+ * La recherche s'arrête dès que les créneaux demandés sont trouvés.
+ * <p>
+ * Même définition du conflit que Agenda.isFreeFor : un créneau est libre s'il ne chevauche aucune occurrence.
+ * Une occurrence de durée nulle sépare deux créneaux : un événement peut finir ou commencer à cet instant,
+ * pas le contenir.
+ */
+public final class FreeSlotFinder {
+
+    private FreeSlotFinder() {
+    }
+
+    /**
+     * @param length la durée de l'événement à placer
+     * @param from début inclusif de la fenêtre de recherche
+     * @param to fin exclusive de la fenêtre de recherche
+     * @param agendas les agendas qui doivent tous être libres
+     * @return le premier créneau libre d'au moins length, s'il y en a un dans la fenêtre
+     */
+    public static Optional<FreeSlot> first(Duration length, LocalDateTime from, LocalDateTime to,
+                                           Collection<Agenda> agendas) {
+        List<FreeSlot> slots = earliest(length, from, to, 1, agendas);
+        return slots.isEmpty() ? Optional.empty() : Optional.of(slots.get(0));
+    }
+
+    /**
+     * @param length la durée de l'événement à placer
+     * @param from début inclusif de la fenêtre de recherche
+     * @param to fin exclusive de la fenêtre de recherche
+     * @param limit le nombre maximal de créneaux renvoyés
+     * @param agendas les agendas qui doivent tous être libres
+     * @return au plus limit créneaux libres (maximaux, bornés par la fenêtre) d'au moins length, dans l'ordre
+     */
+    public static List<FreeSlot> earliest(Duration length, LocalDateTime from, LocalDateTime to, int limit,
+                                          Collection<Agenda> agendas) {
+        if (length.isNegative()) {
+            throw new IllegalArgumentException("La durée recherchée doit être positive ou nulle.");
+        }
+        List<FreeSlot> slots = new ArrayList<>();
+        if (!from.isBefore(to) || limit <= 0) {
+            return slots;
+        }
+        // Fusion des occurrences de tous les agendas, par instant de début
+        PriorityQueue<Source> sources = new PriorityQueue<>(Comparator.comparing((Source s) -> s.current.start()));
+        for (Agenda agenda : agendas) {
+            Source.offer(sources, agenda.eventsBetween(from, to).iterator());
+        }
+        LocalDateTime freeFrom = from; // Fin de la période occupée balayée jusqu'ici
+        while (!sources.isEmpty() && slots.size() < limit) {
+            Source source = sources.poll();
+            Occurrence o = source.current;
+            Source.offer(sources, source.occurrences);
+            if (o.start().isAfter(freeFrom)) {
+                addIfLongEnough(slots, freeFrom, o.start(), length);
+            }
+            if (o.end().isAfter(freeFrom)) {
+                freeFrom = o.end();
+            }
+        }
+        if (slots.size() < limit && freeFrom.isBefore(to)) {
+            addIfLongEnough(slots, freeFrom, to, length);
+        }
+        return slots;
+    }
+
+    private static void addIfLongEnough(List<FreeSlot> slots, LocalDateTime start, LocalDateTime end, Duration length) {
+        if (!start.plus(length).isAfter(end)) {
+            slots.add(new FreeSlot(start, end));
+        }
+    }
+
+    /**
+     * Les occurrences restantes d'un agenda, et la prochaine d'entre elles
+     */
+    private static final class Source {
+        final Iterator<Occurrence> occurrences;
+        final Occurrence current;
+
+        private Source(Iterator<Occurrence> occurrences) {
+            this.occurrences = occurrences;
+            this.current = occurrences.next();
+        }
+
+        static void offer(PriorityQueue<Source> sources, Iterator<Occurrence> occurrences) {
+            if (occurrences.hasNext()) {
+                sources.add(new Source(occurrences));
+            }
+        }
+    }
+}
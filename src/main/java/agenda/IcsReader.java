@@ -0,0 +1,394 @@
+package agenda;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lecture en flux d'un fichier iCalendar (RFC 5545) : chaque VEVENT devient un Event, dès sa fin de lecture.
+ * La mémoire utilisée ne dépend pas de la taille du fichier (une ligne et un événement à la fois).
+ * <p>
+ * Correspondances :
+ * <ul>
+ * <li>SUMMARY : le titre ; DTSTART : le début ; DTEND ou DURATION : la durée
+ * (par défaut un jour pour une date seule, sinon une durée nulle)</li>
+ * <li>RRULE : FREQ=DAILY, WEEKLY ou MONTHLY donnent la répétition, COUNT ou UNTIL la terminaison</li>
+ * <li>EXDATE : les exceptions</li>
+ * <li>RDATE (une seule date, après la dernière occurrence de la règle et au plus tard à UNTIL, comme l'écrit
+ * IcsWriter) : la dernière occurrence, hors du pas de la répétition</li>
+ * <li>X-AGENDA-RRULE (écrite par IcsWriter) : comme RRULE, avec une fréquence de l'agenda (YEARS...)</li>
+ * </ul>
+ * Les heures sont prises telles qu'écrites (l'agenda n'a pas de fuseau horaire : TZID et le suffixe Z sont ignorés).
+ * Une règle que l'agenda ne sait pas représenter (FREQ=YEARLY, INTERVAL, BYDAY...) n'est pas appliquée :
+ * l'événement est importé sans répétition et compté dans unsupportedRules().
+ */
+public final class IcsReader implements Closeable {
+
+    // Nombre d'événements ajoutés à l'agenda en un seul appel à addAll
+    static final int BATCH_SIZE = 10_000;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+
+    private final BufferedReader in;
+    // Ligne lue en avance (pour recoller les lignes repliées), null en fin de fichier
+    private String lookahead;
+    private boolean started;
+    private long lineNumber;
+    private long unsupportedRules;
+
+    /**
+     * @param in le texte iCalendar à lire
+     */
+    public IcsReader(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 64 * 1024);
+    }
+
+    /**
+     * @param in le fichier iCalendar à lire, encodé en UTF-8
+     */
+    public IcsReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Importe tous les événements d'un flux iCalendar dans un agenda, par lots (Agenda.addAll)
+     * @param agenda l'agenda à remplir
+     * @param in le fichier iCalendar à lire, encodé en UTF-8
+     * @return le nombre d'événements importés
+     * @throws IOException en cas d'erreur de lecture, ou si le fichier est mal formé
+     */
+    public static long importInto(Agenda agenda, InputStream in) throws IOException {
+        long count = 0;
+        try (IcsReader reader = new IcsReader(in)) {
+            List<Event> batch = new ArrayList<>(BATCH_SIZE);
+            for (Event e = reader.nextEvent(); e != null; e = reader.nextEvent()) {
+                batch.add(e);
+                if (batch.size() == BATCH_SIZE) {
+                    agenda.addAll(batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            agenda.addAll(batch);
+            count += batch.size();
+        }
+        return count;
+    }
+
+    /**
+     * Lit l'événement suivant
+     * @return l'événement du VEVENT suivant, ou null à la fin du fichier
+     * @throws IOException en cas d'erreur de lecture, ou si le VEVENT est mal formé
+     */
+    public Event nextEvent() throws IOException {
+        for (String line = nextLine(); line != null; line = nextLine()) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                return readEvent();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return le nombre d'événements lus dont la règle de répétition n'a pas pu être appliquée
+     */
+    public long unsupportedRules() {
+        return unsupportedRules;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Event readEvent() throws IOException {
+        String title = null;
+        Property start = null;
+        Property end = null;
+        Property duration = null;
+        String rule = null;
+        String agendaRule = null;
+        List<Property> exceptions = new ArrayList<>();
+        Property extra = null;
+        int nested = 0; // Composants imbriqués (VALARM...) : ignorés
+        long firstLine = lineNumber;
+        for (String line = nextLine(); ; line = nextLine()) {
+            if (line == null) {
+                throw new IOException("VEVENT non terminé (ligne " + firstLine + ")");
+            }
+            Property p = Property.parse(line);
+            if (p == null) {
+                continue;
+            }
+            if (p.name.equals("BEGIN")) {
+                nested++;
+            } else if (p.name.equals("END")) {
+                if (nested-- == 0) {
+                    break;
+                }
+            } else if (nested == 0) {
+                switch (p.name) {
+                    case "SUMMARY" -> title = unescape(p.value);
+                    case "DTSTART" -> start = p;
+                    case "DTEND" -> end = p;
+                    case "DURATION" -> duration = p;
+                    case "RRULE" -> rule = p.value;
+                    case "X-AGENDA-RRULE" -> agendaRule = p.value;
+                    case "EXDATE" -> exceptions.add(p);
+                    case "RDATE" -> extra = p;
+                    default -> {
+                        // Propriété sans équivalent dans l'agenda
+                    }
+                }
+            }
+        }
+        if (start == null) {
+            throw new IOException("VEVENT sans DTSTART (ligne " + firstLine + ")");
+        }
+        try {
+            LocalDateTime startTime = dateTime(start.value);
+            Duration length;
+            if (end != null) {
+                length = Duration.between(startTime, dateTime(end.value));
+            } else if (duration != null) {
+                length = duration(duration.value);
+            } else {
+                length = isDate(start.value) ? Duration.ofDays(1) : Duration.ZERO;
+            }
+            Event e = new Event(title, startTime, length);
+            if (agendaRule != null) {
+                applyRule(e, agendaRule, true, exceptions, extra);
+            } else if (rule != null) {
+                applyRule(e, rule, false, exceptions, extra);
+            }
+            return e;
+        } catch (DateTimeParseException | IllegalArgumentException | ArithmeticException invalid) {
+            throw new IOException("VEVENT mal formé (ligne " + firstLine + ") : " + invalid.getMessage(), invalid);
+        }
+    }
+
+    /**
+     * @param agendaRule vrai pour une règle X-AGENDA-RRULE (écrite par IcsWriter), dont FREQ est un ChronoUnit
+     */
+    private void applyRule(Event e, String rule, boolean agendaRule, List<Property> exceptions, Property extra) {
+        ChronoUnit frequency = null;
+        boolean supported = true;
+        long count = 0;
+        LocalDateTime until = null;
+        String byDay = null;
+        String byMonthDay = null;
+        for (String part : rule.split(";")) {
+            int equals = part.indexOf('=');
+            String name = part.substring(0, Math.max(0, equals)).toUpperCase(Locale.ROOT);
+            String value = part.substring(equals + 1).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "FREQ" -> frequency = agendaRule ? agendaFrequency(value) : switch (value) {
+                    case "DAILY" -> ChronoUnit.DAYS;
+                    case "WEEKLY" -> ChronoUnit.WEEKS;
+                    case "MONTHLY" -> ChronoUnit.MONTHS;
+                    default -> null;
+                };
+                case "COUNT" -> count = Long.parseLong(value);
+                case "UNTIL" -> until = dateTime(value);
+                case "WKST" -> {
+                    // Sans effet pour une répétition hebdomadaire d'un seul jour
+                }
+                case "INTERVAL" -> supported &= value.equals("1");
+                case "BYDAY" -> byDay = value;
+                case "BYMONTHDAY" -> byMonthDay = value;
+                default -> supported = false;
+            }
+        }
+        // BYDAY et BYMONTHDAY tels que les écrivent les calendriers courants (jour de DTSTART) : sans effet
+        LocalDate first = e.getStart().toLocalDate();
+        if (byDay != null) {
+            supported &= frequency == ChronoUnit.WEEKS && byDay.equals(weekday(first));
+        }
+        if (byMonthDay != null) {
+            supported &= frequency == ChronoUnit.MONTHS && byMonthDay.equals(Integer.toString(first.getDayOfMonth()));
+        }
+        if (frequency == null || !supported) {
+            unsupportedRules++;
+            return;
+        }
+        e.setRepetition(frequency);
+        List<String> values = new ArrayList<>();
+        for (Property exdate : exceptions) {
+            values.addAll(Arrays.asList(exdate.value.split(",")));
+        }
+        long[] days = new long[values.size()];
+        for (int k = 0; k < days.length; k++) {
+            days[k] = dateTime(values.get(k)).toLocalDate().toEpochDay();
+        }
+        Arrays.sort(days); // EXDATE n'est pas forcément trié
+        e.addExceptions(days);
+        if (until != null) {
+            // X-AGENDA-RRULE : terminaison de l'agenda telle quelle
+            LocalDate last = agendaRule ? until.toLocalDate() : lastOccurrenceUntil(e, until);
+            if (!agendaRule && extra != null && !extra.value.contains(",")) {
+                // Dernière occurrence hors du pas (terminaison de l'agenda, écrite par IcsWriter)
+                LocalDate extraDay = dateTime(extra.value).toLocalDate();
+                if (extraDay.isAfter(last) && !extraDay.isAfter(until.toLocalDate())) {
+                    last = extraDay;
+                }
+            }
+            e.setTermination(last);
+        } else if (count > 0) {
+            e.setTermination(count);
+        }
+    }
+
+    /**
+     * L'agenda compte toujours le jour de terminaison comme une occurrence, même hors du pas de la répétition ;
+     * UNTIL n'est qu'une borne. On termine donc au dernier début d'occurrence au plus tard à until
+     * (heure de DTSTART comprise), ou au premier jour si aucune occurrence n'est avant until.
+     * @param e l'événement, répétitif et sans terminaison
+     */
+    private static LocalDate lastOccurrenceUntil(Event e, LocalDateTime until) {
+        LocalDate lastDay = until.toLocalDate();
+        if (until.toLocalTime().isBefore(e.getStart().toLocalTime())) {
+            lastDay = lastDay.minusDays(1); // L'occurrence de ce jour commencerait après until
+        }
+        long last = e.freeze().repetition().previousOccurrence(lastDay.toEpochDay());
+        return last == Repetition.NONE ? e.getStart().toLocalDate() : LocalDate.ofEpochDay(last);
+    }
+
+    /**
+     * @return le code RFC 5545 du jour de la semaine de day (MO, TU...)
+     */
+    private static String weekday(LocalDate day) {
+        return day.getDayOfWeek().name().substring(0, 2);
+    }
+
+    private static ChronoUnit agendaFrequency(String value) {
+        try {
+            return ChronoUnit.valueOf(value);
+        } catch (IllegalArgumentException unknown) {
+            return null;
+        }
+    }
+
+    /**
+     * @return la ligne logique suivante (lignes repliées recollées), ou null à la fin du fichier
+     */
+    private String nextLine() throws IOException {
+        if (!started) {
+            lookahead = readPhysicalLine();
+            started = true;
+        }
+        String line = lookahead;
+        if (line == null) {
+            return null;
+        }
+        lookahead = readPhysicalLine();
+        // Une ligne qui commence par une espace ou une tabulation continue la précédente
+        if (lookahead != null && !lookahead.isEmpty() && (lookahead.charAt(0) == ' ' || lookahead.charAt(0) == '\t')) {
+            StringBuilder unfolded = new StringBuilder(line);
+            while (lookahead != null && !lookahead.isEmpty() && (lookahead.charAt(0) == ' ' || lookahead.charAt(0) == '\t')) {
+                unfolded.append(lookahead, 1, lookahead.length());
+                lookahead = readPhysicalLine();
+            }
+            line = unfolded.toString();
+        }
+        return line;
+    }
+
+    private String readPhysicalLine() throws IOException {
+        String line = in.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    private static boolean isDate(String value) {
+        return value.length() == 8;
+    }
+
+    /**
+     * Date (AAAAMMJJ, à minuit) ou date-heure (AAAAMMJJTHHMMSS, suffixe Z ignoré)
+     */
+    static LocalDateTime dateTime(String value) {
+        String v = value.endsWith("Z") || value.endsWith("z") ? value.substring(0, value.length() - 1) : value;
+        return isDate(v) ? LocalDate.parse(v, DATE).atStartOfDay() : LocalDateTime.parse(v.toUpperCase(Locale.ROOT), DATE_TIME);
+    }
+
+    /**
+     * Durée iCalendar : [+-]P[nW] ou [+-]P[nD][T[nH][nM][nS]]
+     */
+    static Duration duration(String value) {
+        String v = value.toUpperCase(Locale.ROOT);
+        boolean negative = v.startsWith("-");
+        if (v.startsWith("-") || v.startsWith("+")) {
+            v = v.substring(1);
+        }
+        Duration d;
+        if (v.endsWith("W") && v.startsWith("P")) {
+            d = Duration.ofDays(7 * Long.parseLong(v.substring(1, v.length() - 1)));
+        } else {
+            d = Duration.parse(v);
+        }
+        return negative ? d.negated() : d;
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                result.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Une ligne de contenu : NOM;paramètres:valeur (les paramètres sont ignorés, sauf pour trouver la valeur)
+     */
+    private record Property(String name, String value) {
+
+        /**
+         * @return la propriété de la ligne, ou null pour une ligne vide
+         */
+        static Property parse(String line) throws IOException {
+            if (line.isBlank()) {
+                return null;
+            }
+            boolean quoted = false;
+            int nameEnd = -1;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (c == ';' || c == ':') && nameEnd < 0) {
+                    nameEnd = i;
+                }
+                if (!quoted && c == ':') {
+                    return new Property(line.substring(0, nameEnd).toUpperCase(Locale.ROOT), line.substring(i + 1));
+                }
+            }
+            throw new IOException("Ligne iCalendar sans valeur : " + line);
+        }
+    }
+}
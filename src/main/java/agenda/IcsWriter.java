@@ -0,0 +1,294 @@
+package agenda;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Écriture en flux d'un agenda au format iCalendar (RFC 5545), en UTF-8 : chaque événement est écrit dès qu'il
+ * est parcouru, le document n'est jamais construit en mémoire.
+ * <p>
+ * Un événement répétitif donne un seul VEVENT : RRULE (FREQ=DAILY, WEEKLY ou MONTHLY, COUNT ou UNTIL selon
+ * la terminaison) et EXDATE pour les exceptions, sans développer les occurrences. Une date de terminaison
+ * hors du pas de la répétition (que l'agenda compte comme une occurrence) est ajoutée en RDATE.
+ * Les heures sont écrites sans fuseau (heure « flottante »), à la seconde près, comme l'agenda les stocke.
+ * L'UID d'un VEVENT ne dépend que de l'événement (titre, début, durée) : deux exports du même agenda donnent
+ * les mêmes UID, et un logiciel qui réimporte le fichier met à jour ses événements au lieu de les dupliquer.
+ * Une fréquence sans équivalent iCalendar (YEARS, DECADES...) est écrite dans la propriété X-AGENDA-RRULE
+ * et comptée dans unsupportedRules() : les autres logiciels ne verront que la première occurrence.
+ * Le format est relu par IcsReader.
+ */
+public final class IcsWriter implements Closeable, Flushable {
+
+    // Longueur maximale d'une ligne, en octets, avant repliement
+    static final int MAX_LINE_OCTETS = 75;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+
+    private final OutputStream out;
+    // Horodatage DTSTAMP commun à tous les VEVENT écrits par ce IcsWriter (obligatoire selon la RFC)
+    private final String stamp;
+    // UID déjà écrits dans le VCALENDAR en cours, et nombre d'événements de même UID (titre, début et durée égaux)
+    private final Map<String, Integer> uids = new HashMap<>();
+    private long unsupportedRules;
+
+    /**
+     * @param out le flux où écrire le texte iCalendar
+     */
+    public IcsWriter(OutputStream out) {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 64 * 1024);
+        this.stamp = DATE_TIME.format(LocalDateTime.now(ZoneOffset.UTC)) + "Z";
+    }
+
+    /**
+     * @param channel le canal où écrire le texte iCalendar
+     */
+    public IcsWriter(WritableByteChannel channel) {
+        this(Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Écrit un VCALENDAR contenant tous les événements de l'agenda, dans l'ordre d'ajout
+     * @param agenda l'agenda à exporter
+     * @return le nombre d'événements écrits
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long write(Agenda agenda) throws IOException {
+        beginCalendar();
+        List<Event> events = agenda.events;
+        for (int i = 0; i < events.size(); i++) {
+            writeEvent(events.get(i));
+        }
+        endCalendar();
+        return events.size();
+    }
+
+    /**
+     * Écrit un VCALENDAR contenant les événements de l'agenda dont au moins une occurrence chevauche [from, to[,
+     * dans l'ordre d'ajout. Les événements répétitifs sont écrits en entier (règle de répétition complète).
+     * @param agenda l'agenda à exporter
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     * @return le nombre d'événements écrits
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long write(Agenda agenda, LocalDateTime from, LocalDateTime to) throws IOException {
+        beginCalendar();
+        long[] count = {0};
+        try {
+            agenda.forEachEventBetween(from, to, (e, sequence) -> {
+                try {
+                    writeEvent(e);
+                    count[0]++;
+                } catch (IOException failure) {
+                    throw new UncheckedIOException(failure);
+                }
+            });
+        } catch (UncheckedIOException failure) {
+            throw failure.getCause();
+        }
+        endCalendar();
+        return count[0];
+    }
+
+    /**
+     * @return le nombre d'événements écrits dont la fréquence n'a pas d'équivalent RRULE
+     */
+    public long unsupportedRules() {
+        return unsupportedRules;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void beginCalendar() throws IOException {
+        uids.clear();
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//agenda//IcsWriter//FR");
+    }
+
+    private void endCalendar() throws IOException {
+        writeLine("END:VCALENDAR");
+        out.flush();
+    }
+
+    /**
+     * Écrit un VEVENT, à partir de l'état figé de l'événement
+     */
+    private void writeEvent(Event event) throws IOException {
+        EventSnapshot e = event.freeze();
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:" + uid(e) + "@agenda");
+        writeLine("DTSTAMP:" + stamp);
+        if (e.title() != null) {
+            writeLine("SUMMARY:" + escape(e.title()));
+        }
+        writeLine("DTSTART:" + DATE_TIME.format(e.start()));
+        writeLine("DURATION:" + duration(e.duration()));
+        if (e.isRepetitive()) {
+            writeRule(e);
+        }
+        writeLine("END:VEVENT");
+    }
+
+    /**
+     * @return un identifiant stable : empreinte du titre, du début et de la durée, suivie pour le n-ième
+     * événement identique du même VCALENDAR (dans l'ordre d'ajout) de « -n »
+     */
+    private String uid(EventSnapshot e) {
+        String key = (e.title() == null ? "-" : "+" + e.title()) + "\n" + e.start() + "\n" + e.duration();
+        String uid = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+        int same = uids.merge(uid, 1, Integer::sum) - 1;
+        return same == 0 ? uid : uid + "-" + same;
+    }
+
+    private void writeRule(EventSnapshot e) throws IOException {
+        RepetitionSnapshot repetition = e.repetition();
+        String frequency = switch (repetition.frequency()) {
+            case DAYS -> "DAILY";
+            case WEEKS -> "WEEKLY";
+            case MONTHS -> "MONTHLY";
+            default -> null;
+        };
+        StringBuilder rule;
+        if (frequency != null) {
+            rule = new StringBuilder("RRULE:FREQ=").append(frequency);
+        } else {
+            // Propriété propre à l'agenda, ignorée par les autres logiciels mais relue par IcsReader
+            unsupportedRules++;
+            rule = new StringBuilder("X-AGENDA-RRULE:FREQ=").append(repetition.frequency().name());
+        }
+        Termination termination = repetition.termination();
+        if (termination != null && termination.terminationDateInclusive() != null) {
+            // Même type de valeur que DTSTART : date-heure locale, fin du dernier jour inclus
+            rule.append(";UNTIL=").append(DATE_TIME.format(termination.terminationDateInclusive().atTime(LocalTime.MAX)));
+        } else if (termination != null && termination.numberOfOccurrences() > 0) {
+            rule.append(";COUNT=").append(termination.numberOfOccurrences());
+        }
+        writeLine(rule.toString());
+        if (frequency != null && termination != null && termination.terminationDateInclusive() != null) {
+            long last = termination.terminationDateInclusive().toEpochDay();
+            if (last >= e.startEpochDay() && !repetition.isAligned(last)) {
+                // L'agenda compte le jour de terminaison comme une occurrence, même hors du pas : UNTIL seul l'ignorerait
+                writeLine("RDATE:" + DATE_TIME.format(termination.terminationDateInclusive().atTime(e.start().toLocalTime())));
+            }
+        }
+        List<LocalDate> exceptions = repetition.exceptions();
+        if (!exceptions.isEmpty()) {
+            // Une seule propriété, repliée au besoin : même type de valeur que DTSTART
+            StringBuilder exdate = new StringBuilder("EXDATE:");
+            for (int i = 0; i < exceptions.size(); i++) {
+                if (i > 0) {
+                    exdate.append(',');
+                }
+                exdate.append(DATE_TIME.format(exceptions.get(i).atTime(e.start().toLocalTime())));
+            }
+            writeLine(exdate.toString());
+        }
+    }
+
+    /**
+     * Écrit une ligne de contenu terminée par CRLF, repliée tous les MAX_LINE_OCTETS octets
+     * sans couper un caractère UTF-8
+     */
+    private void writeLine(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int limit = MAX_LINE_OCTETS;
+        while (bytes.length - start > limit) {
+            int end = start + limit;
+            while ((bytes[end] & 0xC0) == 0x80) {
+                end--; // Octet de continuation : on coupe avant le début du caractère
+            }
+            out.write(bytes, start, end - start);
+            out.write(CRLF);
+            out.write(' ');
+            start = end;
+            limit = MAX_LINE_OCTETS - 1; // L'espace de continuation compte dans la longueur
+        }
+        out.write(bytes, start, bytes.length - start);
+        out.write(CRLF);
+    }
+
+    /**
+     * Durée iCalendar : [-]P[nD][T[nH][nM][nS]], à la seconde près
+     */
+    static String duration(Duration d) {
+        if (d.isNegative()) {
+            return "-" + duration(d.negated());
+        }
+        long seconds = d.getSeconds();
+        long days = seconds / 86_400;
+        long hours = seconds / 3_600 % 24;
+        long minutes = seconds / 60 % 60;
+        long rest = seconds % 60;
+        StringBuilder text = new StringBuilder("P");
+        if (days > 0) {
+            text.append(days).append('D');
+        }
+        if (hours > 0 || minutes > 0 || rest > 0 || days == 0) {
+            text.append('T');
+            if (hours > 0) {
+                text.append(hours).append('H');
+            }
+            if (minutes > 0) {
+                text.append(minutes).append('M');
+            }
+            if (rest > 0 || (hours == 0 && minutes == 0)) {
+                text.append(rest).append('S');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String escape(String text) {
+        StringBuilder result = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case ';' -> "\\;";
+                case ',' -> "\\,";
+                case '\n' -> "\\n";
+                case '\r' -> "";
+                default -> null;
+            };
+            if (replacement != null && result == null) {
+                result = new StringBuilder(text.length() + 8).append(text, 0, i);
+            }
+            if (result != null) {
+                if (replacement != null) {
+                    result.append(replacement);
+                } else {
+                    result.append(c);
+                }
+            }
+        }
+        return result == null ? text : result.toString();
+    }
+}
@@ -0,0 +1,396 @@
+package agenda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Arbre d'intervalles (AVL augmenté) : chaque nœud porte un intervalle fermé [low, high]
+ * et mémorise la plus grande borne haute de son sous-arbre, ce qui permet d'élaguer
+ * les recherches de chevauchement.
+ * Les nœuds sont triés par (low, id) : l'identifiant départage les intervalles de même début.
+ *
+ * @param <T> le type des valeurs associées aux intervalles
+ */
+final class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final long low;
+        final long high;
+        long id; // Modifié seulement par renumber, qui conserve l'ordre
+        final T value;
+        long maxHigh;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long low, long high, long id, T value) {
+            this.low = low;
+            this.high = high;
+            this.id = id;
+            this.value = value;
+            this.maxHigh = high;
+        }
+    }
+
+    private Node<T> root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return le plus petit début d'intervalle (Long.MAX_VALUE si l'arbre est vide)
+     */
+    long minLow() {
+        Node<T> n = root;
+        if (n == null) {
+            return Long.MAX_VALUE;
+        }
+        while (n.left != null) {
+            n = n.left;
+        }
+        return n.low;
+    }
+
+    /**
+     * @return la plus grande fin d'intervalle (Long.MIN_VALUE si l'arbre est vide)
+     */
+    long maxHigh() {
+        return root == null ? Long.MIN_VALUE : root.maxHigh;
+    }
+
+    /**
+     * Ajoute l'intervalle [low, high] associé à value, O(log n)
+     */
+    void insert(long low, long high, long id, T value) {
+        root = insert(root, new Node<>(low, high, id, value));
+        size++;
+    }
+
+    /**
+     * Ajoute plusieurs intervalles d'un coup : tri (parallèle) des intervalles ajoutés, fusion avec ceux de l'arbre,
+     * puis construction ascendante d'un arbre parfaitement équilibré, en O(n + m log m) au lieu de O(m log(n + m)).
+     * Un petit lot devant un grand arbre est inséré intervalle par intervalle.
+     * @param lows les débuts des intervalles
+     * @param highs les fins des intervalles
+     * @param ids les identifiants des intervalles
+     * @param values les valeurs associées
+     */
+    void insertAll(long[] lows, long[] highs, long[] ids, List<? extends T> values) {
+        int count = values.size();
+        if ((long) count * 8 < size) {
+            for (int i = 0; i < count; i++) {
+                insert(lows[i], highs[i], ids[i], values.get(i));
+            }
+            return;
+        }
+        Node<T>[] added = nodes(count);
+        for (int i = 0; i < count; i++) {
+            added[i] = new Node<>(lows[i], highs[i], ids[i], values.get(i));
+        }
+        Arrays.parallelSort(added, Comparator.<Node<T>>comparingLong(n -> n.low).thenComparingLong(n -> n.id));
+        Node<T>[] existing = nodes(size);
+        flatten(root, existing, 0);
+        // Fusion des deux suites triées
+        Node<T>[] merged = nodes(size + count);
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j == count || (i < existing.length && compare(existing[i].low, existing[i].id, added[j]) < 0)) {
+                merged[k] = existing[i++];
+            } else {
+                merged[k] = added[j++];
+            }
+        }
+        root = build(merged, 0, merged.length);
+        size = merged.length;
+    }
+
+    /**
+     * @return un tableau de n nœuds (tableau générique : il ne reçoit que des nœuds de valeurs T)
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] nodes(int n) {
+        return (Node<T>[]) new Node<?>[n];
+    }
+
+    /**
+     * Range les nœuds du sous-arbre n dans l'ordre, à partir de nodes[from]
+     * @return l'indice qui suit le dernier nœud rangé
+     */
+    private static <T> int flatten(Node<T> n, Node<T>[] nodes, int from) {
+        while (n != null) {
+            from = flatten(n.left, nodes, from);
+            nodes[from++] = n;
+            n = n.right;
+        }
+        return from;
+    }
+
+    /**
+     * Construit un arbre équilibré à partir des nœuds triés nodes[from, to[ (le milieu devient la racine)
+     */
+    private static <T> Node<T> build(Node<T>[] nodes, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node<T> n = nodes[middle];
+        n.left = build(nodes, from, middle);
+        n.right = build(nodes, middle + 1, to);
+        update(n);
+        return n;
+    }
+
+    /**
+     * Supprime l'intervalle identifié par (low, id), O(log n)
+     * @return vrai si un intervalle a été supprimé
+     */
+    boolean remove(long low, long id) {
+        int before = size;
+        root = remove(root, low, id);
+        return size < before;
+    }
+
+    /**
+     * Supprime tous les intervalles commençant à low et associés à value (comparaison par identité)
+     * @return les identifiants des intervalles supprimés
+     */
+    long[] removeAll(long low, T value) {
+        // On collecte d'abord les identifiants (les nœuds de même début sont contigus)
+        long[] ids = collectIds(root, low, value, new long[0]);
+        for (long id : ids) {
+            remove(low, id);
+        }
+        return ids;
+    }
+
+    /**
+     * Supprime tous les intervalles qui finissent avant day (high < day)
+     * @param removed appelée avec chaque valeur supprimée et son identifiant
+     * @return le nombre d'intervalles supprimés
+     */
+    int removeEndingBefore(long day, ObjLongConsumer<T> removed) {
+        List<Node<T>> found = new ArrayList<>();
+        collectEndingBefore(root, day, found);
+        for (Node<T> n : found) {
+            remove(n.low, n.id);
+            removed.accept(n.value, n.id);
+        }
+        return found.size();
+    }
+
+    /**
+     * Parcourt, sans les supprimer, les intervalles que removeEndingBefore(day) supprimerait
+     * @param action appelée avec chaque valeur et son identifiant, par début croissant
+     */
+    void forEachEndingBefore(long day, ObjLongConsumer<T> action) {
+        List<Node<T>> found = new ArrayList<>();
+        collectEndingBefore(root, day, found);
+        for (Node<T> n : found) {
+            action.accept(n.value, n.id);
+        }
+    }
+
+    private void collectEndingBefore(Node<T> n, long day, List<Node<T>> found) {
+        while (n != null) {
+            collectEndingBefore(n.left, day, found);
+            // Les nœuds suivants commencent au plus tôt à n.low : ils ne peuvent pas finir avant day
+            if (n.low >= day) {
+                return;
+            }
+            if (n.high < day) {
+                found.add(n);
+            }
+            n = n.right;
+        }
+    }
+
+    /**
+     * Change les identifiants de tous les intervalles ; renumber doit conserver leur ordre
+     * (strictement croissante sur les identifiants présents), l'arbre n'est donc pas réorganisé
+     */
+    void renumber(LongUnaryOperator renumber) {
+        renumber(root, renumber);
+    }
+
+    private static <T> void renumber(Node<T> n, LongUnaryOperator renumber) {
+        while (n != null) {
+            renumber(n.left, renumber);
+            n.id = renumber.applyAsLong(n.id);
+            n = n.right;
+        }
+    }
+
+    /**
+     * Parcourt tous les intervalles qui chevauchent [low, high], en O(log n + k)
+     */
+    void forEachOverlapping(long low, long high, ObjLongConsumer<T> action) {
+        forEachOverlapping(root, low, high, action);
+    }
+
+    /**
+     * Détermine si l'un des intervalles qui chevauchent [low, high] vérifie le prédicat.
+     * La recherche s'arrête au premier trouvé.
+     */
+    boolean anyOverlapping(long low, long high, Predicate<T> predicate) {
+        return anyOverlapping(root, low, high, predicate);
+    }
+
+    private boolean anyOverlapping(Node<T> n, long low, long high, Predicate<T> predicate) {
+        if (n == null || n.maxHigh < low) {
+            return false;
+        }
+        if (anyOverlapping(n.left, low, high, predicate)) {
+            return true;
+        }
+        if (n.low > high) {
+            return false;
+        }
+        return (n.high >= low && predicate.test(n.value)) || anyOverlapping(n.right, low, high, predicate);
+    }
+
+    private long[] collectIds(Node<T> n, long low, T value, long[] ids) {
+        if (n == null) {
+            return ids;
+        }
+        if (low <= n.low) {
+            ids = collectIds(n.left, low, value, ids);
+        }
+        if (n.low == low && n.value == value) {
+            ids = Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = n.id;
+        }
+        if (low >= n.low) {
+            ids = collectIds(n.right, low, value, ids);
+        }
+        return ids;
+    }
+
+    private void forEachOverlapping(Node<T> n, long low, long high, ObjLongConsumer<T> action) {
+        // Aucun intervalle de ce sous-arbre ne se termine après low : on élague
+        if (n == null || n.maxHigh < low) {
+            return;
+        }
+        forEachOverlapping(n.left, low, high, action);
+        if (n.low <= high && n.high >= low) {
+            action.accept(n.value, n.id);
+        }
+        // Les nœuds de droite commencent après n.low : inutile d'y descendre si n.low > high
+        if (n.low <= high) {
+            forEachOverlapping(n.right, low, high, action);
+        }
+    }
+
+    private static int compare(long low, long id, Node<?> n) {
+        int c = Long.compare(low, n.low);
+        return c != 0 ? c : Long.compare(id, n.id);
+    }
+
+    private Node<T> insert(Node<T> n, Node<T> added) {
+        if (n == null) {
+            return added;
+        }
+        if (compare(added.low, added.id, n) < 0) {
+            n.left = insert(n.left, added);
+        } else {
+            n.right = insert(n.right, added);
+        }
+        return balance(n);
+    }
+
+    private Node<T> remove(Node<T> n, long low, long id) {
+        if (n == null) {
+            return null;
+        }
+        int c = compare(low, id, n);
+        if (c < 0) {
+            n.left = remove(n.left, low, id);
+        } else if (c > 0) {
+            n.right = remove(n.right, low, id);
+        } else {
+            size--;
+            if (n.left == null) {
+                return n.right;
+            }
+            if (n.right == null) {
+                return n.left;
+            }
+            // On remplace le nœud par le plus petit nœud du sous-arbre droit
+            Node<T> min = n.right;
+            while (min.left != null) {
+                min = min.left;
+            }
+            min.right = removeMin(n.right);
+            min.left = n.left;
+            return balance(min);
+        }
+        return balance(n);
+    }
+
+    private Node<T> removeMin(Node<T> n) {
+        if (n.left == null) {
+            return n.right;
+        }
+        n.left = removeMin(n.left);
+        return balance(n);
+    }
+
+    private static int height(Node<?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static void update(Node<?> n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long max = n.high;
+        if (n.left != null && n.left.maxHigh > max) {
+            max = n.left.maxHigh;
+        }
+        if (n.right != null && n.right.maxHigh > max) {
+            max = n.right.maxHigh;
+        }
+        n.maxHigh = max;
+    }
+
+    private Node<T> balance(Node<T> n) {
+        update(n);
+        int factor = height(n.left) - height(n.right);
+        if (factor > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(n.left);
+            }
+            return rotateRight(n);
+        }
+        if (factor < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(n.right);
+            }
+            return rotateLeft(n);
+        }
+        return n;
+    }
+
+    private Node<T> rotateRight(Node<T> n) {
+        Node<T> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private Node<T> rotateLeft(Node<T> n) {
+        Node<T> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+}
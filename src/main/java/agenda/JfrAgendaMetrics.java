@@ -0,0 +1,50 @@
+package agenda;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Mesures des requêtes publiées comme événements JDK Flight Recorder (agenda.Query), visibles dans
+ * JDK Mission Control ou par jfr print. Tant que l'événement n'est pas activé dans l'enregistrement
+ * (par exemple -XX:StartFlightRecording:settings=profile ou agenda.Query#enabled=true),
+ * record ne fait qu'un test.
+ */
+public final class JfrAgendaMetrics implements AgendaMetrics {
+
+    @Name("agenda.Query")
+    @Label("Agenda Query")
+    @Category("Agenda")
+    @Description("Une requête sur un agenda : durée, événements examinés et trouvés")
+    @StackTrace(false)
+    static final class QueryEvent extends jdk.jfr.Event {
+        @Label("Query")
+        String query;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+
+        @Label("Scanned")
+        int scanned;
+
+        @Label("Returned")
+        int returned;
+    }
+
+    @Override
+    public void record(Query query, long nanos, int scanned, int returned) {
+        QueryEvent event = new QueryEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.query = query.name();
+        event.latency = nanos;
+        event.scanned = scanned;
+        event.returned = returned;
+        event.commit();
+    }
+}
@@ -0,0 +1,543 @@
+package agenda;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Journalisation d'un agenda dans un répertoire : les ajouts (Agenda.addEvent) et les modifications des événements
+ * (setRepetition, addException, setTermination) sont ajoutés à un journal (WriteAheadLog) avec validation groupée,
+ * et une image compacte de l'agenda (AgendaFile) est écrite périodiquement.
+ * À l'ouverture, l'agenda est reconstruit à partir de la dernière image et du journal qui la suit.
+ * <p>
+ * Fichiers : snapshot-N.bin (image de génération N) et journal-N.log (modifications postérieures à l'image N).
+ * Un enregistrement désigne un événement par son rang d'ajout dans l'agenda. L'image contient chaque rang ;
+ * un événement ajouté plusieurs fois y figure à chaque rang, et le journal qui la suit commence par un
+ * enregistrement SAME_AS par rang répété (rang, premier rang) pour retrouver un seul objet à la relecture.
+ * <p>
+ * Les modifications sont journalisées sans attendre le disque : commit() attend leur écriture
+ * (sinon, au plus groupDelay plus tard). Comme Agenda, l'agenda journalisé n'est pas prévu
+ * pour être modifié par plusieurs threads à la fois.
+ * <p>
+ * L'image périodique est écrite pendant la modification qui la déclenche (addEvent, addException...).
+ * Si elle échoue, cette modification lève une UncheckedIOException alors qu'elle est déjà appliquée et journalisée :
+ * seule l'image manque, l'agenda reste cohérent et se relit normalement.
+ */
+public final class JournaledAgenda implements Closeable {
+
+    static final Duration DEFAULT_GROUP_DELAY = Duration.ofMillis(5);
+    static final long DEFAULT_SNAPSHOT_EVERY = 1_000_000;
+
+    // Types d'enregistrement
+    private static final byte ADD = 1;
+    private static final byte ADD_AGAIN = 2;
+    private static final byte SET_REPETITION = 3;
+    private static final byte ADD_EXCEPTION = 4;
+    private static final byte SET_TERMINATION = 5;
+    private static final byte SAME_AS = 6;
+
+    private final Path directory;
+    private final Agenda agenda;
+    private final long groupDelayNanos;
+    private final long snapshotEvery;
+    private long generation;
+    private WriteAheadLog log;
+    private long recordsSinceSnapshot;
+    private boolean closed;
+
+    /**
+     * Un événement journalisé : son rang (premier ajout) et son dernier état journalisé
+     */
+    private static final class Tracked {
+        final int rank;
+        EventSnapshot state;
+
+        Tracked(int rank, EventSnapshot state) {
+            this.rank = rank;
+            this.state = state;
+        }
+    }
+
+    private final Map<Event, Tracked> tracked = new IdentityHashMap<>();
+    private final EventListener changeListener = this::eventChanged;
+
+    private JournaledAgenda(Path directory, long groupDelayNanos, long snapshotEvery) {
+        this.directory = directory;
+        this.agenda = new Agenda();
+        this.groupDelayNanos = groupDelayNanos;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * Ouvre (ou crée) l'agenda journalisé du répertoire directory, avec les réglages par défaut
+     * @param directory le répertoire de l'image et du journal
+     * @return l'agenda journalisé, reconstruit à partir de l'image et du journal
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static JournaledAgenda open(Path directory) throws IOException {
+        return open(directory, DEFAULT_GROUP_DELAY, DEFAULT_SNAPSHOT_EVERY);
+    }
+
+    /**
+     * Ouvre (ou crée) l'agenda journalisé du répertoire directory
+     * @param directory le répertoire de l'image et du journal
+     * @param groupDelay délai maximal avant l'écriture sur le disque d'une modification
+     * @param snapshotEvery nombre de modifications journalisées après lequel une nouvelle image est écrite
+     * @return l'agenda journalisé, reconstruit à partir de l'image et du journal
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static JournaledAgenda open(Path directory, Duration groupDelay, long snapshotEvery) throws IOException {
+        if (snapshotEvery < 1) {
+            throw new IllegalArgumentException("Le nombre de modifications entre deux images doit être positif.");
+        }
+        Files.createDirectories(directory);
+        JournaledAgenda journaled = new JournaledAgenda(directory, groupDelay.toNanos(), snapshotEvery);
+        journaled.recover();
+        return journaled;
+    }
+
+    /**
+     * @return l'agenda : ses ajouts et les modifications de ses événements sont journalisés
+     */
+    public Agenda agenda() {
+        return agenda;
+    }
+
+    /**
+     * Attend que toutes les modifications déjà faites soient écrites sur le disque
+     * @throws IOException en cas d'erreur d'écriture du journal
+     */
+    public void commit() throws IOException {
+        currentLog().commit();
+    }
+
+    /**
+     * Écrit une nouvelle image de l'agenda et repart d'un journal vide.
+     * En cas d'échec avant la mise en place de l'image, l'agenda continue avec l'image et le journal actuels.
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public synchronized void snapshot() throws IOException {
+        log.commit();
+        long next = generation + 1;
+        Path temporary = directory.resolve("snapshot-" + next + ".tmp");
+        WriteAheadLog nextLog = null;
+        try {
+            AgendaFile.write(agenda, temporary);
+            nextLog = new WriteAheadLog(journal(next), groupDelayNanos);
+            // Les événements ajoutés plusieurs fois : chaque rang répété désigne le premier
+            for (int rank = 0; rank < agenda.events.size(); rank++) {
+                int first = tracked.get(agenda.events.get(rank)).rank;
+                if (first != rank) {
+                    nextLog.append(new Record(SAME_AS, rank).writeInt(first).bytes());
+                }
+            }
+            nextLog.commit();
+            Files.move(temporary, snapshot(next), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // Image abandonnée : on retire la génération suivante, inachevée (ce qui en reste est supprimé à l'ouverture)
+            try {
+                if (nextLog != null) {
+                    nextLog.close();
+                }
+                deleteGeneration(next);
+            } catch (IOException | RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+        // L'image est en place : les modifications suivantes vont dans le nouveau journal
+        long previous = generation;
+        log.close();
+        log = nextLog;
+        generation = next;
+        recordsSinceSnapshot = 0;
+        // Les rangs de l'image sont ceux de l'agenda : seuls les états de référence changent
+        for (Tracked t : tracked.values()) {
+            t.state = agenda.events.get(t.rank).freeze();
+        }
+        // Le renommage (et le nouveau journal) doivent être sur le disque avant de supprimer l'ancienne génération
+        syncDirectory(directory);
+        deleteGeneration(previous);
+    }
+
+    /**
+     * Écrit les modifications en attente et ferme le journal.
+     * Les modifications ultérieures de l'agenda et de ses événements ne sont plus journalisées.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        log.close();
+    }
+
+    private synchronized WriteAheadLog currentLog() {
+        return log;
+    }
+
+    private void recover() throws IOException {
+        generation = latestGeneration();
+        if (Files.exists(snapshot(generation))) {
+            MappedAgenda image = AgendaFile.map(snapshot(generation));
+            // Rangs répétés de l'image (enregistrements SAME_AS en tête du journal)
+            int[] sameAs = new int[image.size()];
+            Arrays.fill(sameAs, -1);
+            WriteAheadLog.replay(journal(generation), record -> {
+                if (record.get() == SAME_AS) {
+                    sameAs[record.getInt()] = record.getInt();
+                }
+            });
+            List<Event> restored = new ArrayList<>(image.size());
+            for (int i = 0; i < image.size(); i++) {
+                restored.add(sameAs[i] < 0 ? image.event(i) : restored.get(sameAs[i]));
+            }
+            agenda.addAll(restored);
+        }
+        List<Event> replayed = agenda.events;
+        WriteAheadLog.replay(journal(generation), record -> replay(record, replayed));
+        for (int rank = 0; rank < agenda.events.size(); rank++) {
+            Event e = agenda.events.get(rank);
+            if (!tracked.containsKey(e)) {
+                tracked.put(e, new Tracked(rank, e.freeze()));
+                e.addListener(changeListener);
+            }
+        }
+        deleteOlderGenerations();
+        log = new WriteAheadLog(journal(generation), groupDelayNanos);
+        agenda.addListener(new AgendaListener() {
+            @Override
+            public void eventAdded(Event e) {
+                JournaledAgenda.this.eventAdded(e);
+            }
+
+            @Override
+            public void eventsAdded(List<Event> added) {
+                JournaledAgenda.this.eventsAdded(added);
+            }
+        });
+    }
+
+    // --- Journalisation ---
+
+    private synchronized void eventAdded(Event e) {
+        if (closed) {
+            return;
+        }
+        journalAdd(e, agenda.events.size() - 1);
+        snapshotIfDue();
+    }
+
+    /**
+     * Un lot ajouté par addAll : tous les ajouts sont journalisés avant un éventuel instantané,
+     * qui contient déjà tout le lot
+     */
+    private synchronized void eventsAdded(List<Event> added) {
+        if (closed) {
+            return;
+        }
+        int rank = agenda.events.size() - added.size();
+        for (Event e : added) {
+            journalAdd(e, rank++);
+        }
+        snapshotIfDue();
+    }
+
+    private void journalAdd(Event e, int rank) {
+        Tracked known = tracked.get(e);
+        if (known != null) {
+            append(new Record(ADD_AGAIN, known.rank));
+            return;
+        }
+        EventSnapshot state = e.freeze();
+        tracked.put(e, new Tracked(rank, state));
+        e.addListener(changeListener);
+        Record record = new Record(ADD, rank);
+        writeState(record, state);
+        append(record);
+    }
+
+    /**
+     * Journalise la différence entre le dernier état journalisé de l'événement et son nouvel état
+     */
+    private synchronized void eventChanged(Event e) {
+        if (closed) {
+            return;
+        }
+        Tracked t = tracked.get(e);
+        EventSnapshot before = t.state;
+        EventSnapshot after = e.freeze();
+        t.state = after;
+        RepetitionSnapshot previous = before.repetition();
+        RepetitionSnapshot current = after.repetition();
+        if (current == null || current == previous) {
+            return;
+        }
+        long[] kept = previous == null ? new long[0] : previous.exceptionDays();
+        Termination keptTermination = previous == null ? null : previous.termination();
+        if (previous == null || previous.frequency() != current.frequency()
+            || !containsAll(current.exceptionDays(), kept)
+            || (keptTermination != null && current.termination() == null)) {
+            // Nouvelle répétition : exceptions et terminaison repartent de zéro
+            append(new Record(SET_REPETITION, t.rank).writeByte(current.frequency().ordinal()));
+            kept = new long[0];
+            keptTermination = null;
+        }
+        for (long day : current.exceptionDays()) {
+            if (Arrays.binarySearch(kept, day) < 0) {
+                append(new Record(ADD_EXCEPTION, t.rank).writeLong(day));
+            }
+        }
+        if (!sameTermination(keptTermination, current.termination())) {
+            Record record = new Record(SET_TERMINATION, t.rank);
+            writeTermination(record, current.termination());
+            append(record);
+        }
+        snapshotIfDue();
+    }
+
+    private void append(Record record) {
+        log.append(record.bytes());
+        recordsSinceSnapshot++;
+    }
+
+    /**
+     * Écrit une nouvelle image quand le journal est assez long (après une modification complète).
+     * L'image est écrite par le thread qui modifie l'agenda, après que la modification a été appliquée et journalisée :
+     * un échec ne l'annule pas. L'UncheckedIOException levée signale seulement que l'image n'a pas été écrite ;
+     * l'agenda reste utilisable sur l'image et le journal actuels, et une nouvelle tentative a lieu
+     * après snapshotEvery autres modifications.
+     */
+    private void snapshotIfDue() {
+        if (recordsSinceSnapshot >= snapshotEvery) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                recordsSinceSnapshot = 0;
+                throw new UncheckedIOException("Modification journalisée, mais l'image n'a pas pu être écrite", e);
+            }
+        }
+    }
+
+    private static boolean containsAll(long[] sorted, long[] values) {
+        for (long value : values) {
+            if (Arrays.binarySearch(sorted, value) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameTermination(Termination a, Termination b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.numberOfOccurrences() == b.numberOfOccurrences()
+            && Objects.equals(a.terminationDateInclusive(), b.terminationDateInclusive());
+    }
+
+    private static void writeState(Record record, EventSnapshot state) {
+        record.writeTitle(state.title())
+            .writeLong(state.start().toEpochSecond(ZoneOffset.UTC)).writeInt(state.start().getNano())
+            .writeLong(state.duration().getSeconds()).writeInt(state.duration().getNano());
+        RepetitionSnapshot repetition = state.repetition();
+        if (repetition == null) {
+            record.writeByte(AgendaFile.NO_REPETITION);
+            return;
+        }
+        record.writeByte(repetition.frequency().ordinal() + 1);
+        long[] exceptions = repetition.exceptionDays();
+        record.writeInt(exceptions.length);
+        for (long day : exceptions) {
+            record.writeLong(day);
+        }
+        writeTermination(record, repetition.termination());
+    }
+
+    private static void writeTermination(Record record, Termination termination) {
+        if (termination != null && termination.terminationDateInclusive() != null) {
+            record.writeByte(AgendaFile.TERMINATION_DATE).writeLong(termination.terminationDateInclusive().toEpochDay());
+        } else if (termination != null && termination.numberOfOccurrences() > 0) {
+            record.writeByte(AgendaFile.TERMINATION_COUNT).writeLong(termination.numberOfOccurrences());
+        } else {
+            // Terminaison sans date ni nombre d'occurrences, ou pas de terminaison : pas de fin
+            record.writeByte(AgendaFile.NO_TERMINATION).writeLong(0);
+        }
+    }
+
+    // --- Relecture ---
+
+    private void replay(ByteBuffer record, List<Event> events) {
+        byte type = record.get();
+        int rank = record.getInt();
+        switch (type) {
+            case ADD -> agenda.addEvent(readEvent(record));
+            case ADD_AGAIN -> agenda.addEvent(events.get(rank));
+            case SET_REPETITION -> events.get(rank).setRepetition(ChronoUnit.values()[record.get()]);
+            case ADD_EXCEPTION -> events.get(rank).addException(LocalDate.ofEpochDay(record.getLong()));
+            case SET_TERMINATION -> readTermination(record, events.get(rank));
+            case SAME_AS -> { } // Déjà pris en compte avec l'image
+            default -> throw new UncheckedIOException(new IOException("Enregistrement de journal inconnu : " + type));
+        }
+    }
+
+    private static Event readEvent(ByteBuffer record) {
+        int titleLength = record.getInt();
+        String title = null;
+        if (titleLength >= 0) {
+            byte[] bytes = new byte[titleLength];
+            record.get(bytes);
+            title = new String(bytes, StandardCharsets.UTF_8);
+        }
+        LocalDateTime start = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+        Duration duration = Duration.ofSeconds(record.getLong(), record.getInt());
+        Event e = new Event(title, start, duration);
+        byte frequency = record.get();
+        if (frequency == AgendaFile.NO_REPETITION) {
+            return e;
+        }
+        e.setRepetition(AgendaFile.frequency(frequency));
+        long[] days = new long[record.getInt()];
+        for (int k = 0; k < days.length; k++) {
+            days[k] = record.getLong();
+        }
+        e.addExceptions(days);
+        readTermination(record, e);
+        return e;
+    }
+
+    private static void readTermination(ByteBuffer record, Event e) {
+        byte kind = record.get();
+        long value = record.getLong();
+        switch (kind) {
+            case AgendaFile.TERMINATION_DATE -> e.setTermination(LocalDate.ofEpochDay(value));
+            case AgendaFile.TERMINATION_COUNT -> e.setTermination(value);
+            default -> e.setTermination((LocalDate) null);
+        }
+    }
+
+    // --- Fichiers ---
+
+    private Path snapshot(long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private Path journal(long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+
+    private long latestGeneration() throws IOException {
+        long latest = 0;
+        for (long g : generations("snapshot-*.bin")) {
+            latest = Math.max(latest, g);
+        }
+        return latest;
+    }
+
+    private void deleteOlderGenerations() throws IOException {
+        for (String pattern : List.of("snapshot-*.bin", "journal-*.log", "snapshot-*.tmp")) {
+            for (long g : generations(pattern)) {
+                if (g != generation) {
+                    deleteGeneration(g);
+                }
+            }
+        }
+    }
+
+    private void deleteGeneration(long g) throws IOException {
+        Files.deleteIfExists(snapshot(g));
+        Files.deleteIfExists(journal(g));
+        Files.deleteIfExists(directory.resolve("snapshot-" + g + ".tmp"));
+    }
+
+    /**
+     * Écrit sur le disque les entrées du répertoire (créations, renommages, suppressions de fichiers)
+     * @param directory le répertoire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private List<Long> generations(String pattern) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    result.add(Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.'))));
+                } catch (NumberFormatException ignored) {
+                    // Fichier étranger au journal
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Contenu d'un enregistrement du journal : type, rang de l'événement, puis les données du type
+     */
+    private static final class Record {
+        private ByteBuffer buffer = ByteBuffer.allocate(32);
+
+        Record(byte type, int rank) {
+            writeByte(type).writeInt(rank);
+        }
+
+        private ByteBuffer room(int needed) {
+            if (buffer.remaining() < needed) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+                buffer = larger.put(buffer.flip());
+            }
+            return buffer;
+        }
+
+        Record writeByte(int value) {
+            room(1).put((byte) value);
+            return this;
+        }
+
+        Record writeInt(int value) {
+            room(4).putInt(value);
+            return this;
+        }
+
+        Record writeLong(long value) {
+            room(8).putLong(value);
+            return this;
+        }
+
+        Record writeTitle(String title) {
+            if (title == null) {
+                return writeInt(-1);
+            }
+            byte[] encoded = title.getBytes(StandardCharsets.UTF_8);
+            writeInt(encoded.length);
+            room(encoded.length).put(encoded);
+            return this;
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+}
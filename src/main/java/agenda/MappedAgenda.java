@@ -0,0 +1,154 @@
+package agenda;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vue en lecture seule d'un agenda enregistré par AgendaFile, en mémoire projetée.
+ * Les requêtes lisent directement les colonnes du fichier (jours extrêmes, dictionnaire des titres)
+ * et ne construisent que les événements candidats ; un événement construit est gardé pour les requêtes suivantes.
+ * Les résultats sont les mêmes, dans le même ordre, que ceux de l'agenda enregistré.
+ * Comme Agenda, cette classe n'est pas prévue pour être utilisée par plusieurs threads.
+ */
+public final class MappedAgenda {
+
+    private final AgendaFile.Layout file;
+    // Événements déjà construits (null : pas encore lu)
+    private final Event[] events;
+    // Dernier jour où isInDay peut être vrai, tous événements confondus (calculé à la demande)
+    private long lastDay = Long.MIN_VALUE;
+    private boolean lastDayKnown;
+
+    MappedAgenda(AgendaFile.Layout file) {
+        this.file = file;
+        this.events = new Event[file.count];
+    }
+
+    /**
+     * @return le nombre d'événements enregistrés
+     */
+    public int size() {
+        return file.count;
+    }
+
+    /**
+     * @param index le rang d'ajout de l'événement (de 0 à size() - 1)
+     * @return l'événement enregistré à ce rang
+     */
+    public Event event(int index) {
+        Event e = events[index];
+        if (e == null) {
+            e = file.event(index);
+            events[index] = e;
+        }
+        return e;
+    }
+
+    /**
+     * Calcule les événements qui ont lieu un jour donné (mêmes résultats que Agenda.eventsInDay)
+     * @param day le jour à tester
+     * @return les événements de ce jour, dans l'ordre d'ajout
+     */
+    public List<Event> eventsInDay(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        int[] candidates = new int[16];
+        int found = 0;
+        // Événements simples courts : triés par premier jour, qui est dans ]day - shortSpanDays, day]
+        int k = firstShortSingleFrom(epochDay - file.shortSpanDays + 1);
+        for (; k < file.shortSingleCount; k++) {
+            int i = file.getInt(file.shortSingles, k);
+            if (file.getLong(file.firstDays, i) > epochDay) {
+                break;
+            }
+            if (file.getLong(file.lastDays, i) >= epochDay) {
+                candidates = add(candidates, found++, i);
+            }
+        }
+        // Les autres : bornes lues dans les colonnes, sans construire l'événement
+        for (k = 0; k < file.otherCount; k++) {
+            int i = file.getInt(file.others, k);
+            if (file.getLong(file.firstDays, i) <= epochDay && file.getLong(file.lastDays, i) >= epochDay) {
+                candidates = add(candidates, found++, i);
+            }
+        }
+        Arrays.sort(candidates, 0, found);
+        List<Event> result = new ArrayList<>();
+        for (k = 0; k < found; k++) {
+            Event e = event(candidates[k]);
+            if (e.isInDay(day)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Trouver les événements en fonction de leur titre (recherche dichotomique dans le dictionnaire des titres)
+     * @param title le titre à rechercher
+     * @return les événements qui ont ce titre, dans l'ordre d'ajout
+     */
+    public List<Event> findByTitle(String title) {
+        List<Event> result = new ArrayList<>();
+        int id = title == null ? -1 : file.titleId(title);
+        if (id < 0) {
+            return result;
+        }
+        for (int k = file.getInt(file.postingStarts, id); k < file.getInt(file.postingStarts, id + 1); k++) {
+            result.add(event(file.getInt(file.postings, k)));
+        }
+        return result;
+    }
+
+    /**
+     * @return le dernier jour (epoch-day) où l'un des événements peut avoir lieu (Long.MIN_VALUE s'il n'y en a pas)
+     */
+    long lastDay() {
+        if (!lastDayKnown) {
+            for (int i = 0; i < file.count; i++) {
+                lastDay = Math.max(lastDay, file.getLong(file.lastDays, i));
+            }
+            lastDayKnown = true;
+        }
+        return lastDay;
+    }
+
+    /**
+     * @return un Agenda modifiable contenant tous les événements enregistrés
+     */
+    public Agenda toAgenda() {
+        List<Event> all = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            all.add(event(i));
+        }
+        Agenda agenda = new Agenda();
+        agenda.addAll(all);
+        return agenda;
+    }
+
+    /**
+     * Recherche dichotomique du premier événement simple court dont le premier jour est au moins day
+     */
+    private int firstShortSingleFrom(long day) {
+        int low = 0;
+        int high = file.shortSingleCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (file.getLong(file.firstDays, file.getInt(file.shortSingles, mid)) < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] add(int[] values, int size, int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        return values;
+    }
+}
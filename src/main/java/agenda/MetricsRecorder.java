@@ -0,0 +1,94 @@
+package agenda;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures des requêtes gardées en mémoire, par requête : nombre d'appels, événements examinés et trouvés,
+ * histogramme des durées en puissances de 2 (le seau i compte les durées de [2^(i-1), 2^i[ nanosecondes,
+ * le seau 0 les durées nulles). Les compteurs supportent les appels concurrents sans verrou.
+ */
+public final class MetricsRecorder implements AgendaMetrics {
+
+    static final int LATENCY_BUCKETS = 64;
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder scanned = new LongAdder();
+        final LongAdder returned = new LongAdder();
+        final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+    }
+
+    private volatile Counters[] counters = newCounters();
+    private volatile long since = System.nanoTime();
+
+    /**
+     * Statistiques d'une requête depuis la création du MetricsRecorder (ou le dernier reset)
+     *
+     * @param query la requête
+     * @param calls le nombre d'appels
+     * @param scanned le nombre total d'événements examinés
+     * @param returned le nombre total d'événements trouvés
+     * @param callsPerSecond le nombre moyen d'appels par seconde
+     * @param latencyHistogram le nombre d'appels par seau de durée
+     */
+    public record QueryStats(Query query, long calls, long scanned, long returned, double callsPerSecond,
+                             long[] latencyHistogram) {
+
+        /**
+         * @param fraction entre 0 et 1 (0.99 : 99e centile)
+         * @return une borne supérieure (en nanosecondes) de la durée d'au moins fraction des appels, 0 sans appel
+         */
+        public long latencyPercentile(double fraction) {
+            long threshold = (long) Math.ceil(fraction * calls);
+            long seen = 0;
+            for (int i = 0; i < latencyHistogram.length; i++) {
+                seen += latencyHistogram[i];
+                if (seen >= threshold && seen > 0) {
+                    return i == 0 ? 0 : (1L << i) - 1; // Seau 63 : Long.MAX_VALUE
+                }
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public void record(Query query, long nanos, int scanned, int returned) {
+        Counters c = counters[query.ordinal()];
+        c.calls.increment();
+        c.scanned.add(scanned);
+        c.returned.add(returned);
+        c.latencies.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+    }
+
+    /**
+     * @param query la requête
+     * @return ses statistiques actuelles
+     */
+    public QueryStats stats(Query query) {
+        Counters c = counters[query.ordinal()];
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            histogram[i] = c.latencies.get(i);
+        }
+        long calls = c.calls.sum();
+        double seconds = Math.max(1, System.nanoTime() - since) / 1e9;
+        return new QueryStats(query, calls, c.scanned.sum(), c.returned.sum(), calls / seconds, histogram);
+    }
+
+    /**
+     * Remet tous les compteurs à zéro
+     */
+    public void reset() {
+        counters = newCounters();
+        since = System.nanoTime();
+    }
+
+    private static Counters[] newCounters() {
+        Counters[] counters = new Counters[Query.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counters();
+        }
+        return counters;
+    }
+}
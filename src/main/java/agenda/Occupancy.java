@@ -0,0 +1,118 @@
+package agenda;
+
+import java.time.LocalDateTime;
+import java.util.function.Predicate;
+
+/**
+ * Règles de isFreeFor, communes à Agenda et ConcurrentAgenda : chaque agenda donne accès à ses index
+ * (événements simples par jours touchés, événements répétitifs), isFreeFor en déduit la réponse.
+ */
+interface Occupancy {
+
+    /**
+     * @return le nombre d'événements simples indexés
+     */
+    int singleCount();
+
+    /**
+     * @return une borne inférieure des jours (epoch-day) touchés par les événements simples
+     */
+    long minSingleDay();
+
+    /**
+     * @return une borne supérieure des jours (epoch-day) touchés par les événements simples
+     */
+    long maxSingleDay();
+
+    /**
+     * Détermine si l'un des événements simples qui touchent les jours [low, high] vérifie test.
+     * La recherche s'arrête au premier trouvé.
+     */
+    boolean anySingle(long low, long high, Predicate<EventSnapshot> test);
+
+    /**
+     * Détermine si l'un des événements répétitifs vérifie test. La recherche s'arrête au premier trouvé.
+     */
+    boolean anyRepetitive(Predicate<EventSnapshot> test);
+
+    /**
+     * Déterminer s’il y a de la place pour un événement (voir Agenda.isFreeFor)
+     * @param index les index de l'agenda
+     * @param e l'état de l'événement à tester
+     * @param scanned compteur des événements comparés à e (null : pas de comptage)
+     */
+    static boolean isFreeFor(Occupancy index, EventSnapshot e, int[] scanned) {
+        if (!e.isRepetitive()) {
+            LocalDateTime testStart = e.start();
+            LocalDateTime testEnd = e.end();
+            // Occurrences des événements répétitifs autour de l'intervalle, par calcul direct
+            return isFreeOfSingleEvents(index, testStart, testEnd, scanned)
+                && !index.anyRepetitive(counted(scanned, r -> r.conflictsWith(testStart, testEnd)));
+        }
+        // Événement testé répétitif : seuls les événements simples compris entre sa première et sa dernière
+        // occurrence peuvent être en conflit
+        return isFreeOfSingleEvents(index, e, scanned)
+            && !index.anyRepetitive(counted(scanned, e::conflictsWith));
+    }
+
+    /**
+     * Vérifie qu'aucun événement simple ne chevauche [testStart, testEnd[ : seuls les événements des jours
+     * concernés sont comparés.
+     */
+    private static boolean isFreeOfSingleEvents(Occupancy index, LocalDateTime testStart, LocalDateTime testEnd,
+                                                int[] scanned) {
+        long startDay = testStart.toLocalDate().toEpochDay();
+        long endDay = testEnd.toLocalDate().toEpochDay();
+        return !index.anySingle(Math.min(startDay, endDay), Math.max(startDay, endDay), counted(scanned, existing ->
+            // Condition de chevauchement : (Début1 < Fin2) ET (Fin1 > Début2)
+            testStart.isBefore(existing.end()) && testEnd.isAfter(existing.start())));
+    }
+
+    /**
+     * Vérifie qu'aucune occurrence de l'événement répétitif s ne chevauche un événement simple.
+     * Les événements simples de l'étendue des occurrences sont comparés chacun à la répétition (calcul direct
+     * de l'occurrence voisine) ; si la répétition a moins d'occurrences dans cette étendue qu'il n'y a
+     * d'événements simples, on cherche plutôt dans l'index autour de chaque occurrence.
+     */
+    private static boolean isFreeOfSingleEvents(Occupancy index, EventSnapshot s, int[] scanned) {
+        long first = s.nextOccurrenceDay(Long.MIN_VALUE);
+        if (index.singleCount() == 0 || first == Repetition.NONE) {
+            return true;
+        }
+        long spill = s.spillDays();
+        long lastStart = s.lastStartDay();
+        long low = Math.max(first + Math.min(0, spill), index.minSingleDay());
+        long high = Math.min(lastStart == Long.MAX_VALUE ? Long.MAX_VALUE : lastStart + Math.max(0, spill),
+            index.maxSingleDay());
+        if (low > high) {
+            return true;
+        }
+        long period = switch (s.repetition().frequency()) {
+            case WEEKS -> 7;
+            case MONTHS -> 28;
+            default -> 1;
+        };
+        if ((high - low) / period < index.singleCount()) {
+            long lastDay = high - Math.min(0, spill);
+            for (long d = s.nextOccurrenceDay(low - Math.max(0, spill)); d != Repetition.NONE && d <= lastDay;
+                 d = s.nextOccurrenceDay(d + 1)) {
+                LocalDateTime testStart = s.occurrenceStart(d);
+                if (!isFreeOfSingleEvents(index, testStart, testStart.plus(s.duration()), scanned)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return !index.anySingle(low, high, counted(scanned, existing -> s.conflictsWith(existing.start(), existing.end())));
+    }
+
+    private static Predicate<EventSnapshot> counted(int[] scanned, Predicate<EventSnapshot> test) {
+        if (scanned == null) {
+            return test;
+        }
+        return existing -> {
+            scanned[0]++;
+            return test.test(existing);
+        };
+    }
+}
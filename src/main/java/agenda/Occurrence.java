@@ -0,0 +1,25 @@
+package agenda;
+
+import java.time.LocalDateTime;
+
+/**
+ * Une occurrence concrète d'un événement : l'événement, et l'instant de début et de fin de cette occurrence.
+ *
+ * @param event l'événement (éventuellement répétitif) dont c'est une occurrence
+ * @param start le début de l'occurrence
+ * @param end la fin de l'occurrence (début + durée de l'événement)
+ */
+public record Occurrence(Event event, LocalDateTime start, LocalDateTime end) {
+
+    /**
+     * Détermine si cette occurrence a lieu (au moins en partie) dans la fenêtre [from, to[
+     * Une occurrence de durée nulle est dans la fenêtre si son début y est.
+     *
+     * @param from début inclusif de la fenêtre
+     * @param to fin exclusive de la fenêtre
+     * @return vrai si l'occurrence chevauche la fenêtre
+     */
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && (end.isAfter(from) || !start.isBefore(from));
+    }
+}
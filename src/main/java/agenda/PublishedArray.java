@@ -0,0 +1,124 @@
+package agenda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Tableau à croissance amortie, écrit par un seul thread à la fois (les ajouts sont sérialisés par l'appelant)
+ * et lu sans verrou. Un ajout écrit l'élément dans une case libre, puis le publie en augmentant la longueur
+ * (volatile) : un lecteur qui lit la longueur puis le tableau voit tous les éléments jusqu'à cette longueur.
+ * La capacité double quand le tableau est plein : n ajouts coûtent O(n) copies en tout.
+ * Une case publiée n'est jamais modifiée : un retrait produit un nouveau tableau (without).
+ *
+ * @param <T> le type des éléments
+ */
+final class PublishedArray<T> {
+
+    private volatile Object[] items;
+    private volatile int length;
+
+    PublishedArray() {
+        this.items = new Object[2];
+    }
+
+    private PublishedArray(Object[] items, int length) {
+        this.items = items;
+        this.length = length;
+    }
+
+    /**
+     * Ajoute un élément à la fin (un seul écrivain à la fois)
+     */
+    void add(T item) {
+        int n = length;
+        Object[] current = items;
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n * 2);
+            items = current;
+        }
+        current[n] = item;
+        length = n + 1;
+    }
+
+    /**
+     * Ajoute plusieurs éléments, publiés ensemble
+     */
+    void addAll(List<? extends T> toAdd) {
+        int n = length;
+        Object[] current = items;
+        if (n + toAdd.size() > current.length) {
+            current = Arrays.copyOf(current, Math.max(n * 2, n + toAdd.size()));
+            items = current;
+        }
+        for (T item : toAdd) {
+            current[n++] = item;
+        }
+        length = n;
+    }
+
+    int size() {
+        return length;
+    }
+
+    boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * @return une copie des éléments publiés, dans l'ordre d'ajout
+     */
+    List<T> toList() {
+        return toList(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return une copie des limit premiers éléments publiés (ou de tous s'il y en a moins)
+     */
+    List<T> toList(int limit) {
+        // La longueur d'abord : le tableau lu ensuite contient au moins ces éléments
+        int n = Math.min(length, limit);
+        Object[] current = items;
+        List<T> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(element(current, i));
+        }
+        return result;
+    }
+
+    /**
+     * Détermine si l'un des éléments publiés vérifie le prédicat ; la recherche s'arrête au premier trouvé
+     */
+    boolean anyMatch(Predicate<? super T> predicate) {
+        int n = length;
+        Object[] current = items;
+        for (int i = 0; i < n; i++) {
+            if (predicate.test(element(current, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return un nouveau tableau sans les éléments qui vérifient removed (celui-ci n'est pas modifié)
+     */
+    PublishedArray<T> without(Predicate<? super T> removed) {
+        int n = length;
+        Object[] current = items;
+        Object[] kept = new Object[Math.max(2, n)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (!removed.test(element(current, i))) {
+                kept[count++] = current[i];
+            }
+        }
+        return new PublishedArray<>(kept, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T element(Object[] items, int i) {
+        return (T) items[i];
+    }
+}
@@ -2,11 +2,15 @@ package agenda;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Repetition {
-    
+
+    /**
+     * Valeur renvoyée par les calculs en epoch-day quand il n'y a pas (plus) d'occurrence
+     */
+    static final long NONE = Long.MIN_VALUE;
+
     /**
      * Attribut myFrequency : La fréquence de cette répétition (DAYS, WEEKS, MONTHS).
      * Rôle UML : #frequency: ChronoUnit
@@ -16,8 +20,10 @@ public class Repetition {
     /**
      * Attribut exceptions : Dates auxquelles l'événement ne doit pas se répéter.
      * Rôle UML : #exceptions: LocalDate[*]
+     * Stockées en epoch-days, triées et sans doublon (recherche dichotomique).
+     * Le tableau n'est jamais modifié en place : addException le remplace, on peut donc le partager.
      */
-    private final List<LocalDate> exceptions = new ArrayList<>();
+    private long[] exceptions = new long[0];
 
     /**
      * Attribut termination : La terminaison optionnelle de la répétition.
@@ -28,6 +34,10 @@ public class Repetition {
     // Ajouté : Réf. à la date de début de l'Event pour le calcul de répétition
     private final LocalDate eventStartDate;
 
+    // Ajouté : état figé correspondant, avec les valeurs précalculées (epoch-day) pour répondre
+    // sans recalculer de LocalDate. Recalculé à chaque addException(s) / setTermination.
+    private RepetitionSnapshot snapshot;
+
     /**
      * «constructor»+Repetition(f: ChronoUnit, startDate: LocalDate)
      * NOTE: Nous ajoutons startDate dans le constructeur pour le calcul correct
@@ -35,8 +45,13 @@ public class Repetition {
      * C'est la dépendance la plus propre.
      */
     public Repetition(ChronoUnit myFrequency, LocalDate eventStartDate) {
+        // Les unités horaires (HOURS...) ne peuvent pas s'appliquer à des dates
+        if (!myFrequency.isDateBased()) {
+            throw new IllegalArgumentException("La fréquence doit être une unité de date : " + myFrequency);
+        }
         this.myFrequency = myFrequency;
         this.eventStartDate = eventStartDate;
+        this.snapshot = new RepetitionSnapshot(myFrequency, eventStartDate, exceptions, null);
     }
 
     public ChronoUnit getFrequency() {
@@ -44,17 +59,81 @@ public class Repetition {
     }
 
     public void addException(LocalDate date) {
-        exceptions.add(date);
+        long day = date.toEpochDay();
+        int index = Arrays.binarySearch(exceptions, day);
+        if (index >= 0) {
+            return; // Déjà une exception
+        }
+        int insertion = -index - 1;
+        long[] updated = new long[exceptions.length + 1];
+        System.arraycopy(exceptions, 0, updated, 0, insertion);
+        updated[insertion] = day;
+        System.arraycopy(exceptions, insertion, updated, insertion + 1, exceptions.length - insertion);
+        exceptions = updated;
+        snapshot = new RepetitionSnapshot(myFrequency, eventStartDate, exceptions, termination);
+    }
+
+    /**
+     * Ajoute plusieurs exceptions d'un coup (relecture d'un fichier, d'un journal, d'un export) :
+     * une seule fusion et un seul recalcul de l'état figé, là où des addException successifs coûteraient O(n²).
+     * @param days les exceptions en epoch-days, triées (les doublons sont ignorés)
+     */
+    void addExceptions(long[] days) {
+        if (days.length == 0) {
+            return;
+        }
+        long[] merged = new long[exceptions.length + days.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < exceptions.length || j < days.length) {
+            long day;
+            if (j == days.length || (i < exceptions.length && exceptions[i] <= days[j])) {
+                day = exceptions[i++];
+            } else {
+                day = days[j++];
+            }
+            if (n > 0 && day < merged[n - 1]) {
+                throw new IllegalArgumentException("Les exceptions doivent être triées");
+            }
+            if (n == 0 || merged[n - 1] != day) {
+                merged[n++] = day;
+            }
+        }
+        exceptions = n == merged.length ? merged : Arrays.copyOf(merged, n);
+        snapshot = new RepetitionSnapshot(myFrequency, eventStartDate, exceptions, termination);
     }
 
     public void setTermination(Termination termination) {
         this.termination = termination;
+        snapshot = new RepetitionSnapshot(myFrequency, eventStartDate, exceptions, termination);
     }
 
     public Termination getTermination() {
         return termination;
     }
 
+    /**
+     * @return l'état actuel de cette répétition, immuable (aucune copie : il est recalculé à chaque modification)
+     */
+    public RepetitionSnapshot freeze() {
+        return snapshot;
+    }
+
+    /**
+     * @return les exceptions en epoch-days, triées (tableau partagé, à ne pas modifier)
+     */
+    long[] exceptionDays() {
+        return exceptions;
+    }
+
+    /**
+     * @return l'epoch-day de la dernière occurrence selon la terminaison, ou NONE
+     */
+    long terminationDay() {
+        return snapshot.terminationDay();
+    }
+
     /**
      * Vérifie si l'événement se produit à une date donnée, en tenant compte :
      * 1. De la fréquence (répétition réelle)
@@ -62,52 +141,32 @@ public class Repetition {
      * 3. De la terminaison
      */
     public boolean isRecurringOn(LocalDate aDay) {
-        // 1. Vérifie si la date est une exception
-        if (exceptions.contains(aDay)) {
-            return false;
-        }
-        
-        // 2. Vérifie si la date est avant la date de début
-        if (aDay.isBefore(eventStartDate)) {
-            return false;
-        }
-        
-        // 3. Vérifie la terminaison
-        Termination term = termination;
-        if (term != null) {
-            // Calcule la dernière occurrence possible selon la terminaison
-            LocalDate lastOccurrence = term.calculateTerminationDate(eventStartDate, myFrequency);
-            // Si la date testée est exactement la dernière occurrence, c'est valide
-            if (lastOccurrence != null && aDay.equals(lastOccurrence)) {
-                return true;
-            }
-            // Si la date testée est après la terminaison, ce n'est pas valide
-            if (term.isAfterTermination(aDay, myFrequency, eventStartDate)) {
-                return false;
-            }
-        }
+        return snapshot.occursOn(aDay.toEpochDay());
+    }
 
-        // 4. Vérifie si la date correspond à la fréquence de répétition.
-        // Calcule l'écart entre la date de début et la date testée selon la fréquence.
-        long diff = myFrequency.between(eventStartDate, aDay);
-        
-        // Si la différence est un multiple de la fréquence, l'événement a lieu.
-        // Pour DAYS (quotidien) ou WEEKS (hebdomadaire), le modulo doit être 0.
-        // Pour MONTHS/YEARS (mensuel/annuel), la logique est plus complexe (même jour/mois).
-        // Étant donné que le contexte se limite à DAYS/WEEKS/MONTHS, nous allons nous 
-        // concentrer sur DAYS/WEEKS pour l'instant. Pour le mensuel, cela nécessiterait
-        // une logique plus complexe (ex: vérifier le jour du mois).
-        
-        if (myFrequency == ChronoUnit.DAYS) {
-            return true; // Si c'est quotidien, et qu'on a passé les checks de début/fin/exception.
-        } else if (myFrequency == ChronoUnit.WEEKS) {
-            // Si c'est hebdomadaire, on vérifie si le jour de la semaine est le même
-            return aDay.getDayOfWeek() == eventStartDate.getDayOfWeek();
-        } else if (myFrequency == ChronoUnit.MONTHS) {
-            // Si c'est mensuel, on vérifie si le jour du mois est le même
-            return aDay.getDayOfMonth() == eventStartDate.getDayOfMonth();
-        }
-        
-        return diff >= 0 && (diff % 1 == 0); // Logique simplifiée pour d'autres ChronoUnits
+    /**
+     * Même calcul que isRecurringOn, en arithmétique pure sur les epoch-days (sans allocation)
+     */
+    boolean occursOn(long day) {
+        return snapshot.occursOn(day);
+    }
+
+    /**
+     * Calcule la première date, à partir de from (inclus), où l'événement se répète (au sens de isRecurringOn).
+     * On saute directement à la prochaine date compatible avec la fréquence au lieu d'avancer jour par jour.
+     *
+     * @param from la date à partir de laquelle chercher
+     * @return la prochaine date de répétition, ou null s'il n'y en a plus
+     */
+    public LocalDate nextOccurrence(LocalDate from) {
+        return snapshot.nextOccurrence(from);
+    }
+
+    /**
+     * Même calcul que nextOccurrence(LocalDate), en epoch-days
+     * @return le jour de la prochaine répétition, ou NONE
+     */
+    long nextOccurrence(long from) {
+        return snapshot.nextOccurrence(from);
     }
-}
\ No newline at end of file
+}
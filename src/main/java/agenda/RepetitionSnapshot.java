@@ -0,0 +1,270 @@
+package agenda;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * État figé (immuable) d'une Repetition : fréquence, exceptions et terminaison, avec les valeurs
+ * précalculées en epoch-days qui permettent de répondre aux questions d'occurrence sans allocation.
+ * Peut être partagé entre threads et conservé dans des index ou des caches sans copie.
+ */
+public final class RepetitionSnapshot {
+
+    private final ChronoUnit frequency;
+    private final LocalDate startDate;
+    // Exceptions en epoch-days, triées et sans doublon (tableau jamais modifié)
+    private final long[] exceptions;
+    private final Termination termination;
+
+    private final long firstDay;       // jour de la première occurrence
+    private final int dayOfMonth;      // jour du mois des occurrences mensuelles
+    private final long lastDay;        // dernier jour possible d'une occurrence « alignée » sur la fréquence
+    private final long terminationDay; // dernière occurrence selon la terminaison (toujours valide), ou NONE
+
+    RepetitionSnapshot(ChronoUnit frequency, LocalDate startDate, long[] exceptions, Termination termination) {
+        this.frequency = frequency;
+        this.startDate = startDate;
+        this.exceptions = exceptions;
+        this.termination = termination;
+        this.firstDay = startDate.toEpochDay();
+        this.dayOfMonth = startDate.getDayOfMonth();
+        LocalDate last = termination == null ? null : termination.calculateTerminationDate(startDate, frequency);
+        if (last == null) {
+            // Pas de terminaison, ou terminaison sans date ni nombre d'occurrences : pas de fin
+            terminationDay = Repetition.NONE;
+            lastDay = Long.MAX_VALUE;
+        } else {
+            terminationDay = last.toEpochDay();
+            lastDay = termination.terminationDateInclusive() != null || isStepFrequency()
+                ? terminationDay
+                : lastDayBeforeTermination(termination.numberOfOccurrences());
+        }
+    }
+
+    public ChronoUnit frequency() {
+        return frequency;
+    }
+
+    public LocalDate startDate() {
+        return startDate;
+    }
+
+    /**
+     * @return les exceptions, triées
+     */
+    public List<LocalDate> exceptions() {
+        List<LocalDate> dates = new ArrayList<>(exceptions.length);
+        for (long day : exceptions) {
+            dates.add(LocalDate.ofEpochDay(day));
+        }
+        return Collections.unmodifiableList(dates);
+    }
+
+    /**
+     * @return la terminaison (immuable), ou null si la répétition ne se termine pas
+     */
+    public Termination termination() {
+        return termination;
+    }
+
+    /**
+     * @return la date de la dernière occurrence selon la terminaison, ou null si la répétition ne se termine pas
+     */
+    public LocalDate lastOccurrence() {
+        return terminationDay == Repetition.NONE ? null : LocalDate.ofEpochDay(terminationDay);
+    }
+
+    /**
+     * @return les exceptions en epoch-days, triées (tableau partagé, à ne pas modifier)
+     */
+    long[] exceptionDays() {
+        return exceptions;
+    }
+
+    /**
+     * @return l'epoch-day de la dernière occurrence selon la terminaison, ou NONE
+     */
+    long terminationDay() {
+        return terminationDay;
+    }
+
+    /**
+     * @return le dernier jour où isRecurringOn peut être vrai hors terminaison, ou Long.MAX_VALUE si pas de fin
+     */
+    long lastDay() {
+        return lastDay;
+    }
+
+    /**
+     * Vérifie si l'événement se produit à une date donnée (voir Repetition.isRecurringOn)
+     */
+    public boolean isRecurringOn(LocalDate aDay) {
+        return occursOn(aDay.toEpochDay());
+    }
+
+    /**
+     * Même calcul que isRecurringOn, en arithmétique pure sur les epoch-days (sans allocation)
+     */
+    boolean occursOn(long day) {
+        // 1. Vérifie si la date est une exception
+        if (isException(day)) {
+            return false;
+        }
+        // 2. Vérifie si la date est avant la date de début
+        if (day < firstDay) {
+            return false;
+        }
+        // 3. Vérifie la terminaison : la dernière occurrence est toujours valide, rien au-delà
+        if (day == terminationDay) {
+            return true;
+        }
+        if (day > lastDay) {
+            return false;
+        }
+        // 4. Vérifie si la date correspond à la fréquence de répétition.
+        if (frequency == ChronoUnit.WEEKS) {
+            // Hebdomadaire : même jour de la semaine
+            return (day - firstDay) % 7 == 0;
+        } else if (frequency == ChronoUnit.MONTHS) {
+            // Mensuel : même jour du mois
+            return EpochDays.dayOfMonth(day) == dayOfMonth;
+        }
+        // DAYS, et logique simplifiée pour les autres ChronoUnits : tous les jours jusqu'à la terminaison
+        return true;
+    }
+
+    /**
+     * Calcule la première date, à partir de from (inclus), où l'événement se répète (voir Repetition.nextOccurrence)
+     * @return la prochaine date de répétition, ou null s'il n'y en a plus
+     */
+    public LocalDate nextOccurrence(LocalDate from) {
+        long next = nextOccurrence(from.toEpochDay());
+        return next == Repetition.NONE ? null : LocalDate.ofEpochDay(next);
+    }
+
+    /**
+     * Même calcul que nextOccurrence(LocalDate), en epoch-days
+     * @return le jour de la prochaine répétition, ou NONE
+     */
+    long nextOccurrence(long from) {
+        long day = Math.max(from, firstDay);
+        while (true) {
+            long candidate = nextAlignedDay(day);
+            // La dernière occurrence est valide même si elle ne tombe pas sur la fréquence
+            if (terminationDay >= day && terminationDay < candidate) {
+                candidate = terminationDay;
+            }
+            if (candidate > lastDay && candidate != terminationDay) {
+                return Repetition.NONE;
+            }
+            int index = exceptions.length == 0 ? -1 : Arrays.binarySearch(exceptions, candidate);
+            if (index < 0) {
+                return candidate;
+            }
+            // Exception : on saute d'un coup la suite d'exceptions consécutives qui commence ici
+            while (index + 1 < exceptions.length && exceptions[index + 1] == exceptions[index] + 1) {
+                index++;
+            }
+            day = exceptions[index] + 1;
+        }
+    }
+
+    /**
+     * Calcul symétrique de nextOccurrence : le dernier jour, jusqu'à from (inclus), où l'événement se répète
+     * @return le jour de la répétition précédente, ou NONE
+     */
+    long previousOccurrence(long from) {
+        long day = from;
+        while (true) {
+            long aligned = Math.min(day, lastDay);
+            long candidate = aligned < firstDay ? Repetition.NONE : previousAlignedDay(aligned);
+            // La dernière occurrence est valide même si elle ne tombe pas sur la fréquence
+            if (terminationDay != Repetition.NONE && terminationDay >= firstDay && terminationDay <= day
+                && terminationDay > candidate) {
+                candidate = terminationDay;
+            }
+            if (candidate == Repetition.NONE) {
+                return Repetition.NONE;
+            }
+            int index = exceptions.length == 0 ? -1 : Arrays.binarySearch(exceptions, candidate);
+            if (index < 0) {
+                return candidate;
+            }
+            // Exception : on saute d'un coup la suite d'exceptions consécutives qui finit ici
+            while (index > 0 && exceptions[index - 1] == exceptions[index] - 1) {
+                index--;
+            }
+            day = exceptions[index] - 1;
+        }
+    }
+
+    /**
+     * @return vrai si day tombe sur le pas de la répétition (à partir du premier jour), exceptions non comprises
+     */
+    boolean isAligned(long day) {
+        return day >= firstDay && nextAlignedDay(day) == day;
+    }
+
+    /**
+     * La première date à partir de day (inclus, day n'étant pas avant le début) qui correspond à la fréquence
+     */
+    private long nextAlignedDay(long day) {
+        if (frequency == ChronoUnit.WEEKS) {
+            return firstDay + Math.ceilDiv(day - firstDay, 7) * 7;
+        } else if (frequency == ChronoUnit.MONTHS) {
+            // Le même jour du mois : on saute les mois trop courts (ex : le 31)
+            return EpochDays.nextDayOfMonth(day, dayOfMonth);
+        }
+        return day;
+    }
+
+    /**
+     * La dernière date jusqu'à day (inclus, day n'étant pas avant le début) qui correspond à la fréquence
+     */
+    private long previousAlignedDay(long day) {
+        if (frequency == ChronoUnit.WEEKS) {
+            return firstDay + Math.floorDiv(day - firstDay, 7) * 7;
+        } else if (frequency == ChronoUnit.MONTHS) {
+            return EpochDays.previousDayOfMonth(day, dayOfMonth);
+        }
+        return day;
+    }
+
+    private boolean isException(long day) {
+        return exceptions.length != 0 && Arrays.binarySearch(exceptions, day) >= 0;
+    }
+
+    /**
+     * Vrai pour les fréquences dont les occurrences sont « alignées » (DAYS, WEEKS, MONTHS).
+     * Les autres unités suivent la logique simplifiée : tous les jours jusqu'à la terminaison.
+     */
+    private boolean isStepFrequency() {
+        return frequency == ChronoUnit.DAYS || frequency == ChronoUnit.WEEKS || frequency == ChronoUnit.MONTHS;
+    }
+
+    /**
+     * Pour les autres unités terminées par un nombre d'occurrences, le dernier jour tel que
+     * Termination.isAfterTermination est encore faux
+     */
+    private long lastDayBeforeTermination(long numberOfOccurrences) {
+        LocalDate candidate;
+        try {
+            candidate = startDate.plus(numberOfOccurrences, frequency);
+        } catch (DateTimeException tooFar) {
+            return Long.MAX_VALUE;
+        }
+        // Ajustement de quelques jours autour de la date calculée (mois courts, années bissextiles)
+        while (termination.isAfterTermination(candidate, frequency, startDate)) {
+            candidate = candidate.minusDays(1);
+        }
+        while (!termination.isAfterTermination(candidate.plusDays(1), frequency, startDate)) {
+            candidate = candidate.plusDays(1);
+        }
+        return candidate.toEpochDay();
+    }
+}
@@ -5,8 +5,9 @@ import java.time.temporal.ChronoUnit; // Import nécessaire
 
 public class Termination {
 
-    private LocalDate terminationDate;
-    private long numberOfOccurrences = -1; // -1 pour indiquer qu'elle n'est pas définie
+    // Ajouté : attributs finals, une Termination est immuable (partagée par les RepetitionSnapshot)
+    private final LocalDate terminationDate;
+    private final long numberOfOccurrences; // -1 pour indiquer qu'elle n'est pas définie
 
     /**
      * @return La date de fin inclusive de la répétition (peut être null)
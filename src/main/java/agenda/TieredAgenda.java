@@ -0,0 +1,176 @@
+package agenda;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Agenda en deux niveaux : les événements récents sont en mémoire (un Agenda), les événements terminés
+ * sont archivés sur disque dans des segments AgendaFile, interrogés en mémoire projetée (MappedAgenda).
+ * archive(cutoff) déplace dans un nouveau segment les événements dont la dernière occurrence finit avant
+ * cutoff : événements simples passés, répétitions terminées. Le niveau en mémoire reste petit.
+ * <p>
+ * Les requêtes lisent les segments (du plus ancien au plus récent), puis les événements en mémoire.
+ * Un segment dont tous les événements finissent avant le jour demandé n'est pas lu : une requête sur un jour
+ * postérieur au dernier archivage ne touche pas le disque.
+ * <p>
+ * Fichiers : archive-N.bin, un par archivage. Les événements archivés ne sont plus modifiables
+ * (les Event renvoyés pour eux sont relus du segment). Seuls les segments sont conservés : les événements
+ * en mémoire sont à enregistrer par ailleurs (JournaledAgenda, Agenda.save).
+ * Comme Agenda, cette classe n'est pas prévue pour être utilisée par plusieurs threads.
+ */
+public final class TieredAgenda {
+
+    private static final String PREFIX = "archive-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path directory;
+    private final Agenda hot = new Agenda();
+    private final List<MappedAgenda> segments = new ArrayList<>();
+    private long nextSegment;
+    private int archivedSize;
+
+    private TieredAgenda(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Ouvre (ou crée) les archives du répertoire directory ; le niveau en mémoire est vide
+     * @param directory le répertoire des segments archivés
+     * @return l'agenda, avec les segments déjà archivés
+     * @throws IOException en cas d'erreur de lecture, ou si un segment n'est pas un agenda
+     */
+    public static TieredAgenda open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        TieredAgenda tiered = new TieredAgenda(directory);
+        // Segments dans l'ordre d'archivage
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    found.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException ignored) {
+                    // Fichier étranger : ignoré
+                }
+            }
+        }
+        for (var entry : found.entrySet()) {
+            tiered.addSegment(AgendaFile.map(entry.getValue()));
+            tiered.nextSegment = entry.getKey() + 1;
+        }
+        return tiered;
+    }
+
+    /**
+     * Ajoute un événement au niveau en mémoire
+     * @param e l'événement à ajouter
+     */
+    public void addEvent(Event e) {
+        hot.addEvent(e);
+    }
+
+    /**
+     * Ajoute plusieurs événements au niveau en mémoire (voir Agenda.addAll)
+     * @param toAdd les événements à ajouter
+     */
+    public void addAll(Collection<? extends Event> toAdd) {
+        hot.addAll(toAdd);
+    }
+
+    /**
+     * Archive dans un nouveau segment les événements en mémoire qui n'ont plus lieu à partir de cutoff
+     * (les événements simples par semaines entières, voir Agenda.removeFinishedBefore).
+     * Les événements ne quittent la mémoire qu'une fois le segment relu, en place et enregistré dans le répertoire.
+     * @param cutoff le premier jour dont les événements doivent rester en mémoire
+     * @return le nombre d'événements archivés
+     * @throws IOException en cas d'erreur d'écriture : les événements restent alors en mémoire, à leur rang,
+     * et aucun segment n'est laissé sur le disque
+     */
+    public int archive(LocalDate cutoff) throws IOException {
+        long day = cutoff.toEpochDay();
+        List<Event> finished = hot.finishedBefore(day);
+        if (finished.isEmpty()) {
+            return 0;
+        }
+        Path segment = directory.resolve(PREFIX + nextSegment + SUFFIX);
+        Path temporary = directory.resolve(PREFIX + nextSegment + ".tmp");
+        MappedAgenda archived;
+        boolean moved = false;
+        try {
+            AgendaFile.write(finished, temporary);
+            // Projeté avant le renommage : un segment illisible n'est jamais mis en place
+            archived = AgendaFile.map(temporary);
+            Files.move(temporary, segment, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+            JournaledAgenda.syncDirectory(directory);
+        } catch (IOException failure) {
+            Files.deleteIfExists(temporary);
+            if (moved) {
+                Files.deleteIfExists(segment);
+            }
+            throw failure;
+        }
+        hot.removeFinishedBefore(day);
+        addSegment(archived);
+        nextSegment++;
+        return finished.size();
+    }
+
+    /**
+     * @return le nombre d'événements en mémoire
+     */
+    public int hotSize() {
+        return hot.events.size();
+    }
+
+    /**
+     * @return le nombre d'événements archivés
+     */
+    public int archivedSize() {
+        return archivedSize;
+    }
+
+    /**
+     * Calcule les événements qui ont lieu un jour donné, archivés et en mémoire
+     * @param day le jour à tester
+     * @return les événements archivés de ce jour (segment par segment, dans l'ordre d'ajout),
+     * puis ceux en mémoire (dans l'ordre d'ajout)
+     */
+    public List<Event> eventsInDay(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        List<Event> result = new ArrayList<>();
+        for (MappedAgenda segment : segments) {
+            if (segment.lastDay() >= epochDay) {
+                result.addAll(segment.eventsInDay(day));
+            }
+        }
+        result.addAll(hot.eventsInDay(day));
+        return result;
+    }
+
+    /**
+     * @param title le titre à rechercher
+     * @return les événements archivés qui ont ce titre (segment par segment), puis ceux en mémoire
+     */
+    public List<Event> findByTitle(String title) {
+        List<Event> result = new ArrayList<>();
+        for (MappedAgenda segment : segments) {
+            result.addAll(segment.findByTitle(title));
+        }
+        result.addAll(hot.findByTitle(title));
+        return result;
+    }
+
+    private void addSegment(MappedAgenda segment) {
+        segments.add(segment);
+        archivedSize += segment.size();
+    }
+}
@@ -0,0 +1,158 @@
+package agenda;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index des titres, commun à Agenda et ConcurrentAgenda : titre exact -> événements (dans l'ordre d'ajout),
+ * et index trié des titres en minuscules pour la recherche insensible à la casse et par préfixe.
+ * Les événements sans titre sont gardés à part.
+ * <p>
+ * Les écritures doivent être sérialisées par l'appelant. Avec concurrent(), les lectures peuvent être faites
+ * sans verrou pendant les écritures (tables concurrentes, tableaux PublishedArray).
+ */
+final class TitleIndex {
+
+    private final Map<String, PublishedArray<Event>> byTitle;
+    private final NavigableMap<String, PublishedArray<Event>> byFoldedTitle;
+    private volatile PublishedArray<Event> untitled = new PublishedArray<>();
+
+    private TitleIndex(Map<String, PublishedArray<Event>> byTitle,
+                       NavigableMap<String, PublishedArray<Event>> byFoldedTitle) {
+        this.byTitle = byTitle;
+        this.byFoldedTitle = byFoldedTitle;
+    }
+
+    /**
+     * @return un index pour un seul thread (Agenda)
+     */
+    static TitleIndex create() {
+        return new TitleIndex(new HashMap<>(), new TreeMap<>());
+    }
+
+    /**
+     * @return un index dont les lectures peuvent se faire pendant les écritures (ConcurrentAgenda)
+     */
+    static TitleIndex concurrent() {
+        return new TitleIndex(new ConcurrentHashMap<>(), new ConcurrentSkipListMap<>());
+    }
+
+    void add(Event e) {
+        String title = e.getTitle();
+        if (title == null) {
+            untitled.add(e);
+            return;
+        }
+        byTitle.computeIfAbsent(title, t -> new PublishedArray<>()).add(e);
+        byFoldedTitle.computeIfAbsent(fold(title), t -> new PublishedArray<>()).add(e);
+    }
+
+    /**
+     * Indexe un lot : chaque titre distinct n'est cherché qu'une fois dans chaque table
+     */
+    void addAll(List<Event> added) {
+        Map<String, List<Event>> exact = new HashMap<>();
+        Map<String, List<Event>> folded = new HashMap<>();
+        for (Event e : added) {
+            String title = e.getTitle();
+            if (title == null) {
+                untitled.add(e);
+            } else {
+                exact.computeIfAbsent(title, t -> new ArrayList<>(1)).add(e);
+                folded.computeIfAbsent(fold(title), t -> new ArrayList<>(1)).add(e);
+            }
+        }
+        exact.forEach((title, sameTitle) -> byTitle.computeIfAbsent(title, t -> new PublishedArray<>()).addAll(sameTitle));
+        folded.forEach((title, sameTitle) ->
+            byFoldedTitle.computeIfAbsent(title, t -> new PublishedArray<>()).addAll(sameTitle));
+    }
+
+    /**
+     * Retire les événements de removed (comparaison par identité), et toutes leurs occurrences dans l'index
+     */
+    void removeAll(Set<Event> removed) {
+        // Chaque titre touché n'est filtré qu'une fois
+        Set<String> titles = new HashSet<>();
+        Set<String> foldedTitles = new HashSet<>();
+        boolean anyUntitled = false;
+        for (Event e : removed) {
+            String title = e.getTitle();
+            if (title == null) {
+                anyUntitled = true;
+            } else if (titles.add(title)) {
+                foldedTitles.add(fold(title));
+            }
+        }
+        if (anyUntitled) {
+            untitled = untitled.without(removed::contains);
+        }
+        for (String title : titles) {
+            remove(byTitle, title, removed);
+        }
+        for (String title : foldedTitles) {
+            remove(byFoldedTitle, title, removed);
+        }
+    }
+
+    private static void remove(Map<String, PublishedArray<Event>> index, String key, Set<Event> removed) {
+        PublishedArray<Event> sameTitle = index.get(key);
+        if (sameTitle == null) {
+            return;
+        }
+        PublishedArray<Event> kept = sameTitle.without(removed::contains);
+        if (kept.isEmpty()) {
+            index.remove(key);
+        } else {
+            index.put(key, kept);
+        }
+    }
+
+    /**
+     * @return les événements de titre title (null : sans titre), dans l'ordre d'ajout
+     */
+    List<Event> find(String title) {
+        PublishedArray<Event> sameTitle = title == null ? untitled : byTitle.get(title);
+        return sameTitle == null ? new ArrayList<>() : sameTitle.toList();
+    }
+
+    /**
+     * @return les événements dont le titre est égal à title sans tenir compte de la casse (null : sans titre,
+     * comme find), dans l'ordre d'ajout
+     */
+    List<Event> findIgnoreCase(String title) {
+        if (title == null) {
+            return find(null);
+        }
+        PublishedArray<Event> sameTitle = byFoldedTitle.get(fold(title));
+        return sameTitle == null ? new ArrayList<>() : sameTitle.toList();
+    }
+
+    /**
+     * @return au plus limit événements dont le titre commence par prefix sans tenir compte de la casse,
+     * triés par titre puis dans l'ordre d'ajout, en O(log n + k)
+     */
+    List<Event> findByPrefix(String prefix, int limit) {
+        String folded = fold(prefix);
+        List<Event> result = new ArrayList<>();
+        for (Map.Entry<String, PublishedArray<Event>> entry : byFoldedTitle.tailMap(folded, true).entrySet()) {
+            if (!entry.getKey().startsWith(folded) || result.size() >= limit) {
+                break;
+            }
+            result.addAll(entry.getValue().toList(limit - result.size()));
+        }
+        return result;
+    }
+
+    static String fold(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+}
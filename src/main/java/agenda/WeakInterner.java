@@ -0,0 +1,87 @@
+package agenda;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire de chaînes partagées, sans verrou : deux chaînes égales donnent la même instance.
+ * Les clés sont des références faibles : une chaîne qui n'est plus utilisée reste récupérable par le ramasse-miettes,
+ * et son entrée est retirée au passage suivant (file de références), sans bloquer les autres threads.
+ */
+final class WeakInterner {
+
+    /**
+     * Référence faible comparée sur le contenu de la chaîne. Une référence effacée n'est plus égale
+     * qu'à elle-même (ConcurrentHashMap compare d'abord les instances) : la purge la retrouve toujours.
+     */
+    private static final class Key extends WeakReference<String> {
+        private final int hash;
+
+        Key(String value, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other) || other.hash != hash) {
+                return false;
+            }
+            String value = get();
+            return value != null && value.equals(other.get());
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Key> values = new ConcurrentHashMap<>();
+    private final ReferenceQueue<String> cleared = new ReferenceQueue<>();
+
+    /**
+     * @param value la chaîne à partager (non null)
+     * @return l'instance partagée égale à value
+     */
+    String intern(String value) {
+        purge();
+        Key probe = new Key(value, null);
+        while (true) {
+            Key known = values.get(probe);
+            String shared = known == null ? null : known.get();
+            if (shared != null) {
+                return shared;
+            }
+            Key fresh = new Key(value, cleared);
+            known = values.putIfAbsent(fresh, fresh);
+            if (known == null) {
+                return value;
+            }
+            shared = known.get();
+            if (shared != null) {
+                return shared;
+            }
+            // Effacée entre-temps : la purge la retirera, on recommence
+            values.remove(known, known);
+        }
+    }
+
+    /**
+     * @return le nombre d'entrées (y compris celles effacées mais pas encore purgées)
+     */
+    int size() {
+        return values.size();
+    }
+
+    private void purge() {
+        for (Reference<? extends String> ref; (ref = cleared.poll()) != null; ) {
+            values.remove(ref, ref);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package agenda;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal en ajout seul, avec validation groupée (group commit) : les enregistrements sont accumulés en mémoire,
+ * et un thread d'écriture les écrit puis appelle force (fsync) une seule fois pour tout un lot,
+ * au plus tard groupDelay après le premier enregistrement du lot.
+ * <p>
+ * Format d'un enregistrement : longueur (int), CRC32C du contenu (int), contenu.
+ * À la relecture, un enregistrement incomplet ou corrompu (écriture interrompue par un arrêt brutal)
+ * marque la fin du journal.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final int RECORD_HEADER = 8;
+    // Taille du lot qui déclenche l'écriture sans attendre groupDelay
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    private final FileChannel channel;
+    private final long groupDelayNanos;
+    private final Thread writer;
+
+    // Protégés par this
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appended;      // nombre d'enregistrements ajoutés
+    private long durable;       // nombre d'enregistrements écrits et synchronisés sur le disque
+    private long firstPending;  // instant (nanoTime) du premier enregistrement du lot en cours
+    private boolean urgent;     // un appel à commit attend
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Ouvre (ou crée) le journal path, pour y ajouter des enregistrements
+     * @param groupDelayNanos délai maximal avant la synchronisation d'un enregistrement sur le disque
+     */
+    WriteAheadLog(Path path, long groupDelayNanos) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.groupDelayNanos = groupDelayNanos;
+        this.writer = new Thread(this::writeLoop, "agenda-wal-" + path.getFileName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Relit les enregistrements complets du journal path, dans l'ordre, et tronque une fin incomplète
+     * @param path le journal (rien n'est fait s'il n'existe pas)
+     * @param reader appelé avec le contenu de chaque enregistrement
+     * @return le nombre d'enregistrements relus
+     */
+    static long replay(Path path, Consumer<ByteBuffer> reader) throws IOException {
+        if (!path.toFile().exists()) {
+            return 0;
+        }
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+            long position = 0;
+            while (position + RECORD_HEADER <= size) {
+                header.clear();
+                channel.read(header, position);
+                int length = header.getInt(0);
+                if (length < 0 || position + RECORD_HEADER + length > size) {
+                    break;
+                }
+                ByteBuffer content = ByteBuffer.allocate(length);
+                channel.read(content, position + RECORD_HEADER);
+                CRC32C crc = new CRC32C();
+                crc.update(content.array());
+                if ((int) crc.getValue() != header.getInt(4)) {
+                    break;
+                }
+                reader.accept(content.flip());
+                records++;
+                position += RECORD_HEADER + length;
+            }
+            if (position < size) {
+                // Fin interrompue : les ajouts suivants repartent du dernier enregistrement complet
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Ajoute un enregistrement, sans attendre son écriture (voir commit)
+     * @param content le contenu de l'enregistrement
+     */
+    synchronized void append(byte[] content) {
+        if (failure != null) {
+            throw new UncheckedIOException("Le journal n'est plus utilisable", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal fermé");
+        }
+        int needed = RECORD_HEADER + content.length;
+        if (pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        pending.putInt(content.length).putInt((int) crc.getValue()).put(content);
+        if (appended++ == durable) {
+            firstPending = System.nanoTime();
+            notifyAll();
+        } else if (pending.position() >= FLUSH_THRESHOLD) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Attend que tous les enregistrements déjà ajoutés soient synchronisés sur le disque.
+     * Les appels concurrents sont servis par la même synchronisation.
+     */
+    synchronized void commit() throws IOException {
+        long target = appended;
+        while (durable < target && failure == null) {
+            urgent = true;
+            notifyAll();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Attente de la synchronisation du journal interrompue", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return le nombre d'enregistrements ajoutés depuis l'ouverture
+     */
+    synchronized long appended() {
+        return appended;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long target;
+            synchronized (this) {
+                try {
+                    while (!closed && !readyToWrite()) {
+                        if (appended == durable) {
+                            wait();
+                        } else {
+                            long remaining = groupDelayNanos - (System.nanoTime() - firstPending);
+                            wait(Math.max(1, remaining / 1_000_000), (int) (Math.max(0, remaining) % 1_000_000));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (appended == durable) {
+                    return; // Fermé, tout est écrit
+                }
+                batch = pending.flip();
+                pending = spare.clear();
+                target = appended;
+                urgent = false;
+            }
+            // Écriture et synchronisation hors du verrou : les ajouts continuent dans l'autre tampon
+            IOException error = null;
+            try {
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            synchronized (this) {
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durable = target;
+                }
+                notifyAll();
+                if (error != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean readyToWrite() {
+        return appended > durable
+            && (urgent || pending.position() >= FLUSH_THRESHOLD || System.nanoTime() - firstPending >= groupDelayNanos);
+    }
+}
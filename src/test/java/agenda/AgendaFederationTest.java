@@ -0,0 +1,55 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class AgendaFederationTest {
+
+    static List<Agenda> randomAgendas(Random random, int count) {
+        List<Agenda> agendas = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Agenda agenda = new Agenda();
+            agenda.addAll(AgendaIndexTest.randomEvents(random, random.nextInt(30)));
+            agendas.add(agenda);
+        }
+        return agendas;
+    }
+
+    @Test
+    void results_match_sequential_queries_in_agenda_order() {
+        List<Agenda> agendas = randomAgendas(new Random(16), 300);
+        try (AgendaFederation parallel = new AgendaFederation(agendas, 4);
+             AgendaFederation sequential = new AgendaFederation(agendas, 1);
+             AgendaFederation common = new AgendaFederation(agendas)) {
+            assertEquals(4, parallel.parallelism());
+            for (AgendaFederation federation : List.of(parallel, sequential, common)) {
+                for (int d = 0; d < 60; d += 7) {
+                    LocalDate day = AgendaIndexTest.ORIGIN.plusDays(d);
+                    List<List<Event>> expected = agendas.stream().map(a -> a.eventsInDay(day)).toList();
+                    assertEquals(expected, federation.eventsInDay(day), day.toString());
+                }
+                List<Event> withTitle = agendas.stream().flatMap(a -> a.findByTitle("Event 3").stream()).toList();
+                assertEquals(withTitle, federation.findByTitle("Event 3"));
+
+                Event meeting = new Event("Meeting", AgendaIndexTest.ORIGIN.plusDays(10).atTime(14, 0), Duration.ofHours(1));
+                List<Agenda> free = agendas.stream().filter(a -> a.isFreeFor(meeting)).toList();
+                assertEquals(free, federation.agendasFreeFor(meeting));
+                assertTrue(free.size() > 0 && free.size() < agendas.size(), free.size() + " free agendas");
+            }
+        }
+    }
+
+    @Test
+    void an_empty_federation_answers_empty_results() {
+        try (AgendaFederation federation = new AgendaFederation(List.of(), 2)) {
+            assertEquals(List.of(), federation.eventsInDay(AgendaIndexTest.ORIGIN));
+            assertEquals(List.of(), federation.findByTitle("Event 1"));
+        }
+    }
+}
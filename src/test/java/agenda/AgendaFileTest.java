@@ -0,0 +1,162 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AgendaFileTest {
+
+    @TempDir
+    Path directory;
+
+    List<Event> events;
+    Agenda agenda;
+
+    @BeforeEach
+    void setUp() {
+        events = new ArrayList<>(AgendaIndexTest.randomEvents(new Random(11), 400));
+        LocalDateTime start = AgendaIndexTest.ORIGIN.atTime(22, 30, 15, 123_456_789);
+        events.add(new Event(null, start, Duration.ofMinutes(30)));
+        events.add(new Event("Réunion ☕ 😀", start, Duration.ofDays(20).plusNanos(5)));
+        events.add(new Event("Negative", start, Duration.ofHours(-30)));
+        Event beforeStart = new Event("Terminated before start", start, Duration.ofHours(3));
+        beforeStart.setRepetition(ChronoUnit.WEEKS);
+        beforeStart.setTermination(AgendaIndexTest.ORIGIN.minusDays(3));
+        events.add(beforeStart);
+        Event yearly = new Event("Yearly", start, Duration.ofHours(3));
+        yearly.setRepetition(ChronoUnit.YEARS);
+        yearly.setTermination(2);
+        events.add(yearly);
+        agenda = new Agenda();
+        events.forEach(agenda::addEvent);
+    }
+
+    /**
+     * Les rangs (dans l'ordre d'ajout) des événements trouvés
+     */
+    static List<Integer> ranks(List<Event> found, List<Event> all) {
+        List<Integer> result = new ArrayList<>();
+        for (Event e : found) {
+            for (int i = 0; i < all.size(); i++) {
+                if (all.get(i) == e) {
+                    result.add(i);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void mapped_agenda_answers_like_the_saved_agenda() throws IOException {
+        Path file = directory.resolve("agenda.bin");
+        agenda.save(file);
+        MappedAgenda mapped = AgendaFile.map(file);
+        assertEquals(events.size(), mapped.size());
+
+        List<Event> materialized = new ArrayList<>();
+        for (int i = 0; i < mapped.size(); i++) {
+            materialized.add(mapped.event(i));
+        }
+        for (int d = -10; d < 800; d++) {
+            LocalDate day = AgendaIndexTest.ORIGIN.plusDays(d);
+            assertEquals(ranks(agenda.eventsInDay(day), events), ranks(mapped.eventsInDay(day), materialized),
+                day.toString());
+        }
+        for (int t = 0; t < 20; t++) {
+            String title = "Event " + t;
+            assertEquals(ranks(agenda.findByTitle(title), events), ranks(mapped.findByTitle(title), materialized));
+        }
+        assertEquals(List.of(events.size() - 4), ranks(mapped.findByTitle("Réunion ☕ 😀"), materialized));
+        assertEquals(List.of(), mapped.findByTitle("Unknown"));
+    }
+
+    @Test
+    void loaded_events_have_the_same_state() throws IOException {
+        Path file = directory.resolve("agenda.bin");
+        agenda.save(file);
+        Agenda loaded = Agenda.load(file);
+        List<Event> reloaded = loaded.events;
+        assertEquals(events.size(), reloaded.size());
+        for (int i = 0; i < events.size(); i++) {
+            EventSnapshot expected = events.get(i).freeze();
+            EventSnapshot actual = reloaded.get(i).freeze();
+            assertEquals(expected.title(), actual.title());
+            assertEquals(expected.start(), actual.start());
+            assertEquals(expected.duration(), actual.duration());
+            assertEquals(expected.isRepetitive(), actual.isRepetitive());
+            assertEquals(expected.lastOccurrence(), actual.lastOccurrence());
+            assertEquals(events.get(i).getNumberOfOccurrences(), reloaded.get(i).getNumberOfOccurrences());
+            if (expected.isRepetitive()) {
+                assertEquals(expected.repetition().frequency(), actual.repetition().frequency());
+                assertEquals(expected.repetition().exceptions(), actual.repetition().exceptions());
+            }
+        }
+    }
+
+    @Test
+    void touched_days_bound_isInDay() {
+        for (Event e : events) {
+            EventSnapshot s = e.freeze();
+            for (int d = -40; d < 900; d++) {
+                LocalDate day = AgendaIndexTest.ORIGIN.plusDays(d);
+                if (s.isInDay(day)) {
+                    assertTrue(day.toEpochDay() >= s.firstTouchedDay() && day.toEpochDay() <= s.lastTouchedDay(),
+                        e + " on " + day);
+                }
+            }
+        }
+    }
+
+    @Test
+    void files_that_are_not_agendas_are_rejected() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> AgendaFile.map(file));
+
+        Path truncated = directory.resolve("truncated.bin");
+        agenda.save(truncated);
+        byte[] content = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(content, content.length - 1));
+        assertThrows(IOException.class, () -> Agenda.load(truncated));
+    }
+
+    @Test
+    void header_records_the_short_span_of_the_index() throws IOException {
+        Path file = directory.resolve("agenda.bin");
+        agenda.save(file);
+        byte[] content = Files.readAllBytes(file);
+        ByteBuffer header = ByteBuffer.wrap(content);
+        assertEquals(AgendaFile.VERSION, header.getInt(4));
+        assertEquals(AgendaFile.SHORT_SPAN_DAYS, header.getInt(36));
+
+        // Version 1 : index construit sans limite enregistrée, refusé
+        header.putInt(4, 1);
+        Files.write(file, content);
+        assertThrows(IOException.class, () -> AgendaFile.map(file));
+    }
+
+    @Test
+    void empty_agenda_round_trips() throws IOException {
+        Path file = directory.resolve("empty.bin");
+        new Agenda().save(file);
+        MappedAgenda mapped = AgendaFile.map(file);
+        assertEquals(0, mapped.size());
+        assertEquals(List.of(), mapped.eventsInDay(AgendaIndexTest.ORIGIN));
+        assertEquals(List.of(), mapped.findByTitle("Event 1"));
+    }
+}
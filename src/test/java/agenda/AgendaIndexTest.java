@@ -0,0 +1,143 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Vérifie que les index de l'agenda donnent exactement le même résultat qu'un parcours complet
+ */
+public class AgendaIndexTest {
+
+    static final LocalDate ORIGIN = LocalDate.of(2020, 11, 1);
+
+    /**
+     * Génère un mélange d'événements simples et répétitifs (avec exceptions et terminaisons)
+     */
+    static List<Event> randomEvents(Random random, int count) {
+        ChronoUnit[] frequencies = {ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS, ChronoUnit.YEARS};
+        List<Event> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = ORIGIN.atStartOfDay()
+                .plusDays(random.nextInt(120))
+                .plusMinutes(15L * random.nextInt(96));
+            Duration duration = Duration.ofMinutes(random.nextInt(10) == 0 ? 0 : 15L * random.nextInt(200));
+            Event e = new Event("Event " + random.nextInt(20), start, duration);
+            if (random.nextInt(3) == 0) {
+                e.setRepetition(frequencies[random.nextInt(frequencies.length)]);
+                for (int x = random.nextInt(4); x > 0; x--) {
+                    e.addException(start.toLocalDate().plusDays(random.nextInt(60)));
+                }
+                switch (random.nextInt(3)) {
+                    case 0 -> e.setTermination(1 + random.nextInt(10));
+                    case 1 -> e.setTermination(start.toLocalDate().plusDays(random.nextInt(90)));
+                    default -> { }
+                }
+            }
+            result.add(e);
+        }
+        return result;
+    }
+
+    static List<Event> scan(List<Event> events, LocalDate day) {
+        List<Event> result = new ArrayList<>();
+        for (Event e : events) {
+            if (e.isInDay(day)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void eventsInDay_matches_full_scan() {
+        Random random = new Random(7);
+        List<Event> events = randomEvents(random, 500);
+        Agenda agenda = new Agenda();
+        events.forEach(agenda::addEvent);
+        for (int d = -5; d < 250; d++) {
+            LocalDate day = ORIGIN.plusDays(d);
+            assertEquals(scan(events, day), agenda.eventsInDay(day), day.toString());
+        }
+    }
+
+    @Test
+    void event_becoming_repetitive_after_being_added_is_reindexed() {
+        Agenda agenda = new Agenda();
+        Event first = new Event("First", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60));
+        Event later = new Event("Later", LocalDateTime.of(2020, 11, 1, 9, 0), Duration.ofMinutes(60));
+        agenda.addEvent(first);
+        agenda.addEvent(later);
+        first.setRepetition(ChronoUnit.DAYS);
+        assertEquals(List.of(first, later), agenda.eventsInDay(LocalDate.of(2020, 11, 1)));
+        assertEquals(List.of(first), agenda.eventsInDay(LocalDate.of(2020, 11, 2)));
+    }
+
+    @Test
+    void same_event_added_twice_is_returned_twice() {
+        Agenda agenda = new Agenda();
+        Event e = new Event("Twice", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60));
+        agenda.addEvent(e);
+        agenda.addEvent(e);
+        assertEquals(List.of(e, e), agenda.eventsInDay(LocalDate.of(2020, 11, 1)));
+    }
+
+    @Test
+    void same_event_added_twice_is_listened_to_once() {
+        Agenda agenda = new Agenda();
+        Event e = new Event("Twice", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60));
+        int[] notified = {0};
+        EventListener counter = changed -> notified[0]++;
+        e.addListener(counter);
+        agenda.addEvent(e);
+        agenda.addAll(List.of(e));
+        e.addListener(counter);
+        e.setRepetition(ChronoUnit.DAYS);
+        assertEquals(1, notified[0]);
+        assertEquals(List.of(e, e), agenda.eventsInDay(LocalDate.of(2020, 11, 2)));
+    }
+
+    @Test
+    void addAll_gives_the_same_agenda_as_repeated_addEvent() {
+        Random random = new Random(15);
+        List<Event> events = randomEvents(random, 1200);
+        Agenda expected = new Agenda();
+        events.forEach(expected::addEvent);
+        Agenda bulk = new Agenda();
+        bulk.addEvent(events.get(0));
+        bulk.addAll(events.subList(1, 600));                 // Gros lot : arbre reconstruit
+        bulk.addAll(events.subList(600, 1100).stream());
+        bulk.addAll(events.subList(1100, 1120).iterator());  // Petit lot : insertions une par une
+        bulk.addAll(events.subList(1120, 1200));
+        assertEquals(events, bulk.events);
+        for (int d = -5; d < 250; d++) {
+            LocalDate day = ORIGIN.plusDays(d);
+            assertEquals(scan(events, day), bulk.eventsInDay(day), day.toString());
+        }
+        for (int t = 0; t < 20; t++) {
+            assertEquals(expected.findByTitle("Event " + t), bulk.findByTitle("Event " + t));
+        }
+        assertEquals(expected.findByTitlePrefix("EVENT 1"), bulk.findByTitlePrefix("EVENT 1"));
+        LocalDateTime from = ORIGIN.atStartOfDay().plusDays(30);
+        assertEquals(expected.eventsBetween(from, from.plusWeeks(2)).toList(), bulk.eventsBetween(from, from.plusWeeks(2)).toList());
+    }
+
+    @Test
+    void events_added_in_bulk_are_reindexed_when_they_change() {
+        Agenda agenda = new Agenda();
+        Event first = new Event("First", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60));
+        Event later = new Event("Later", LocalDateTime.of(2020, 11, 1, 9, 0), Duration.ofMinutes(60));
+        assertEquals(List.of(), agenda.eventsInDay(LocalDate.of(2020, 11, 1))); // Mis en cache
+        agenda.addAll(List.of(first, later, first));
+        assertEquals(List.of(first, later, first), agenda.eventsInDay(LocalDate.of(2020, 11, 1)));
+        first.setRepetition(ChronoUnit.DAYS);
+        assertEquals(List.of(first, first), agenda.eventsInDay(LocalDate.of(2020, 11, 2)));
+    }
+}
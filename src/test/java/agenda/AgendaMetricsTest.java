@@ -0,0 +1,101 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AgendaMetricsTest {
+
+    static final LocalDate ORIGIN = AgendaIndexTest.ORIGIN;
+
+    static Agenda randomAgenda() {
+        Agenda agenda = new Agenda(0); // Sans cache : chaque appel est calculé
+        agenda.addAll(AgendaIndexTest.randomEvents(new Random(25), 500));
+        return agenda;
+    }
+
+    @Test
+    void recorder_counts_calls_scanned_and_returned() {
+        Agenda agenda = randomAgenda();
+        MetricsRecorder recorder = new MetricsRecorder();
+        agenda.setMetrics(recorder);
+        long returned = 0;
+        for (int d = 0; d < 30; d++) {
+            returned += agenda.eventsInDay(ORIGIN.plusDays(d)).size();
+        }
+        int found = agenda.findByTitle("Event 3").size();
+        agenda.findByTitle("Inconnu");
+        boolean free = agenda.isFreeFor(new Event("Test", LocalDateTime.of(2020, 11, 5, 10, 0), Duration.ofHours(1)));
+
+        MetricsRecorder.QueryStats days = recorder.stats(AgendaMetrics.Query.EVENTS_IN_DAY);
+        assertEquals(30, days.calls());
+        assertEquals(returned, days.returned());
+        assertTrue(days.scanned() >= days.returned());
+        assertEquals(30, Arrays.stream(days.latencyHistogram()).sum());
+        assertTrue(days.latencyPercentile(0.5) <= days.latencyPercentile(0.99));
+        assertTrue(days.latencyPercentile(1) > 0);
+        assertTrue(days.callsPerSecond() > 0);
+
+        MetricsRecorder.QueryStats titles = recorder.stats(AgendaMetrics.Query.FIND_BY_TITLE);
+        assertEquals(2, titles.calls());
+        assertEquals(found, titles.returned());
+
+        MetricsRecorder.QueryStats freeFor = recorder.stats(AgendaMetrics.Query.IS_FREE_FOR);
+        assertEquals(1, freeFor.calls());
+        assertEquals(free ? 0 : 1, freeFor.returned());
+        assertTrue(freeFor.scanned() > 0);
+
+        recorder.reset();
+        assertEquals(0, recorder.stats(AgendaMetrics.Query.EVENTS_IN_DAY).calls());
+        assertEquals(0, recorder.stats(AgendaMetrics.Query.EVENTS_IN_DAY).latencyPercentile(0.99));
+    }
+
+    @Test
+    void results_are_unchanged_and_nothing_is_recorded_once_disabled() {
+        Agenda measured = randomAgenda();
+        Agenda plain = randomAgenda();
+        MetricsRecorder recorder = new MetricsRecorder();
+        measured.setMetrics(recorder);
+        for (int d = 0; d < 10; d++) {
+            LocalDate day = ORIGIN.plusDays(d);
+            assertEquals(plain.eventsInDay(day).size(), measured.eventsInDay(day).size());
+        }
+        measured.setMetrics(null);
+        measured.eventsInDay(ORIGIN);
+        assertEquals(10, recorder.stats(AgendaMetrics.Query.EVENTS_IN_DAY).calls());
+    }
+
+    @Test
+    void jfr_events_are_emitted_when_enabled(@TempDir Path directory) throws IOException {
+        Agenda agenda = randomAgenda();
+        agenda.setMetrics(new JfrAgendaMetrics());
+        agenda.eventsInDay(ORIGIN); // Pas d'enregistrement en cours : rien n'est émis
+        Path dump = directory.resolve("agenda.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("agenda.Query");
+            recording.start();
+            agenda.eventsInDay(ORIGIN.plusDays(1));
+            agenda.findByTitle("Event 1");
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+            .filter(e -> e.getEventType().getName().equals("agenda.Query"))
+            .toList();
+        assertEquals(List.of("EVENTS_IN_DAY", "FIND_BY_TITLE"), events.stream().map(e -> e.getString("query")).toList());
+        assertEquals(agenda.eventsInDay(ORIGIN.plusDays(1)).size(), events.get(0).getInt("returned"));
+        assertTrue(events.get(0).getInt("scanned") >= events.get(0).getInt("returned"));
+    }
+}
@@ -0,0 +1,77 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class BusyBitmapTest {
+
+    LocalDateTime nov_1__2020_8_00 = LocalDateTime.of(2020, 11, 1, 8, 0);
+
+    @Test
+    void busy_slots_match_isFreeFor() {
+        Random random = new Random(18);
+        Duration slot = Duration.ofMinutes(10); // Ne tombe pas sur les quarts d'heure des événements
+        for (Agenda agenda : AgendaFederationTest.randomAgendas(random, 5)) {
+            LocalDateTime from = AgendaIndexTest.ORIGIN.atStartOfDay().plusDays(random.nextInt(60)).plusMinutes(5);
+            BusyBitmap bitmap = agenda.busyBitmap(from, from.plusDays(2), slot);
+            assertEquals(288, bitmap.size());
+            for (int i = 0; i < bitmap.size(); i++) {
+                Event candidate = new Event("Candidate", bitmap.slotStart(i), slot);
+                assertEquals(!agenda.isFreeFor(candidate), bitmap.isBusy(i), bitmap.slotStart(i).toString());
+            }
+        }
+    }
+
+    @Test
+    void bitmaps_combine_bit_by_bit() {
+        Agenda alice = new Agenda();
+        Agenda bob = new Agenda();
+        alice.addEvent(new Event("Meeting", nov_1__2020_8_00.plusMinutes(30), Duration.ofMinutes(60))); // Créneaux 2 à 5
+        Event standup = new Event("Standup", nov_1__2020_8_00.plusMinutes(75), Duration.ofMinutes(15));   // Créneau 5, chaque jour
+        standup.setRepetition(ChronoUnit.DAYS);
+        bob.addEvent(standup);
+        bob.addEvent(new Event("Instant", nov_1__2020_8_00.plusMinutes(100), Duration.ZERO));        // Dans le créneau 6
+
+        Duration slot = Duration.ofMinutes(15);
+        LocalDateTime to = nov_1__2020_8_00.plusHours(26).plusMinutes(5); // Arrondi : 105 créneaux
+        BusyBitmap a = alice.busyBitmap(nov_1__2020_8_00, to, slot);
+        BusyBitmap b = bob.busyBitmap(nov_1__2020_8_00, to, slot);
+        assertEquals(105, a.size());
+        assertEquals(4, a.busyCount());
+        assertEquals(3, b.busyCount()); // 9h15, 9h40 et le lendemain 9h15
+        assertEquals(2, a.nextBusy(0));
+        assertEquals(6, a.nextFree(2));
+        assertEquals(101, b.nextBusy(7));
+        assertEquals(-1, b.nextBusy(102));
+
+        BusyBitmap anyone = a.or(b);
+        assertEquals(6, anyone.busyCount());
+        assertEquals(anyone, BusyBitmap.union(List.of(a, b)));
+        assertEquals(1, a.and(b).busyCount());
+        assertEquals(a.and(b), BusyBitmap.intersection(List.of(a, b)));
+        BusyBitmap free = anyone.not();
+        assertEquals(105 - 6, free.busyCount());
+        assertEquals(101, free.nextFree(7));
+        assertEquals(anyone, free.not());
+
+        BusyBitmap otherWindow = bob.busyBitmap(nov_1__2020_8_00.plusMinutes(15), to, slot);
+        assertThrows(IllegalArgumentException.class, () -> a.or(otherWindow));
+    }
+
+    @Test
+    void federation_union_matches_sequential_union() {
+        List<Agenda> agendas = AgendaFederationTest.randomAgendas(new Random(19), 50);
+        LocalDateTime from = AgendaIndexTest.ORIGIN.atStartOfDay();
+        Duration slot = Duration.ofMinutes(15);
+        BusyBitmap expected = BusyBitmap.union(agendas.stream().map(a -> a.busyBitmap(from, from.plusWeeks(1), slot)).toList());
+        try (AgendaFederation federation = new AgendaFederation(agendas, 3)) {
+            assertEquals(expected, federation.busyUnion(from, from.plusWeeks(1), slot));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class CalendarWheelTest {
+
+    private static List<Long> overlapping(CalendarWheel<String> wheel, long low, long high) {
+        List<Long> ids = new ArrayList<>();
+        wheel.forEachOverlapping(low, high, (value, id) -> ids.add(id));
+        ids.sort(null);
+        return ids;
+    }
+
+    private static List<Long> bruteForce(List<long[]> intervals, long low, long high) {
+        List<Long> ids = new ArrayList<>();
+        for (long[] interval : intervals) {
+            if (interval[0] <= high && interval[1] >= low) {
+                ids.add(interval[2]);
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    void short_intervals_are_found_across_bucket_boundaries() {
+        CalendarWheel<String> wheel = new CalendarWheel<>();
+        wheel.insert(5, 8, 0, "a");     // Déborde sur la semaine suivante
+        wheel.insert(-3, -1, 1, "b");   // Avant l'epoch
+        wheel.insert(2, 30, 2, "c");    // Long : débordement
+        wheel.insert(1_000_000, 1_000_000, 3, "d");
+        assertEquals(List.of(0L, 2L), overlapping(wheel, 8, 8));
+        assertEquals(List.of(1L), overlapping(wheel, -2, -2));
+        assertEquals(List.of(3L), overlapping(wheel, 999_999, 2_000_000));
+        assertEquals(List.of(0L, 1L, 2L, 3L), overlapping(wheel, Long.MIN_VALUE / 2, Long.MAX_VALUE / 2));
+        assertEquals(4, wheel.size());
+        assertEquals(-3, wheel.minLow());
+        assertEquals(1_000_000, wheel.maxHigh());
+        assertTrue(wheel.anyOverlapping(20, 20, "c"::equals));
+        assertFalse(wheel.anyOverlapping(20, 20, "a"::equals));
+    }
+
+    @Test
+    void buckets_are_searched_from_their_longest_interval_back() {
+        CalendarWheel<String> wheel = new CalendarWheel<>();
+        // Ajouts dans le désordre, dans une même semaine
+        wheel.insert(13, 13, 0, "a");
+        wheel.insert(7, 13, 1, "b");   // Toute la semaine
+        wheel.insert(10, 10, 2, "c");
+        wheel.insert(10, 11, 3, "d");
+        wheel.insert(8, 8, 4, "e");
+        assertEquals(List.of(1L, 2L, 3L), overlapping(wheel, 10, 10));
+        assertEquals(List.of(1L, 3L), overlapping(wheel, 11, 12));
+        assertEquals(List.of(0L, 1L), overlapping(wheel, 13, Long.MAX_VALUE));
+        assertEquals(List.of(1L, 4L), overlapping(wheel, Long.MIN_VALUE, 9));
+        assertArrayEquals(new long[]{2}, wheel.removeAll(10, "c"));
+        assertEquals(List.of(1L, 3L), overlapping(wheel, 10, 10));
+    }
+
+    @Test
+    void removeAll_removes_every_interval_of_a_value() {
+        CalendarWheel<String> wheel = new CalendarWheel<>();
+        String a = "a";
+        wheel.insert(4, 6, 0, a);
+        wheel.insert(4, 4, 1, "b");
+        wheel.insert(4, 40, 2, a);
+        assertArrayEquals(new long[]{2, 0}, wheel.removeAll(4, a));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L), overlapping(wheel, 0, 10));
+    }
+
+    @Test
+    void evictBefore_drops_past_buckets_only() {
+        CalendarWheel<String> wheel = new CalendarWheel<>();
+        wheel.insert(0, 2, 0, "old");
+        wheel.insert(3, 9, 1, "spans");      // Même semaine que "old", mais finit après le jour 8
+        wheel.insert(10, 11, 2, "recent");
+        wheel.insert(-100, 5, 3, "long old");
+        wheel.insert(-100, 50, 4, "long current");
+        List<Long> evicted = new ArrayList<>();
+        assertEquals(1, wheel.evictBefore(8, (value, id) -> evicted.add(id)));
+        evicted.sort(null);
+        assertEquals(List.of(3L), evicted);
+        // Le seau de la première semaine contient un intervalle encore en cours : il est conservé en entier
+        assertEquals(List.of(0L, 1L, 2L, 4L), overlapping(wheel, -1000, 1000));
+        assertEquals(3, wheel.evictBefore(12, (value, id) -> evicted.add(id)));
+        assertEquals(List.of(4L), overlapping(wheel, -1000, 1000));
+        assertEquals(0, wheel.bucketCount());
+    }
+
+    @Test
+    void matches_brute_force_after_random_inserts_removals_and_evictions() {
+        Random random = new Random(23);
+        CalendarWheel<String> wheel = new CalendarWheel<>();
+        List<long[]> intervals = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (int id = 0; id < 3000; id++) {
+            long low = random.nextInt(2000) - 500;
+            if (random.nextInt(50) == 0) {
+                low += 3_000_000; // Très loin dans le futur : haché comme les autres
+            }
+            long high = low + (random.nextInt(8) == 0 ? random.nextInt(60) : random.nextInt(7));
+            String value = "v" + id;
+            wheel.insert(low, high, id, value);
+            intervals.add(new long[]{low, high, id});
+            values.add(value);
+        }
+        for (int i = 0; i < 300; i++) {
+            int index = random.nextInt(intervals.size());
+            long[] removed = intervals.remove(index);
+            assertArrayEquals(new long[]{removed[2]}, wheel.removeAll(removed[0], values.remove(index)));
+        }
+        List<Long> evicted = new ArrayList<>();
+        wheel.evictBefore(200, (value, id) -> evicted.add(id));
+        for (int i = intervals.size() - 1; i >= 0; i--) {
+            long[] interval = intervals.get(i);
+            if (evicted.contains(interval[2])) {
+                assertTrue(interval[1] < 200);
+                intervals.remove(i);
+            }
+        }
+        assertEquals(intervals.size(), wheel.size());
+        for (int q = 0; q < 500; q++) {
+            long low = random.nextInt(2200) - 600;
+            long high = low + random.nextInt(q % 10 == 0 ? 3000 : 10);
+            assertEquals(bruteForce(intervals, low, high), overlapping(wheel, low, high), low + " " + high);
+        }
+        assertEquals(bruteForce(intervals, 3_000_000, 3_002_000), overlapping(wheel, 3_000_000, 3_002_000));
+    }
+}
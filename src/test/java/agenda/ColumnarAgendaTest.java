@@ -0,0 +1,74 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ColumnarAgendaTest {
+
+    /**
+     * Les événements construits par ColumnarAgenda sont des copies : on compare leur état
+     */
+    static List<String> states(List<Event> events) {
+        return events.stream().map(e -> e.freeze().toString() + " " + e.freeze().lastOccurrence()).toList();
+    }
+
+    @Test
+    void queries_match_agenda() {
+        Random random = new Random(20);
+        List<Event> events = AgendaIndexTest.randomEvents(random, 800);
+        events.add(new Event(null, LocalDateTime.of(2020, 11, 3, 0, 0), Duration.ZERO));
+        events.add(new Event("Long", LocalDateTime.of(2020, 11, 3, 0, 0).withNano(5), Duration.ofDays(20).plusNanos(7)));
+        Agenda agenda = new Agenda();
+        ColumnarAgenda columnar = new ColumnarAgenda();
+        agenda.addAll(events.subList(0, 400));
+        columnar.addAll(events.subList(0, 400));
+        for (int d = -5; d < 250; d += 3) {
+            // Requêtes entre des ajouts : les clés ajoutées sont triées puis fusionnées
+            LocalDate day = AgendaIndexTest.ORIGIN.plusDays(d);
+            assertEquals(states(agenda.eventsInDay(day)), states(columnar.eventsInDay(day)), day.toString());
+            if (d == 100) {
+                agenda.addAll(events.subList(400, events.size()));
+                events.subList(400, events.size()).forEach(columnar::addEvent);
+            }
+        }
+        for (int t = 0; t < 20; t++) {
+            assertEquals(states(agenda.findByTitle("Event " + t)), states(columnar.findByTitle("Event " + t)));
+        }
+        assertEquals(states(agenda.findByTitle(null)), states(columnar.findByTitle(null)));
+        assertEquals(events.size(), columnar.size());
+        JournaledAgendaTest.assertSameAgenda(agenda, columnar.toAgenda());
+    }
+
+    @Test
+    void events_around_the_short_span_are_found_on_every_day() {
+        ColumnarAgenda columnar = new ColumnarAgenda();
+        LocalDateTime start = LocalDateTime.of(2020, 11, 1, 10, 0);
+        // Touchent SHORT_SPAN_DAYS - 1, SHORT_SPAN_DAYS et SHORT_SPAN_DAYS + 1 jours
+        for (int days = ColumnarAgenda.SHORT_SPAN_DAYS - 2; days <= ColumnarAgenda.SHORT_SPAN_DAYS; days++) {
+            columnar.addEvent(new Event("Span " + days, start, Duration.ofDays(days)));
+        }
+        for (int d = 0; d <= ColumnarAgenda.SHORT_SPAN_DAYS; d++) {
+            LocalDate day = start.toLocalDate().plusDays(d);
+            assertEquals(Math.min(3, ColumnarAgenda.SHORT_SPAN_DAYS + 1 - d), columnar.eventsInDay(day).size(), day.toString());
+        }
+    }
+
+    @Test
+    void events_are_stored_by_value() {
+        ColumnarAgenda columnar = new ColumnarAgenda();
+        Event e = new Event("Meeting", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofHours(1));
+        columnar.addEvent(e);
+        e.setRepetition(ChronoUnit.DAYS);
+        assertFalse(columnar.event(0).isRepetitive());
+        assertNotSame(columnar.event(0), columnar.event(0));
+        assertEquals(List.of(), columnar.eventsInDay(LocalDate.of(2020, 11, 2)));
+        assertThrows(IndexOutOfBoundsException.class, () -> columnar.event(1));
+    }
+}
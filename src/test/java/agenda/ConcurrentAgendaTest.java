@@ -0,0 +1,149 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentAgendaTest {
+
+    static final LocalDate ORIGIN = AgendaIndexTest.ORIGIN;
+
+    static void assertSameAnswers(Agenda expected, ConcurrentAgenda actual, Random random) {
+        for (int d = -5; d < 250; d++) {
+            LocalDate day = ORIGIN.plusDays(d);
+            assertEquals(expected.eventsInDay(day), actual.eventsInDay(day), day.toString());
+        }
+        for (int t = 0; t < 20; t++) {
+            assertEquals(expected.findByTitle("Event " + t), actual.findByTitle("Event " + t));
+        }
+        assertEquals(expected.findByTitlePrefix("event 1"), actual.findByTitlePrefix("EVENT 1"));
+        for (Event candidate : AgendaIndexTest.randomEvents(random, 100)) {
+            assertEquals(expected.isFreeFor(candidate), actual.isFreeFor(candidate), candidate.toString());
+        }
+    }
+
+    @Test
+    void single_threaded_results_match_Agenda() {
+        Random random = new Random(5);
+        List<Event> events = AgendaIndexTest.randomEvents(random, 400);
+        events.add(new Event("Long", LocalDateTime.of(2020, 11, 20, 8, 0), Duration.ofDays(20)));
+        Agenda agenda = new Agenda();
+        ConcurrentAgenda concurrent = new ConcurrentAgenda();
+        for (Event e : events) {
+            agenda.addEvent(e);
+            concurrent.addEvent(e);
+        }
+        assertEquals(events.size(), concurrent.size());
+        assertSameAnswers(agenda, concurrent, random);
+    }
+
+    @Test
+    void event_becoming_repetitive_is_reindexed() {
+        ConcurrentAgenda agenda = new ConcurrentAgenda();
+        Event e = new Event("Daily", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60));
+        agenda.addEvent(e);
+        e.setRepetition(ChronoUnit.DAYS);
+        assertEquals(List.of(e), agenda.eventsInDay(LocalDate.of(2020, 11, 5)));
+        assertEquals(List.of(e), agenda.eventsInDay(LocalDate.of(2020, 11, 1)));
+    }
+
+    /**
+     * Sans ordre global entre écrivains : même ensemble que prévu, et pour chaque écrivain ses événements
+     * dans l'ordre où il les a ajoutés
+     */
+    static void assertSameUpToWriterOrder(List<Event> expected, List<Event> actual, List<List<Event>> slices,
+                                          String message) {
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual), message);
+        assertEquals(expected.size(), actual.size(), message);
+        for (List<Event> slice : slices) {
+            Set<Event> written = new HashSet<>(slice);
+            assertEquals(expected.stream().filter(written::contains).toList(),
+                actual.stream().filter(written::contains).toList(), message);
+        }
+    }
+
+    @Test
+    void concurrent_readers_and_writers_end_with_the_same_results() throws Exception {
+        Random random = new Random(9);
+        List<Event> events = AgendaIndexTest.randomEvents(random, 4000);
+        ConcurrentAgenda concurrent = new ConcurrentAgenda();
+        int writers = 4;
+        int readers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<List<Event>> slices = new ArrayList<>();
+        List<Future<?>> writes = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            List<Event> slice = events.subList(w * events.size() / writers, (w + 1) * events.size() / writers);
+            slices.add(slice);
+            writes.add(pool.submit(() -> {
+                start.await();
+                for (Event e : slice) {
+                    concurrent.addEvent(e);
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> reads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            int seed = r;
+            reads.add(pool.submit(() -> {
+                start.await();
+                Random local = new Random(seed);
+                HashSet<Event> known = new HashSet<>(events);
+                while (writing.get()) {
+                    LocalDate day = ORIGIN.plusDays(local.nextInt(200));
+                    for (Event e : concurrent.eventsInDay(day)) {
+                        assertTrue(known.contains(e) && e.isInDay(day));
+                    }
+                    concurrent.findByTitle("Event " + local.nextInt(20));
+                    concurrent.isFreeFor(events.get(local.nextInt(events.size())));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : writes) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> f : reads) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // L'entrelacement des écrivains n'est pas connu : on compare à un Agenda rempli dans l'ordre de la liste
+        Agenda expected = new Agenda();
+        events.forEach(expected::addEvent);
+        assertEquals(events.size(), concurrent.size());
+        for (int d = -5; d < 250; d++) {
+            LocalDate day = ORIGIN.plusDays(d);
+            assertSameUpToWriterOrder(expected.eventsInDay(day), concurrent.eventsInDay(day), slices, day.toString());
+        }
+        for (int t = 0; t < 20; t++) {
+            assertSameUpToWriterOrder(expected.findByTitle("Event " + t), concurrent.findByTitle("Event " + t),
+                slices, "Event " + t);
+        }
+        assertSameUpToWriterOrder(expected.findByTitlePrefix("event 1"), concurrent.findByTitlePrefix("EVENT 1"),
+            slices, "EVENT 1");
+        for (Event candidate : AgendaIndexTest.randomEvents(random, 100)) {
+            assertEquals(expected.isFreeFor(candidate), concurrent.isFreeFor(candidate), candidate.toString());
+        }
+    }
+}
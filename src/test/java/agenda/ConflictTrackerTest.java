@@ -0,0 +1,118 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ConflictTrackerTest {
+
+    LocalDateTime nov_1__2020_8_00 = LocalDateTime.of(2020, 11, 1, 8, 0);
+
+    /**
+     * Les conflits par force brute : toutes les paires d'occurrences de la fenêtre, comptées sans ordre
+     */
+    static Map<Conflict, Integer> bruteForce(Agenda agenda, LocalDateTime from, LocalDateTime to) {
+        List<Occurrence> all = agenda.eventsBetween(from, to).toList();
+        Map<Conflict, Integer> counts = new HashMap<>();
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = i + 1; j < all.size(); j++) {
+                if (Conflict.overlap(all.get(i), all.get(j))) {
+                    counts.merge(new Conflict(all.get(i), all.get(j)), 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    static Map<Conflict, Integer> counts(List<Conflict> conflicts) {
+        Map<Conflict, Integer> counts = new HashMap<>();
+        for (Conflict c : conflicts) {
+            counts.merge(c, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void sweep_reports_every_overlapping_pair() {
+        Agenda agenda = new Agenda();
+        Event long_ = new Event("Long", nov_1__2020_8_00, Duration.ofHours(4));
+        Event a = new Event("A", nov_1__2020_8_00.plusHours(1), Duration.ofHours(1));
+        Event b = new Event("B", nov_1__2020_8_00.plusHours(2), Duration.ofHours(1));     // Touche A sans la chevaucher
+        Event instant = new Event("Instant", nov_1__2020_8_00.plusHours(2), Duration.ZERO); // Début de B : pas de conflit
+        Event daily = new Event("Daily", nov_1__2020_8_00.plusMinutes(150), Duration.ofMinutes(15));
+        daily.setRepetition(ChronoUnit.DAYS);
+        for (Event e : List.of(long_, a, b, instant, daily)) {
+            agenda.addEvent(e);
+        }
+        LocalDateTime from = nov_1__2020_8_00;
+        List<Conflict> conflicts = agenda.conflicts(from, from.plusDays(3));
+        assertEquals(Map.of(
+            new Conflict(new Occurrence(long_, from, from.plusHours(4)), new Occurrence(a, from.plusHours(1), from.plusHours(2))), 1,
+            new Conflict(new Occurrence(long_, from, from.plusHours(4)), new Occurrence(b, from.plusHours(2), from.plusHours(3))), 1,
+            new Conflict(new Occurrence(long_, from, from.plusHours(4)), new Occurrence(instant, from.plusHours(2), from.plusHours(2))), 1,
+            new Conflict(new Occurrence(long_, from, from.plusHours(4)), new Occurrence(daily, from.plusMinutes(150), from.plusMinutes(165))), 1,
+            new Conflict(new Occurrence(b, from.plusHours(2), from.plusHours(3)), new Occurrence(daily, from.plusMinutes(150), from.plusMinutes(165))), 1),
+            counts(conflicts));
+    }
+
+    @Test
+    void sweep_and_tracker_match_brute_force() {
+        Random random = new Random(19);
+        List<Event> events = AgendaIndexTest.randomEvents(random, 200);
+        LocalDateTime from = AgendaIndexTest.ORIGIN.atStartOfDay().plusDays(20);
+        LocalDateTime to = from.plusDays(15);
+        Agenda agenda = new Agenda();
+        agenda.addAll(events.subList(0, 50));
+        ConflictTracker tracker = ConflictTracker.attach(agenda, from, to);
+        agenda.addAll(events.subList(50, 150));
+        for (Event e : events.subList(150, 200)) {
+            agenda.addEvent(e);
+        }
+        agenda.addEvent(events.get(3)); // Ajouté deux fois : en conflit avec lui-même
+        Map<Conflict, Integer> expected = bruteForce(agenda, from, to);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, counts(agenda.conflicts(from, to)));
+        assertEquals(expected, counts(tracker.conflicts()));
+
+        // Modifications après l'ajout : seuls les conflits des événements modifiés sont recalculés
+        for (Event e : events.subList(0, 40)) {
+            if (e.isRepetitive()) {
+                e.addException(e.getStart().toLocalDate().plusDays(21));
+            } else {
+                e.setRepetition(ChronoUnit.WEEKS);
+            }
+        }
+        events.get(3).setRepetition(ChronoUnit.DAYS);
+        expected = bruteForce(agenda, from, to);
+        assertEquals(expected, counts(agenda.conflicts(from, to)));
+        assertEquals(expected, counts(tracker.conflicts()));
+        assertEquals(tracker.conflicts().size(), tracker.size());
+    }
+
+    @Test
+    void a_detached_tracker_stops_following_the_agenda_and_its_events() {
+        Agenda agenda = new Agenda();
+        Event a = new Event("A", nov_1__2020_8_00, Duration.ofHours(2));
+        Event b = new Event("B", nov_1__2020_8_00.plusHours(1), Duration.ofHours(2));
+        agenda.addEvent(a);
+        agenda.addEvent(b);
+        LocalDateTime from = nov_1__2020_8_00.minusDays(1);
+        LocalDateTime to = nov_1__2020_8_00.plusDays(7);
+        List<Conflict> before;
+        try (ConflictTracker tracker = ConflictTracker.attach(agenda, from, to)) {
+            before = tracker.conflicts();
+            assertEquals(1, before.size());
+            tracker.detach();
+            agenda.addEvent(new Event("C", nov_1__2020_8_00, Duration.ofHours(3)));
+            a.setRepetition(ChronoUnit.DAYS);
+            assertEquals(before, tracker.conflicts());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DayCacheTest {
+
+    LocalDate nov_1_2020 = LocalDate.of(2020, 11, 1);
+    LocalDateTime nov_1__2020_22_30 = LocalDateTime.of(2020, 11, 1, 22, 30);
+
+    Agenda agenda;
+    Event weekly;
+
+    @BeforeEach
+    void setUp() {
+        agenda = new Agenda(4);
+        weekly = new Event("Weekly", nov_1__2020_22_30, Duration.ofMinutes(120));
+        weekly.setRepetition(ChronoUnit.WEEKS);
+        agenda.addEvent(weekly);
+    }
+
+    @Test
+    void repeated_queries_are_served_from_the_cache() {
+        assertEquals(List.of(weekly), agenda.eventsInDay(nov_1_2020));
+        assertEquals(List.of(weekly), agenda.eventsInDay(nov_1_2020));
+        assertEquals(new CacheStats(1, 1, 1, 4), agenda.dayCacheStats());
+        agenda.eventsInDay(nov_1_2020).clear();
+        assertEquals(List.of(weekly), agenda.eventsInDay(nov_1_2020), "The cached result is not shared");
+    }
+
+    @Test
+    void least_recently_used_days_are_evicted() {
+        for (int i = 0; i < 5; i++) {
+            agenda.eventsInDay(nov_1_2020.plusDays(i));
+        }
+        agenda.eventsInDay(nov_1_2020.plusDays(4)); // En cache
+        agenda.eventsInDay(nov_1_2020); // Évincé
+        CacheStats stats = agenda.dayCacheStats();
+        assertEquals(1, stats.hits());
+        assertEquals(6, stats.misses());
+        assertEquals(4, stats.size());
+    }
+
+    @Test
+    void adding_a_multi_day_event_invalidates_only_its_days() {
+        agenda.eventsInDay(nov_1_2020);
+        agenda.eventsInDay(nov_1_2020.plusDays(1));
+        agenda.eventsInDay(nov_1_2020.plusDays(3));
+        Event overnight = new Event("Overnight", nov_1__2020_22_30, Duration.ofHours(10));
+        agenda.addEvent(overnight);
+        assertEquals(1, agenda.dayCacheStats().size(), "Nov 1st and 2nd invalidated, Nov 4th kept");
+        assertEquals(List.of(weekly, overnight), agenda.eventsInDay(nov_1_2020));
+        assertEquals(List.of(overnight), agenda.eventsInDay(nov_1_2020.plusDays(1)));
+    }
+
+    @Test
+    void exceptions_and_terminations_invalidate_cached_days() {
+        LocalDate nextWeek = nov_1_2020.plusWeeks(1);
+        LocalDate inTwoWeeks = nov_1_2020.plusWeeks(2);
+        assertEquals(List.of(weekly), agenda.eventsInDay(nextWeek));
+        assertEquals(List.of(weekly), agenda.eventsInDay(inTwoWeeks));
+        weekly.addException(nextWeek);
+        assertEquals(List.of(), agenda.eventsInDay(nextWeek));
+        weekly.setTermination(nov_1_2020.plusDays(10));
+        assertEquals(List.of(), agenda.eventsInDay(inTwoWeeks));
+        // Le jour de la terminaison compte toujours comme une occurrence
+        assertEquals(List.of(weekly), agenda.eventsInDay(nov_1_2020.plusDays(10)));
+    }
+
+    @Test
+    void a_single_event_becoming_repetitive_invalidates_its_new_days() {
+        Event single = new Event("Single", nov_1__2020_22_30, Duration.ofMinutes(30));
+        agenda.addEvent(single);
+        LocalDate tomorrow = nov_1_2020.plusDays(1);
+        assertEquals(List.of(), agenda.eventsInDay(tomorrow));
+        single.setRepetition(ChronoUnit.DAYS);
+        assertEquals(List.of(single), agenda.eventsInDay(tomorrow));
+    }
+
+    @Test
+    void a_result_computed_before_an_invalidation_is_not_cached() {
+        DayCache cache = new DayCache(4);
+        long day = nov_1_2020.toEpochDay();
+        long version = cache.version();
+        // Calcul en cours pendant qu'un événement est ajouté ce jour-là
+        cache.invalidate(new Event("Added", nov_1__2020_22_30, Duration.ofMinutes(30)));
+        cache.put(day, List.of(weekly), version);
+        assertNull(cache.get(day));
+        cache.put(day, List.of(weekly), cache.version());
+        assertEquals(List.of(weekly), cache.get(day));
+    }
+
+    @Test
+    void a_changed_event_invalidates_the_days_where_it_was_cached() {
+        LocalDate nextWeek = nov_1_2020.plusWeeks(1);
+        agenda.eventsInDay(nov_1_2020);
+        agenda.eventsInDay(nextWeek);
+        agenda.eventsInDay(nov_1_2020.plusDays(5));
+        weekly.setTermination(nov_1_2020.plusDays(2));
+        assertEquals(1, agenda.dayCacheStats().size(), "Only the day without the event is kept");
+        assertEquals(List.of(), agenda.eventsInDay(nextWeek));
+    }
+
+    @Test
+    void cached_results_match_an_agenda_without_cache() {
+        Random random = new Random(10);
+        Agenda cached = new Agenda(8);
+        Agenda uncached = new Agenda(0);
+        List<Event> events = AgendaIndexTest.randomEvents(random, 200);
+        for (int i = 0; i < events.size(); i++) {
+            Event e = events.get(i);
+            cached.addEvent(e);
+            uncached.addEvent(e);
+            if (e.isRepetitive() && i % 3 == 0) {
+                e.addException(e.getStart().toLocalDate().plusDays(random.nextInt(30)));
+            }
+            for (int q = 0; q < 5; q++) {
+                LocalDate day = AgendaIndexTest.ORIGIN.plusDays(random.nextInt(12));
+                assertEquals(uncached.eventsInDay(day), cached.eventsInDay(day), "Day " + day);
+            }
+        }
+        assertTrue(cached.dayCacheStats().hits() > 0);
+        assertEquals(0, uncached.dayCacheStats().size());
+    }
+}
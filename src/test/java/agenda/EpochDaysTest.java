@@ -0,0 +1,31 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+public class EpochDaysTest {
+
+    @Test
+    void matches_LocalDate_over_several_centuries() {
+        for (long day = LocalDate.of(1600, 1, 1).toEpochDay(); day < LocalDate.of(2400, 1, 1).toEpochDay(); day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            assertEquals(date.getDayOfMonth(), EpochDays.dayOfMonth(day));
+            assertEquals(day, EpochDays.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    void nextDayOfMonth_skips_short_months() {
+        long jan31 = LocalDate.of(2021, 1, 31).toEpochDay();
+        assertEquals(jan31, EpochDays.nextDayOfMonth(jan31, 31));
+        assertEquals(LocalDate.of(2021, 3, 31).toEpochDay(), EpochDays.nextDayOfMonth(jan31 + 1, 31));
+        assertEquals(LocalDate.of(2023, 3, 29).toEpochDay(),
+            EpochDays.nextDayOfMonth(LocalDate.of(2023, 2, 1).toEpochDay(), 29));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(),
+            EpochDays.nextDayOfMonth(LocalDate.of(2024, 2, 1).toEpochDay(), 29));
+        assertEquals(LocalDate.of(2022, 1, 30).toEpochDay(),
+            EpochDays.nextDayOfMonth(LocalDate.of(2021, 12, 31).toEpochDay(), 30));
+    }
+}
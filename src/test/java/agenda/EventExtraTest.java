@@ -6,6 +6,11 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 
 public class EventExtraTest {
@@ -70,4 +75,33 @@ public class EventExtraTest {
         assertTrue(s.contains("Event{"));
         assertTrue(s.contains("Str"));
     }
+
+    @Test
+    void equal_titles_share_one_instance_across_threads() throws Exception {
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    String[] titles = new String[100];
+                    for (int i = 0; i < titles.length; i++) {
+                        titles[i] = new Event(new String("Titre " + i), LocalDateTime.of(2020, 11, 1, 10, 0),
+                            Duration.ofMinutes(30)).getTitle();
+                    }
+                    return titles;
+                }));
+            }
+            String[] first = results.get(0).get();
+            for (Future<String[]> result : results) {
+                String[] titles = result.get();
+                for (int i = 0; i < titles.length; i++) {
+                    assertSame(first[i], titles[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertNull(Event.internTitle(null));
+    }
 }
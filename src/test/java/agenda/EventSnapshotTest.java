@@ -0,0 +1,77 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class EventSnapshotTest {
+
+    LocalDate nov_1_2020 = LocalDate.of(2020, 11, 1);
+    LocalDateTime nov_1__2020_22_30 = LocalDateTime.of(2020, 11, 1, 22, 30);
+    Duration min_120 = Duration.ofMinutes(120);
+
+    @Test
+    void freeze_is_not_affected_by_later_changes() {
+        Event e = new Event("Simple event", nov_1__2020_22_30, min_120);
+        EventSnapshot before = e.freeze();
+        e.setRepetition(ChronoUnit.WEEKS);
+        e.addException(nov_1_2020.plusWeeks(1));
+        EventSnapshot after = e.freeze();
+
+        assertFalse(before.isRepetitive());
+        assertFalse(before.isInDay(nov_1_2020.plusWeeks(2)));
+        assertTrue(after.isInDay(nov_1_2020.plusWeeks(2)));
+        assertFalse(after.isInDay(nov_1_2020.plusWeeks(1)));
+        assertSame(after, e.freeze(), "No copy while the event does not change");
+    }
+
+    @Test
+    void derived_values_are_precomputed() {
+        EventSnapshot simple = new Event("Simple event", nov_1__2020_22_30, min_120).freeze();
+        assertEquals(LocalDateTime.of(2020, 11, 2, 0, 30), simple.end());
+        assertEquals(nov_1_2020, simple.lastOccurrence());
+
+        EventSnapshot unbounded = EventSnapshot.builder("Weekly", nov_1__2020_22_30, min_120)
+            .repetition(ChronoUnit.WEEKS).build();
+        assertNull(unbounded.lastOccurrence());
+
+        EventSnapshot counted = EventSnapshot.builder("Weekly", nov_1__2020_22_30, min_120)
+            .repetition(ChronoUnit.WEEKS).termination(3).build();
+        assertEquals(nov_1_2020.plusWeeks(2), counted.lastOccurrence());
+        assertEquals(nov_1_2020.plusWeeks(2), counted.repetition().lastOccurrence());
+    }
+
+    @Test
+    void builder_and_toEvent_give_the_same_answers() {
+        EventSnapshot frozen = EventSnapshot.builder("Daily", nov_1__2020_22_30, min_120)
+            .repetition(ChronoUnit.DAYS)
+            .exception(nov_1_2020.plusDays(3))
+            .exception(nov_1_2020.plusDays(1))
+            .termination(nov_1_2020.plusDays(5))
+            .build();
+        assertEquals(List.of(nov_1_2020.plusDays(1), nov_1_2020.plusDays(3)), frozen.repetition().exceptions());
+
+        Event copy = frozen.toEvent();
+        for (int i = -1; i < 10; i++) {
+            LocalDate day = nov_1_2020.plusDays(i);
+            assertEquals(frozen.isInDay(day), copy.isInDay(day), "Day " + day);
+        }
+        assertEquals(frozen.lastOccurrence(), copy.freeze().lastOccurrence());
+    }
+
+    @Test
+    void repetition_snapshot_is_immutable() {
+        Event e = new Event("Monthly", nov_1__2020_22_30, min_120);
+        e.setRepetition(ChronoUnit.MONTHS);
+        RepetitionSnapshot repetition = e.freeze().repetition();
+        e.addException(nov_1_2020.plusMonths(1));
+        assertTrue(repetition.isRecurringOn(nov_1_2020.plusMonths(1)));
+        assertEquals(List.of(), repetition.exceptions());
+        assertThrows(UnsupportedOperationException.class, () -> repetition.exceptions().add(nov_1_2020));
+    }
+}
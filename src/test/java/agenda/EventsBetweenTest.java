@@ -0,0 +1,116 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class EventsBetweenTest {
+
+    static final LocalDate ORIGIN = LocalDate.of(2020, 11, 1);
+
+    @Test
+    void day_window_matches_eventsInDay_for_events_within_a_day() {
+        Random random = new Random(3);
+        ChronoUnit[] frequencies = {ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS};
+        Agenda agenda = new Agenda();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime start = ORIGIN.atTime(1 + random.nextInt(19), 0).plusDays(random.nextInt(60));
+            Event e = new Event("E" + i, start, Duration.ofMinutes(1 + random.nextInt(180)));
+            if (random.nextBoolean()) {
+                e.setRepetition(frequencies[random.nextInt(frequencies.length)]);
+                e.addException(start.toLocalDate().plusDays(random.nextInt(30)));
+                if (random.nextBoolean()) {
+                    e.setTermination(1 + random.nextInt(8));
+                }
+            }
+            agenda.addEvent(e);
+        }
+        for (int d = -2; d < 150; d++) {
+            LocalDate day = ORIGIN.plusDays(d);
+            List<Event> occurring = agenda.eventsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay())
+                .map(Occurrence::event)
+                .collect(Collectors.toList());
+            assertEquals(new HashSet<>(agenda.eventsInDay(day)), new HashSet<>(occurring), day.toString());
+            assertEquals(occurring.size(), new HashSet<>(occurring).size());
+        }
+    }
+
+    @Test
+    void occurrences_are_sorted_by_start() {
+        Agenda agenda = new Agenda();
+        Event daily = new Event("Daily", LocalDateTime.of(2020, 11, 1, 12, 0), Duration.ofMinutes(30));
+        daily.setRepetition(ChronoUnit.DAYS);
+        Event weekly = new Event("Weekly", LocalDateTime.of(2020, 11, 2, 9, 0), Duration.ofMinutes(30));
+        weekly.setRepetition(ChronoUnit.WEEKS);
+        Event simple = new Event("Simple", LocalDateTime.of(2020, 11, 5, 8, 0), Duration.ofMinutes(30));
+        agenda.addEvent(daily);
+        agenda.addEvent(weekly);
+        agenda.addEvent(simple);
+        List<Occurrence> week = agenda.eventsBetween(LocalDateTime.of(2020, 11, 2, 0, 0), LocalDateTime.of(2020, 11, 9, 0, 0))
+            .collect(Collectors.toList());
+        assertEquals(9, week.size());
+        List<LocalDateTime> starts = new ArrayList<>();
+        week.forEach(o -> starts.add(o.start()));
+        List<LocalDateTime> sorted = new ArrayList<>(starts);
+        sorted.sort(null);
+        assertEquals(sorted, starts);
+        assertEquals(weekly, week.get(0).event());
+        assertEquals(LocalDateTime.of(2020, 11, 2, 9, 30), week.get(0).end());
+    }
+
+    @Test
+    void far_window_of_a_never_ending_event_is_computed_lazily() {
+        Agenda agenda = new Agenda();
+        Event daily = new Event("Daily", LocalDateTime.of(2020, 11, 1, 12, 0), Duration.ofMinutes(30));
+        daily.setRepetition(ChronoUnit.DAYS);
+        agenda.addEvent(daily);
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        assertEquals(7, agenda.eventsBetween(from, from.plusWeeks(1)).count());
+        assertEquals(from.plusHours(12),
+            agenda.eventsBetween(from, LocalDateTime.MAX).findFirst().orElseThrow().start());
+    }
+
+    @Test
+    void occurrence_overflowing_from_previous_day_is_in_window() {
+        Agenda agenda = new Agenda();
+        Event late = new Event("Late", LocalDateTime.of(2020, 11, 1, 23, 30), Duration.ofMinutes(120));
+        late.setRepetition(ChronoUnit.WEEKS);
+        agenda.addEvent(late);
+        List<Occurrence> result = agenda.eventsBetween(LocalDateTime.of(2020, 11, 9, 0, 0), LocalDateTime.of(2020, 11, 9, 1, 0))
+            .collect(Collectors.toList());
+        assertEquals(1, result.size());
+        assertEquals(LocalDateTime.of(2020, 11, 8, 23, 30), result.get(0).start());
+    }
+
+    @Test
+    void excepted_and_terminated_occurrences_are_skipped() {
+        Agenda agenda = new Agenda();
+        Event monthly = new Event("Monthly", LocalDateTime.of(2021, 1, 31, 10, 0), Duration.ofMinutes(60));
+        monthly.setRepetition(ChronoUnit.MONTHS);
+        monthly.addException(LocalDate.of(2021, 3, 31));
+        monthly.setTermination(LocalDate.of(2021, 8, 31));
+        agenda.addEvent(monthly);
+        List<LocalDate> days = agenda.eventsBetween(LocalDateTime.of(2021, 1, 1, 0, 0), LocalDateTime.of(2022, 1, 1, 0, 0))
+            .map(o -> o.start().toLocalDate())
+            .collect(Collectors.toList());
+        assertEquals(List.of(LocalDate.of(2021, 1, 31), LocalDate.of(2021, 5, 31),
+            LocalDate.of(2021, 7, 31), LocalDate.of(2021, 8, 31)), days);
+    }
+
+    @Test
+    void empty_window_has_no_occurrence() {
+        Agenda agenda = new Agenda();
+        agenda.addEvent(new Event("Simple", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60)));
+        LocalDateTime t = LocalDateTime.of(2020, 11, 1, 10, 30);
+        assertEquals(0, agenda.eventsBetween(t, t).count());
+    }
+}
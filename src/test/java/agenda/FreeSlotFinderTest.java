@@ -0,0 +1,77 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class FreeSlotFinderTest {
+
+    LocalDateTime nov_1__2020_8_00 = LocalDateTime.of(2020, 11, 1, 8, 0);
+
+    /**
+     * Le premier début libre par force brute : un événement candidat tous les quarts d'heure, testé par isFreeFor
+     */
+    static Optional<LocalDateTime> bruteForce(Duration length, LocalDateTime from, LocalDateTime to, List<Agenda> agendas) {
+        for (LocalDateTime start = from; !start.plus(length).isAfter(to); start = start.plusMinutes(15)) {
+            Event candidate = new Event("Candidate", start, length);
+            if (agendas.stream().allMatch(a -> a.isFreeFor(candidate))) {
+                return Optional.of(start);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Test
+    void finds_gaps_between_single_and_recurring_occurrences() {
+        Agenda room = new Agenda();
+        Agenda person = new Agenda();
+        room.addEvent(new Event("Booked", nov_1__2020_8_00, Duration.ofHours(2)));            // 8h-10h
+        person.addEvent(new Event("Call", nov_1__2020_8_00.plusHours(2), Duration.ofMinutes(30))); // 10h-10h30
+        person.addEvent(new Event("Instant", nov_1__2020_8_00.plusHours(3), Duration.ZERO));
+        Event lunch = new Event("Lunch", nov_1__2020_8_00.plusHours(4), Duration.ofHours(1));  // 12h-13h chaque jour
+        lunch.setRepetition(ChronoUnit.DAYS);
+        room.addEvent(lunch);
+
+        LocalDateTime from = nov_1__2020_8_00;
+        LocalDateTime to = nov_1__2020_8_00.plusDays(2);
+        List<FreeSlot> slots = FreeSlotFinder.earliest(Duration.ofHours(1), from, to, 3, List.of(room, person));
+        assertEquals(List.of(
+            new FreeSlot(from.plusHours(3), from.plusHours(4)),       // 11h-12h (10h30-11h est trop court)
+            new FreeSlot(from.plusHours(5), from.plusHours(28)),      // 13h-12h le lendemain
+            new FreeSlot(from.plusHours(29), to)), slots);
+        assertEquals(Optional.of(slots.get(0)), FreeSlotFinder.first(Duration.ofHours(1), from, to, List.of(room, person)));
+        // Trop long pour le créneau de 11h
+        assertEquals(from.plusHours(5),
+            FreeSlotFinder.first(Duration.ofHours(2), from, to, List.of(room, person)).orElseThrow().start());
+        assertEquals(Optional.empty(), FreeSlotFinder.first(Duration.ofDays(1), from, to, List.of(room, person)));
+    }
+
+    @Test
+    void first_slot_matches_brute_force() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 20; trial++) {
+            List<Agenda> agendas = AgendaFederationTest.randomAgendas(random, 3);
+            LocalDateTime from = AgendaIndexTest.ORIGIN.atStartOfDay().plusDays(random.nextInt(60));
+            LocalDateTime to = from.plusDays(3);
+            Duration length = Duration.ofMinutes(15L * (1 + random.nextInt(16)));
+            assertEquals(bruteForce(length, from, to, agendas),
+                FreeSlotFinder.first(length, from, to, agendas).map(FreeSlot::start), "trial " + trial);
+        }
+    }
+
+    @Test
+    void federation_searches_all_its_agendas() {
+        List<Agenda> agendas = AgendaFederationTest.randomAgendas(new Random(18), 10);
+        LocalDateTime from = AgendaIndexTest.ORIGIN.atStartOfDay();
+        try (AgendaFederation federation = new AgendaFederation(agendas, 2)) {
+            assertEquals(FreeSlotFinder.earliest(Duration.ofHours(1), from, from.plusDays(30), 5, agendas),
+                federation.commonFreeSlots(Duration.ofHours(1), from, from.plusDays(30), 5));
+        }
+    }
+}
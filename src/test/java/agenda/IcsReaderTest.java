@@ -0,0 +1,189 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class IcsReaderTest {
+
+    static final String CALENDAR = String.join("\r\n",
+        "BEGIN:VCALENDAR",
+        "VERSION:2.0",
+        "PRODID:-//Test//Agenda//FR",
+        "BEGIN:VEVENT",
+        "UID:1",
+        "SUMMARY:Réunion\\, équipe\\; hebdo",
+        "DTSTART;TZID=Europe/Paris:20201101T223000",
+        "DTEND;TZID=Europe/Paris:20201102T003000",
+        "RRULE:FREQ=WEEKLY;COUNT=3",
+        "EXDATE;TZID=Europe/Paris:20201108T223000,20201115T223000",
+        "BEGIN:VALARM",
+        "ACTION:DISPLAY",
+        "DESCRIPTION:Rappel",
+        "TRIGGER:-PT15M",
+        "END:VALARM",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:Un titre très long, replié sur",
+        "  deux lignes",
+        "DTSTART;VALUE=DATE:20201225",
+        "RRULE:FREQ=MONTHLY;UNTIL=20210325T000000Z",
+        "EXDATE;VALUE=DATE:20210125",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:Daily",
+        "DTSTART:20201101T080000Z",
+        "DURATION:PT1H30M",
+        "RRULE:FREQ=DAILY",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:Yearly",
+        "DTSTART:20201101T080000",
+        "DURATION:P1W",
+        "RRULE:FREQ=YEARLY",
+        "END:VEVENT",
+        "END:VCALENDAR",
+        "");
+
+    @Test
+    void events_repetitions_and_terminations_are_mapped() throws IOException {
+        try (IcsReader reader = new IcsReader(new StringReader(CALENDAR))) {
+            Event weekly = reader.nextEvent();
+            assertEquals("Réunion, équipe; hebdo", weekly.getTitle());
+            assertEquals(LocalDateTime.of(2020, 11, 1, 22, 30), weekly.getStart());
+            assertEquals(Duration.ofHours(2), weekly.getDuration());
+            assertTrue(weekly.isRepetitive());
+            assertEquals(3, weekly.getNumberOfOccurrences());
+            assertEquals(List.of(LocalDate.of(2020, 11, 8), LocalDate.of(2020, 11, 15)),
+                weekly.freeze().repetition().exceptions());
+
+            Event monthly = reader.nextEvent();
+            assertEquals("Un titre très long, replié sur deux lignes", monthly.getTitle());
+            assertEquals(LocalDateTime.of(2020, 12, 25, 0, 0), monthly.getStart());
+            assertEquals(Duration.ofDays(1), monthly.getDuration());
+            assertEquals(ChronoUnit.MONTHS, monthly.freeze().repetition().frequency());
+            assertEquals(LocalDate.of(2021, 3, 25), monthly.getTerminationDate());
+            assertFalse(monthly.isInDay(LocalDate.of(2021, 1, 25)));
+            assertTrue(monthly.isInDay(LocalDate.of(2021, 2, 25)));
+
+            Event daily = reader.nextEvent();
+            assertEquals(LocalDateTime.of(2020, 11, 1, 8, 0), daily.getStart());
+            assertEquals(Duration.ofMinutes(90), daily.getDuration());
+            assertNull(daily.freeze().lastOccurrence());
+
+            Event yearly = reader.nextEvent();
+            assertFalse(yearly.isRepetitive(), "FREQ=YEARLY cannot be represented");
+            assertEquals(Duration.ofDays(7), yearly.getDuration());
+            assertEquals(1, reader.unsupportedRules());
+
+            assertNull(reader.nextEvent());
+        }
+    }
+
+    @Test
+    void rules_written_by_common_calendars_are_accepted() throws IOException {
+        String ics = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "BEGIN:VEVENT",
+            "SUMMARY:Point hebdo",
+            "DTSTART;TZID=Europe/Paris:20201103T093000",
+            "DTEND;TZID=Europe/Paris:20201103T100000",
+            "RRULE:FREQ=WEEKLY;WKST=MO;UNTIL=20210126T225959Z;BYDAY=TU",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Loyer",
+            "DTSTART;VALUE=DATE:20201115",
+            "RRULE:FREQ=MONTHLY;COUNT=6;BYMONTHDAY=15",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Sport",
+            "DTSTART:20201102T180000",
+            "DURATION:PT1H",
+            "RRULE:FREQ=WEEKLY;BYDAY=MO,WE",
+            "END:VEVENT",
+            "END:VCALENDAR",
+            "");
+        try (IcsReader reader = new IcsReader(new StringReader(ics))) {
+            Event weekly = reader.nextEvent();
+            assertEquals(ChronoUnit.WEEKS, weekly.freeze().repetition().frequency());
+            assertEquals(LocalDate.of(2021, 1, 26), weekly.getTerminationDate());
+            assertTrue(weekly.isInDay(LocalDate.of(2020, 11, 10)));
+
+            Event monthly = reader.nextEvent();
+            assertEquals(ChronoUnit.MONTHS, monthly.freeze().repetition().frequency());
+            assertEquals(6, monthly.getNumberOfOccurrences());
+
+            Event twiceAWeek = reader.nextEvent();
+            assertFalse(twiceAWeek.isRepetitive(), "Several days a week cannot be represented");
+            assertEquals(1, reader.unsupportedRules());
+        }
+    }
+
+    @Test
+    void until_off_the_step_ends_the_rule_at_the_previous_occurrence() throws IOException {
+        String ics = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "BEGIN:VEVENT",
+            "SUMMARY:Lundi",
+            "DTSTART:20241202T090000",
+            "DURATION:PT1H",
+            "RRULE:FREQ=WEEKLY;UNTIL=20241231T235959Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Trop tôt",
+            "DTSTART:20241202T090000",
+            "DURATION:PT1H",
+            "RRULE:FREQ=DAILY;UNTIL=20241210T080000",
+            "END:VEVENT",
+            "END:VCALENDAR",
+            "");
+        try (IcsReader reader = new IcsReader(new StringReader(ics))) {
+            Event weekly = reader.nextEvent();
+            assertEquals(LocalDate.of(2024, 12, 30), weekly.getTerminationDate());
+            assertTrue(weekly.isInDay(LocalDate.of(2024, 12, 30)));
+            assertFalse(weekly.isInDay(LocalDate.of(2024, 12, 31)), "UNTIL is not an occurrence");
+
+            Event daily = reader.nextEvent();
+            // L'occurrence du 10 commencerait à 9 h, après UNTIL
+            assertEquals(LocalDate.of(2024, 12, 9), daily.getTerminationDate());
+            assertFalse(daily.isInDay(LocalDate.of(2024, 12, 10)));
+        }
+    }
+
+    @Test
+    void import_adds_events_in_batches_and_in_order() throws IOException {
+        int count = IcsReader.BATCH_SIZE * 2 + 17;
+        StringBuilder ics = new StringBuilder("BEGIN:VCALENDAR\r\n");
+        for (int i = 0; i < count; i++) {
+            ics.append("BEGIN:VEVENT\r\nSUMMARY:Event ").append(i)
+                .append("\r\nDTSTART:2020110").append(1 + i % 9).append("T100000\r\nDURATION:PT30M\r\nEND:VEVENT\r\n");
+        }
+        ics.append("END:VCALENDAR\r\n");
+        Agenda agenda = new Agenda();
+        long imported = IcsReader.importInto(agenda,
+            new ByteArrayInputStream(ics.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(count, imported);
+        assertEquals(count, agenda.events.size());
+        assertEquals("Event " + (count - 1), agenda.events.get(count - 1).getTitle());
+        assertEquals((count + 8) / 9, agenda.eventsInDay(LocalDate.of(2020, 11, 1)).size());
+    }
+
+    @Test
+    void malformed_events_are_reported() {
+        String noStart = "BEGIN:VEVENT\r\nSUMMARY:No start\r\nEND:VEVENT\r\n";
+        assertThrows(IOException.class, () -> new IcsReader(new StringReader(noStart)).nextEvent());
+        String unterminated = "BEGIN:VEVENT\r\nDTSTART:20201101T100000\r\n";
+        assertThrows(IOException.class, () -> new IcsReader(new StringReader(unterminated)).nextEvent());
+        String badDate = "BEGIN:VEVENT\r\nDTSTART:2020-11-01\r\nEND:VEVENT\r\n";
+        assertThrows(IOException.class, () -> new IcsReader(new StringReader(badDate)).nextEvent());
+    }
+}
@@ -0,0 +1,130 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class IcsWriterTest {
+
+    LocalDate nov_1_2020 = LocalDate.of(2020, 11, 1);
+    LocalDateTime nov_1__2020_22_30 = LocalDateTime.of(2020, 11, 1, 22, 30);
+
+    static Agenda reimport(byte[] ics) throws IOException {
+        Agenda agenda = new Agenda();
+        IcsReader.importInto(agenda, new ByteArrayInputStream(ics));
+        return agenda;
+    }
+
+    @Test
+    void an_exported_agenda_is_read_back_identically() throws IOException {
+        Agenda agenda = new Agenda();
+        for (Event e : AgendaIndexTest.randomEvents(new Random(14), 300)) {
+            agenda.addEvent(e);
+        }
+        Event weekly = new Event("Réunion, équipe; hebdo\\ " + "très ".repeat(20), nov_1__2020_22_30, Duration.ofMinutes(120));
+        weekly.setRepetition(ChronoUnit.WEEKS);
+        for (int i = 1; i < 20; i += 2) {
+            weekly.addException(nov_1_2020.plusWeeks(i));
+        }
+        weekly.setTermination(30);
+        agenda.addEvent(weekly);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (IcsWriter writer = new IcsWriter(out)) {
+            assertEquals(301, writer.write(agenda));
+            assertTrue(writer.unsupportedRules() > 0, "YEARS is written as X-AGENDA-RRULE");
+        }
+        byte[] ics = out.toByteArray();
+        for (String line : new String(ics, StandardCharsets.UTF_8).split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= IcsWriter.MAX_LINE_OCTETS, line);
+        }
+        JournaledAgendaTest.assertSameAgenda(agenda, reimport(ics));
+    }
+
+    @Test
+    void a_window_exports_only_the_events_touching_it() throws IOException {
+        Agenda agenda = new Agenda();
+        Event before = new Event("Before", nov_1__2020_22_30.minusDays(1), Duration.ofMinutes(90)); // Finit à minuit
+        Event spanning = new Event("Spanning", nov_1__2020_22_30, Duration.ofHours(3));
+        Event daily = new Event("Daily", nov_1__2020_22_30.minusDays(10), Duration.ofMinutes(30));
+        daily.setRepetition(ChronoUnit.DAYS);
+        Event ended = new Event("Ended", nov_1__2020_22_30.minusDays(10), Duration.ofMinutes(30));
+        ended.setRepetition(ChronoUnit.DAYS);
+        ended.setTermination(nov_1_2020.minusDays(2));
+        Event yearly = new Event("Yearly", nov_1__2020_22_30, Duration.ofMinutes(30));
+        yearly.setRepetition(ChronoUnit.YEARS);
+        for (Event e : List.of(before, spanning, daily, ended, yearly)) {
+            agenda.addEvent(e);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (IcsWriter writer = new IcsWriter(Channels.newChannel(out))) {
+            assertEquals(3, writer.write(agenda, nov_1_2020.plusDays(1).atStartOfDay(), nov_1_2020.plusDays(2).atStartOfDay()));
+            assertEquals(1, writer.unsupportedRules());
+        }
+        String ics = out.toString(StandardCharsets.UTF_8);
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n") && ics.endsWith("END:VCALENDAR\r\n"), ics);
+        assertTrue(ics.contains("RRULE:FREQ=DAILY\r\n"), ics);
+        assertTrue(ics.contains("X-AGENDA-RRULE:FREQ=YEARS\r\n"), ics);
+        assertFalse(ics.contains("Before") || ics.contains("Ended"), ics);
+
+        Agenda window = reimport(out.toByteArray());
+        assertEquals(List.of("Spanning", "Daily", "Yearly"), window.events.stream().map(Event::getTitle).toList());
+        assertTrue(window.events.get(1).isRepetitive());
+        assertEquals(ChronoUnit.YEARS, window.events.get(2).freeze().repetition().frequency());
+    }
+
+    static List<String> properties(byte[] ics, String name) {
+        return new String(ics, StandardCharsets.UTF_8).lines().filter(line -> line.startsWith(name + ":")).toList();
+    }
+
+    @Test
+    void uids_are_stable_across_exports_and_until_is_a_date_time() throws IOException {
+        Agenda agenda = new Agenda();
+        Event weekly = new Event("Weekly", nov_1__2020_22_30, Duration.ofMinutes(30));
+        weekly.setRepetition(ChronoUnit.WEEKS);
+        weekly.setTermination(nov_1_2020.plusWeeks(4));
+        Event twin = new Event("Weekly", nov_1__2020_22_30, Duration.ofMinutes(30));
+        agenda.addEvent(new Event("First", nov_1__2020_22_30, Duration.ofMinutes(10)));
+        agenda.addEvent(weekly);
+        agenda.addEvent(twin);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        try (IcsWriter writer = new IcsWriter(first)) {
+            writer.write(agenda);
+        }
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        try (IcsWriter writer = new IcsWriter(second)) {
+            writer.write(agenda, nov_1_2020.atStartOfDay(), nov_1_2020.plusDays(1).atStartOfDay());
+        }
+        List<String> uids = properties(first.toByteArray(), "UID");
+        assertEquals(3, uids.stream().distinct().count(), uids.toString());
+        assertEquals(uids, properties(second.toByteArray(), "UID"));
+
+        assertEquals(List.of("RRULE:FREQ=WEEKLY;UNTIL=20201129T235959"), properties(first.toByteArray(), "RRULE"));
+        assertEquals(nov_1_2020.plusWeeks(4), reimport(first.toByteArray()).events.get(1).getTerminationDate());
+    }
+
+    @Test
+    void durations_use_the_icalendar_syntax() {
+        assertEquals("PT0S", IcsWriter.duration(Duration.ZERO));
+        assertEquals("PT1H30M", IcsWriter.duration(Duration.ofMinutes(90)));
+        assertEquals("P2D", IcsWriter.duration(Duration.ofDays(2)));
+        assertEquals("P1DT5S", IcsWriter.duration(Duration.ofDays(1).plusSeconds(5)));
+        assertEquals("-PT45M", IcsWriter.duration(Duration.ofMinutes(-45)));
+        for (Duration d : List.of(Duration.ofMinutes(90), Duration.ofDays(2), Duration.ofMinutes(-45), Duration.ofSeconds(93_784))) {
+            assertEquals(d, IcsReader.duration(IcsWriter.duration(d)));
+        }
+    }
+}
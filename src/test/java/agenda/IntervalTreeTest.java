@@ -0,0 +1,114 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class IntervalTreeTest {
+
+    private static List<Long> overlapping(IntervalTree<String> tree, long low, long high) {
+        List<Long> ids = new ArrayList<>();
+        tree.forEachOverlapping(low, high, (value, id) -> ids.add(id));
+        ids.sort(null);
+        return ids;
+    }
+
+    @Test
+    void finds_only_overlapping_intervals() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(1, 3, 0, "a");
+        tree.insert(5, 5, 1, "b");
+        tree.insert(2, 10, 2, "c");
+        assertEquals(List.of(0L, 2L), overlapping(tree, 3, 3));
+        assertEquals(List.of(1L, 2L), overlapping(tree, 5, 5));
+        assertEquals(List.of(), overlapping(tree, 11, 20));
+        assertEquals(List.of(0L, 1L, 2L), overlapping(tree, 0, 5));
+    }
+
+    @Test
+    void removeAll_removes_every_interval_of_a_value() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        String a = "a";
+        tree.insert(4, 6, 0, a);
+        tree.insert(4, 4, 1, "b");
+        tree.insert(4, 8, 2, a);
+        assertArrayEquals(new long[]{0, 2}, tree.removeAll(4, a));
+        assertEquals(1, tree.size());
+        assertEquals(List.of(1L), overlapping(tree, 0, 10));
+        assertFalse(tree.remove(4, 0));
+    }
+
+    @Test
+    void matches_brute_force_after_random_inserts_and_removals() {
+        Random random = new Random(42);
+        IntervalTree<String> tree = new IntervalTree<>();
+        List<long[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            long low = random.nextInt(1000);
+            long high = low + random.nextInt(30);
+            tree.insert(low, high, id, "v");
+            intervals.add(new long[]{low, high, id});
+        }
+        for (int i = 0; i < 500; i++) {
+            long[] removed = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(tree.remove(removed[0], removed[2]));
+        }
+        assertEquals(intervals.size(), tree.size());
+        for (int q = 0; q < 200; q++) {
+            long low = random.nextInt(1050);
+            long high = low + random.nextInt(5);
+            List<Long> expected = new ArrayList<>();
+            for (long[] interval : intervals) {
+                if (interval[0] <= high && interval[1] >= low) {
+                    expected.add(interval[2]);
+                }
+            }
+            expected.sort(null);
+            assertEquals(expected, overlapping(tree, low, high));
+        }
+    }
+
+    @Test
+    void insertAll_matches_brute_force() {
+        Random random = new Random(43);
+        IntervalTree<String> tree = new IntervalTree<>();
+        List<long[]> intervals = new ArrayList<>();
+        int id = 0;
+        // Arbre vide, gros lot sur un arbre existant, petit lot (inséré un par un), puis suppressions
+        for (int batch : new int[]{1000, 1500, 20}) {
+            long[] lows = new long[batch];
+            long[] highs = new long[batch];
+            long[] ids = new long[batch];
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < batch; i++, id++) {
+                lows[i] = random.nextInt(1000);
+                highs[i] = lows[i] + random.nextInt(30);
+                ids[i] = id;
+                values.add("v");
+                intervals.add(new long[]{lows[i], highs[i], id});
+            }
+            tree.insertAll(lows, highs, ids, values);
+            assertEquals(intervals.size(), tree.size());
+        }
+        for (int i = 0; i < 300; i++) {
+            long[] removed = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(tree.remove(removed[0], removed[2]));
+        }
+        for (int q = 0; q < 200; q++) {
+            long low = random.nextInt(1050);
+            long high = low + random.nextInt(5);
+            List<Long> expected = new ArrayList<>();
+            for (long[] interval : intervals) {
+                if (interval[0] <= high && interval[1] >= low) {
+                    expected.add(interval[2]);
+                }
+            }
+            expected.sort(null);
+            assertEquals(expected, overlapping(tree, low, high));
+        }
+        assertEquals(intervals.stream().mapToLong(interval -> interval[1]).max().getAsLong(), tree.maxHigh());
+    }
+}
@@ -0,0 +1,184 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class IsFreeForTest {
+
+    static Event event(String title, LocalDateTime start, int minutes, ChronoUnit frequency) {
+        Event e = new Event(title, start, Duration.ofMinutes(minutes));
+        if (frequency != null) {
+            e.setRepetition(frequency);
+        }
+        return e;
+    }
+
+    @Test
+    void single_event_conflicts_with_a_later_weekly_occurrence() {
+        Agenda agenda = new Agenda();
+        agenda.addEvent(event("Weekly", LocalDateTime.of(2020, 11, 2, 9, 0), 60, ChronoUnit.WEEKS));
+        assertFalse(agenda.isFreeFor(event("Call", LocalDateTime.of(2021, 3, 1, 9, 30), 30, null)));
+        assertTrue(agenda.isFreeFor(event("Call", LocalDateTime.of(2021, 3, 2, 9, 30), 30, null)));
+        assertTrue(agenda.isFreeFor(event("Call", LocalDateTime.of(2021, 3, 1, 10, 0), 30, null)));
+    }
+
+    @Test
+    void repeating_candidate_conflicts_with_a_far_single_event() {
+        Agenda agenda = new Agenda();
+        agenda.addEvent(event("Trip", LocalDateTime.of(2023, 6, 14, 8, 0), 120, null));
+        assertFalse(agenda.isFreeFor(event("Stand-up", LocalDateTime.of(2020, 11, 2, 9, 0), 15, ChronoUnit.DAYS)));
+        assertTrue(agenda.isFreeFor(event("Stand-up", LocalDateTime.of(2020, 11, 2, 11, 0), 15, ChronoUnit.DAYS)));
+        Event terminated = event("Stand-up", LocalDateTime.of(2020, 11, 2, 9, 0), 15, ChronoUnit.DAYS);
+        terminated.setTermination(LocalDate.of(2023, 6, 13));
+        assertTrue(agenda.isFreeFor(terminated));
+    }
+
+    @Test
+    void never_ending_repetitions_on_different_days_are_compatible() {
+        Agenda agenda = new Agenda();
+        agenda.addEvent(event("Monday", LocalDateTime.of(2020, 11, 2, 9, 0), 60, ChronoUnit.WEEKS));
+        assertTrue(agenda.isFreeFor(event("Tuesday", LocalDateTime.of(2020, 11, 3, 9, 0), 60, ChronoUnit.WEEKS)));
+        assertFalse(agenda.isFreeFor(event("Monday again", LocalDateTime.of(2027, 1, 4, 9, 30), 60, ChronoUnit.WEEKS)));
+        assertFalse(agenda.isFreeFor(event("Monthly", LocalDateTime.of(2020, 11, 15, 9, 15), 10, ChronoUnit.MONTHS)));
+    }
+
+    @Test
+    void exceptions_can_free_the_only_conflicting_occurrence() {
+        Agenda agenda = new Agenda();
+        Event weekly = event("Weekly", LocalDateTime.of(2020, 11, 2, 9, 0), 60, ChronoUnit.WEEKS);
+        weekly.setTermination(3);
+        weekly.addException(LocalDate.of(2020, 11, 9));
+        agenda.addEvent(weekly);
+        assertTrue(agenda.isFreeFor(event("Call", LocalDateTime.of(2020, 11, 9, 9, 0), 60, null)));
+        assertFalse(agenda.isFreeFor(event("Call", LocalDateTime.of(2020, 11, 16, 9, 0), 60, null)));
+        assertTrue(agenda.isFreeFor(event("Call", LocalDateTime.of(2020, 11, 23, 9, 0), 60, null)));
+    }
+
+    /**
+     * Référence : on développe toutes les occurrences sur plusieurs années et on les compare deux à deux
+     */
+    static boolean bruteForceFree(List<Event> existing, Event candidate) {
+        LocalDateTime from = LocalDateTime.of(2019, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Agenda all = new Agenda();
+        existing.forEach(all::addEvent);
+        List<Occurrence> occurrences = all.eventsBetween(from, to).collect(Collectors.toList());
+        Agenda alone = new Agenda();
+        alone.addEvent(candidate);
+        for (Occurrence c : alone.eventsBetween(from, to).collect(Collectors.toList())) {
+            for (Occurrence o : occurrences) {
+                if (c.start().isBefore(o.end()) && c.end().isAfter(o.start())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void matches_brute_force_expansion() {
+        Random random = new Random(11);
+        ChronoUnit[] frequencies = {null, null, ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS};
+        for (int round = 0; round < 300; round++) {
+            Agenda agenda = new Agenda();
+            List<Event> existing = new java.util.ArrayList<>();
+            Event candidate = null;
+            for (int i = 0; i <= 4; i++) {
+                Event e = event("E" + i,
+                    LocalDateTime.of(2020, 11, 1, 0, 0).plusDays(random.nextInt(60)).plusMinutes(30L * random.nextInt(48)),
+                    30 * (1 + random.nextInt(6)), frequencies[random.nextInt(frequencies.length)]);
+                if (e.isRepetitive()) {
+                    e.addException(e.getStart().toLocalDate().plusDays(random.nextInt(40)));
+                    if (random.nextBoolean()) {
+                        e.setTermination(1 + random.nextInt(6));
+                    }
+                }
+                if (i == 4) {
+                    candidate = e;
+                } else {
+                    existing.add(e);
+                    agenda.addEvent(e);
+                }
+            }
+            assertEquals(bruteForceFree(existing, candidate), agenda.isFreeFor(candidate), existing + " / " + candidate);
+        }
+    }
+
+    /**
+     * Référence pour deux événements : occurrences développées sur vingt ans, chevauchements entre les deux
+     */
+    static boolean bruteForceConflict(Event a, Event b) {
+        Agenda both = new Agenda();
+        both.addEvent(a);
+        both.addEvent(b);
+        return both.conflicts(LocalDateTime.of(2019, 1, 1, 0, 0), LocalDateTime.of(2040, 1, 1, 0, 0)).stream()
+            .anyMatch(c -> c.first().event() != c.second().event());
+    }
+
+    @Test
+    void repetitions_conflicting_only_years_later_are_found() {
+        // Hors exception (août 2022), le 31 ne tombe un mercredi qu'en mai 2023
+        Event monthly = event("Clôture", LocalDateTime.of(2021, 12, 31, 18, 0), 60, ChronoUnit.MONTHS);
+        monthly.addException(LocalDate.of(2022, 8, 31));
+        Event weekly = event("Réunion", LocalDateTime.of(2022, 1, 5, 18, 30), 60, ChronoUnit.WEEKS);
+        assertTrue(monthly.conflictsWith(weekly));
+        assertTrue(weekly.conflictsWith(monthly));
+        weekly = event("Réunion", LocalDateTime.of(2022, 1, 5, 19, 0), 60, ChronoUnit.WEEKS);
+        assertFalse(monthly.conflictsWith(weekly));
+    }
+
+    @Test
+    void repetition_pairs_match_brute_force_expansion() {
+        Random random = new Random(55);
+        ChronoUnit[] frequencies = {ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS, ChronoUnit.YEARS};
+        for (int round = 0; round < 300; round++) {
+            Event[] pair = new Event[2];
+            for (int i = 0; i < 2; i++) {
+                ChronoUnit frequency = frequencies[random.nextInt(frequencies.length)];
+                // Les événements quotidiens sont courts : tout chevauchement est alors certain
+                int minutes = frequency == ChronoUnit.DAYS ? 5 : 15 * random.nextInt(frequency == ChronoUnit.MONTHS ? 300 : 8);
+                LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0).plusDays(random.nextInt(900))
+                    .plusMinutes(5L * random.nextInt(288));
+                Event e = event("E" + i, start, minutes, frequency);
+                e.addException(start.toLocalDate().plusDays(random.nextInt(400)));
+                switch (random.nextInt(4)) {
+                    case 0 -> e.setTermination(1 + random.nextInt(40));
+                    case 1 -> e.setTermination(start.toLocalDate().plusDays(random.nextInt(2000)));
+                    default -> { }
+                }
+                pair[i] = e;
+            }
+            assertEquals(bruteForceConflict(pair[0], pair[1]), pair[0].conflictsWith(pair[1]), pair[0] + " / " + pair[1]);
+        }
+    }
+
+    @Test
+    void repeating_candidate_is_compared_with_many_single_events() {
+        Random random = new Random(5);
+        List<Event> existing = new java.util.ArrayList<>();
+        Agenda agenda = new Agenda();
+        for (int i = 0; i < 400; i++) {
+            Event e = event("S" + i, LocalDateTime.of(2020, 11, 1, 0, 0).plusDays(random.nextInt(1000))
+                .plusMinutes(30L * random.nextInt(48)), 30 * (1 + random.nextInt(3)), null);
+            existing.add(e);
+            agenda.addEvent(e);
+        }
+        ChronoUnit[] frequencies = {ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS};
+        for (int round = 0; round < 200; round++) {
+            Event candidate = event("C", LocalDateTime.of(2020, 10, 1, 0, 0).plusDays(random.nextInt(1000))
+                .plusMinutes(10L * random.nextInt(144)), 10, frequencies[random.nextInt(frequencies.length)]);
+            if (random.nextBoolean()) {
+                candidate.setTermination(1 + random.nextInt(30));
+            }
+            assertEquals(bruteForceFree(existing, candidate), agenda.isFreeFor(candidate), candidate.toString());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournaledAgendaTest {
+
+    @TempDir
+    Path directory;
+
+    LocalDate nov_1_2020 = LocalDate.of(2020, 11, 1);
+    LocalDateTime nov_1__2020_22_30 = LocalDateTime.of(2020, 11, 1, 22, 30);
+
+    /**
+     * Vérifie que deux agendas contiennent les mêmes événements, dans le même état et le même ordre
+     */
+    static void assertSameAgenda(Agenda expected, Agenda actual) {
+        assertEquals(expected.events.size(), actual.events.size());
+        for (int i = 0; i < expected.events.size(); i++) {
+            EventSnapshot e = expected.events.get(i).freeze();
+            EventSnapshot a = actual.events.get(i).freeze();
+            assertEquals(e.toString(), a.toString(), "Event " + i);
+            assertEquals(e.isRepetitive(), a.isRepetitive(), "Event " + i);
+            assertEquals(e.lastOccurrence(), a.lastOccurrence(), "Event " + i);
+            if (e.isRepetitive()) {
+                assertEquals(e.repetition().frequency(), a.repetition().frequency(), "Event " + i);
+                assertEquals(e.repetition().exceptions(), a.repetition().exceptions(), "Event " + i);
+                assertEquals(expected.events.get(i).getNumberOfOccurrences(),
+                    actual.events.get(i).getNumberOfOccurrences(), "Event " + i);
+            }
+        }
+        for (int d = -5; d < 200; d++) {
+            LocalDate day = AgendaIndexTest.ORIGIN.plusDays(d);
+            assertEquals(AgendaFileTest.ranks(expected.eventsInDay(day), expected.events),
+                AgendaFileTest.ranks(actual.eventsInDay(day), actual.events), day.toString());
+        }
+    }
+
+    @Test
+    void mutations_survive_a_restart() throws IOException {
+        Agenda expected = new Agenda();
+        Event weekly = new Event("Weekly", nov_1__2020_22_30, Duration.ofMinutes(120));
+        Event daily = new Event("Daily", nov_1__2020_22_30, Duration.ofMinutes(30));
+        daily.setRepetition(ChronoUnit.DAYS);
+        daily.addException(nov_1_2020.plusDays(2));
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory)) {
+            Agenda agenda = journaled.agenda();
+            agenda.addEvent(weekly);
+            agenda.addEvent(daily);
+            weekly.setRepetition(ChronoUnit.WEEKS);
+            weekly.addException(nov_1_2020.plusWeeks(1));
+            weekly.setTermination(5);
+            daily.setTermination(nov_1_2020.plusDays(20));
+            daily.setRepetition(ChronoUnit.MONTHS); // Repart de zéro : plus d'exception ni de terminaison
+            daily.addException(nov_1_2020.plusMonths(3));
+            agenda.addEvent(weekly); // Ajouté deux fois
+            expected.addEvent(weekly);
+            expected.addEvent(daily);
+            expected.addEvent(weekly);
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertSameAgenda(expected, reopened.agenda());
+            assertSame(reopened.agenda().events.get(0), reopened.agenda().events.get(2), "Same event added twice");
+            // Une modification après la relecture est aussi journalisée
+            reopened.agenda().events.get(0).addException(nov_1_2020.plusWeeks(2));
+            weekly.addException(nov_1_2020.plusWeeks(2));
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertSameAgenda(expected, reopened.agenda());
+        }
+    }
+
+    @Test
+    void snapshots_replace_the_journal() throws IOException {
+        Random random = new Random(12);
+        List<Event> events = AgendaIndexTest.randomEvents(random, 300);
+        Agenda expected = new Agenda();
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory, Duration.ofMillis(1), 50)) {
+            for (Event e : events) {
+                journaled.agenda().addEvent(e);
+                expected.addEvent(e);
+                if (e.isRepetitive() && random.nextBoolean()) {
+                    e.addException(e.getStart().toLocalDate().plusDays(random.nextInt(30)));
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(p -> p.getFileName().toString()).sorted().toList();
+            assertEquals(2, names.size(), names.toString());
+            assertTrue(names.get(0).startsWith("journal-") && names.get(1).startsWith("snapshot-"), names.toString());
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertSameAgenda(expected, reopened.agenda());
+        }
+    }
+
+    @Test
+    void a_failed_snapshot_keeps_the_mutation_that_triggered_it() throws IOException {
+        Path blocker = directory.resolve("snapshot-1.tmp");
+        Event first = new Event("Premier", nov_1__2020_22_30, Duration.ofMinutes(30));
+        Event second = new Event("Second", nov_1__2020_22_30.plusDays(1), Duration.ofMinutes(30));
+        Event third = new Event("Troisième", nov_1__2020_22_30.plusDays(2), Duration.ofMinutes(30));
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory, Duration.ofMillis(1), 2)) {
+            // Un répertoire non vide à la place du fichier temporaire de la prochaine image : son écriture échoue
+            Files.createDirectories(blocker);
+            Files.writeString(blocker.resolve("busy"), "x");
+            journaled.agenda().addEvent(first);
+            assertThrows(UncheckedIOException.class, () -> journaled.agenda().addEvent(second));
+            assertEquals(List.of(first, second), journaled.agenda().events);
+            // La tentative suivante n'a lieu qu'après snapshotEvery autres modifications
+            journaled.agenda().addEvent(third);
+            journaled.commit();
+            assertFalse(Files.exists(directory.resolve("journal-1.log")));
+        }
+        Files.delete(blocker.resolve("busy"));
+        Files.delete(blocker);
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertEquals(List.of("Premier", "Second", "Troisième"),
+                reopened.agenda().events.stream().map(Event::getTitle).toList());
+        }
+    }
+
+    @Test
+    void an_interrupted_record_is_ignored() throws IOException {
+        Agenda expected = new Agenda();
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory)) {
+            for (Event e : AgendaIndexTest.randomEvents(new Random(13), 20)) {
+                journaled.agenda().addEvent(e);
+                expected.addEvent(e);
+            }
+        }
+        // Enregistrement coupé en plein milieu par un arrêt brutal
+        Files.write(directory.resolve("journal-0.log"), new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertSameAgenda(expected, reopened.agenda());
+            reopened.agenda().addEvent(new Event("After restart", nov_1__2020_22_30, Duration.ofMinutes(10)));
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertEquals(21, reopened.agenda().events.size());
+            assertEquals("After restart", reopened.agenda().events.get(20).getTitle());
+        }
+    }
+
+    @Test
+    void many_mutations_are_committed_together() throws IOException {
+        int count = 50_000;
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory)) {
+            for (int i = 0; i < count; i++) {
+                journaled.agenda().addEvent(new Event("Event " + i, nov_1__2020_22_30.plusMinutes(i), Duration.ofMinutes(5)));
+            }
+            journaled.commit();
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertEquals(count, reopened.agenda().events.size());
+            assertEquals(List.of(reopened.agenda().events.get(count - 1)), reopened.agenda().findByTitle("Event " + (count - 1)));
+        }
+    }
+
+    @Test
+    void bulk_additions_are_journaled() throws IOException {
+        List<Event> events = AgendaIndexTest.randomEvents(new Random(15), 120);
+        Agenda expected = new Agenda();
+        Event first = new Event("First", nov_1__2020_22_30, Duration.ofMinutes(10));
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory, Duration.ofMillis(1), 50)) {
+            journaled.agenda().addEvent(first);
+            journaled.agenda().addAll(events);           // Instantané après le lot, qui le contient en entier
+            journaled.agenda().addAll(events.subList(0, 10));
+            expected.addEvent(first);
+            expected.addAll(events);
+            expected.addAll(events.subList(0, 10));
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            assertSameAgenda(expected, reopened.agenda());
+        }
+    }
+
+    @Test
+    void an_event_added_twice_stays_one_event_across_snapshots() throws IOException {
+        Event twice = new Event("Twice", nov_1__2020_22_30, Duration.ofMinutes(30));
+        Event other = new Event("Other", nov_1__2020_22_30, Duration.ofMinutes(10));
+        try (JournaledAgenda journaled = JournaledAgenda.open(directory)) {
+            journaled.agenda().addEvent(twice);
+            journaled.agenda().addEvent(other);
+            journaled.agenda().addEvent(twice);
+            journaled.snapshot();
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            List<Event> events = reopened.agenda().events;
+            assertSame(events.get(0), events.get(2));
+            assertNotSame(events.get(0), events.get(1));
+            // Une modification après la relecture touche les deux rangs, et survit à une nouvelle image
+            events.get(0).setRepetition(ChronoUnit.DAYS);
+            reopened.snapshot();
+        }
+        try (JournaledAgenda reopened = JournaledAgenda.open(directory)) {
+            List<Event> events = reopened.agenda().events;
+            assertSame(events.get(0), events.get(2));
+            assertEquals(List.of(events.get(0), events.get(0)), reopened.agenda().eventsInDay(nov_1_2020.plusDays(3)));
+        }
+    }
+}
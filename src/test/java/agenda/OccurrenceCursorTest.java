@@ -0,0 +1,134 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class OccurrenceCursorTest {
+
+    static final LocalDateTime FROM = LocalDateTime.of(2020, 10, 20, 0, 0);
+    static final LocalDateTime TO = LocalDateTime.of(2021, 6, 1, 0, 0);
+
+    static List<Occurrence> list(Iterator<Occurrence> it) {
+        List<Occurrence> result = new ArrayList<>();
+        it.forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Les débuts d'occurrence, en testant chaque jour : répétition ce jour-là, ou dernière occurrence
+     */
+    static List<LocalDateTime> probeStarts(Event e, LocalDate first, LocalDate last) {
+        EventSnapshot s = e.freeze();
+        List<LocalDateTime> result = new ArrayList<>();
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            boolean occurs = s.isRepetitive()
+                ? s.repetition().isRecurringOn(d) || d.equals(s.lastOccurrence())
+                : d.equals(s.start().toLocalDate());
+            if (occurs) {
+                result.add(d.atTime(s.start().toLocalTime()));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void cursor_matches_day_by_day_probing() {
+        Random random = new Random(22);
+        for (Event e : AgendaIndexTest.randomEvents(random, 400)) {
+            List<LocalDateTime> starts =
+                probeStarts(e, FROM.toLocalDate().minusDays(5), TO.toLocalDate().minusDays(1));
+            List<LocalDateTime> found = new ArrayList<>();
+            Occurrence o = e.nextOccurrenceAfter(FROM.minusDays(5));
+            for (; o != null && o.start().isBefore(TO); o = e.nextOccurrenceAfter(o.start().plusNanos(1))) {
+                assertSame(e, o.event());
+                assertEquals(o.start().plus(e.getDuration()), o.end());
+                found.add(o.start());
+            }
+            assertEquals(starts, found, e.toString());
+
+            List<LocalDateTime> backwards = new ArrayList<>();
+            for (o = e.previousOccurrenceBefore(TO); o != null && !o.start().isBefore(FROM.minusDays(5));
+                 o = e.previousOccurrenceBefore(o.start())) {
+                backwards.add(o.start());
+            }
+            Collections.reverse(backwards);
+            assertEquals(starts, backwards, e.toString());
+        }
+    }
+
+    @Test
+    void descending_iteration_is_the_reverse_of_ascending() {
+        Random random = new Random(220);
+        for (Event e : AgendaIndexTest.randomEvents(random, 400)) {
+            LocalDateTime from = FROM.plusMinutes(15L * random.nextInt(96 * 40));
+            LocalDateTime to = from.plusMinutes(15L * random.nextInt(96 * 60));
+            List<Occurrence> ascending = list(e.occurrences(from, to));
+            List<Occurrence> descending = list(e.occurrencesDescending(from, to));
+            Collections.reverse(descending);
+            assertEquals(ascending, descending, e + " " + from + " " + to);
+        }
+    }
+
+    @Test
+    void monthly_cursor_skips_short_months_in_both_directions() {
+        Event e = new Event("Clôture", LocalDateTime.of(2021, 1, 31, 18, 0), Duration.ofHours(1));
+        e.setRepetition(ChronoUnit.MONTHS);
+        e.addException(LocalDate.of(2021, 5, 31));
+        LocalDateTime from = LocalDateTime.of(2021, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<LocalDateTime> expected = new ArrayList<>();
+        for (int month : new int[]{1, 3, 7, 8, 10, 12}) {
+            expected.add(LocalDateTime.of(2021, month, 31, 18, 0));
+        }
+        assertEquals(expected, list(e.occurrences(from, to)).stream().map(Occurrence::start).toList());
+        Collections.reverse(expected);
+        assertEquals(expected, list(e.occurrencesDescending(from, to)).stream().map(Occurrence::start).toList());
+
+        assertEquals(LocalDateTime.of(2021, 3, 31, 18, 0),
+            e.nextOccurrenceAfter(LocalDateTime.of(2021, 1, 31, 18, 1)).start());
+        assertEquals(LocalDateTime.of(2021, 1, 31, 18, 0),
+            e.nextOccurrenceAfter(LocalDateTime.of(2021, 1, 31, 18, 0)).start());
+        assertEquals(LocalDateTime.of(2021, 3, 31, 18, 0),
+            e.previousOccurrenceBefore(LocalDateTime.of(2021, 7, 31, 18, 0)).start());
+        assertNull(e.previousOccurrenceBefore(LocalDateTime.of(2021, 1, 31, 18, 0)));
+    }
+
+    @Test
+    void terminated_repetition_stops() {
+        Event e = new Event("Cours", LocalDateTime.of(2021, 3, 1, 9, 0), Duration.ofHours(2));
+        e.setRepetition(ChronoUnit.WEEKS);
+        e.setTermination(3);
+        assertEquals(LocalDateTime.of(2021, 3, 15, 9, 0),
+            e.previousOccurrenceBefore(LocalDateTime.of(2030, 1, 1, 0, 0)).start());
+        assertNull(e.nextOccurrenceAfter(LocalDateTime.of(2021, 3, 15, 9, 1)));
+    }
+
+    @Test
+    void previousDayOfMonth_skips_short_months() {
+        assertEquals(LocalDate.of(2021, 1, 31).toEpochDay(),
+            EpochDays.previousDayOfMonth(LocalDate.of(2021, 3, 30).toEpochDay(), 31));
+        assertEquals(LocalDate.of(2021, 3, 31).toEpochDay(),
+            EpochDays.previousDayOfMonth(LocalDate.of(2021, 3, 31).toEpochDay(), 31));
+        assertEquals(LocalDate.of(2021, 1, 29).toEpochDay(),
+            EpochDays.previousDayOfMonth(LocalDate.of(2021, 3, 28).toEpochDay(), 29));
+        assertEquals(LocalDate.of(2020, 2, 29).toEpochDay(),
+            EpochDays.previousDayOfMonth(LocalDate.of(2020, 3, 28).toEpochDay(), 29));
+        for (long day = LocalDate.of(1999, 1, 1).toEpochDay(); day < LocalDate.of(2001, 1, 1).toEpochDay(); day++) {
+            for (int dayOfMonth = 1; dayOfMonth <= 31; dayOfMonth++) {
+                long previous = EpochDays.previousDayOfMonth(day, dayOfMonth);
+                assertEquals(previous, EpochDays.nextDayOfMonth(previous, dayOfMonth));
+                assertTrue(EpochDays.nextDayOfMonth(previous + 1, dayOfMonth) > day);
+            }
+        }
+    }
+}
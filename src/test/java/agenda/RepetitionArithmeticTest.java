@@ -0,0 +1,90 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+
+public class RepetitionArithmeticTest {
+
+    final LocalDate nov_1_2020 = LocalDate.of(2020, 11, 1);
+
+    @Test
+    void weekly_nextOccurrence_jumps_to_same_weekday() {
+        Repetition r = new Repetition(ChronoUnit.WEEKS, nov_1_2020);
+        assertEquals(nov_1_2020, r.nextOccurrence(LocalDate.of(2020, 1, 1)));
+        assertEquals(LocalDate.of(2020, 11, 8), r.nextOccurrence(LocalDate.of(2020, 11, 2)));
+        assertEquals(LocalDate.of(2030, 11, 3), r.nextOccurrence(LocalDate.of(2030, 10, 28)));
+    }
+
+    @Test
+    void monthly_nextOccurrence_skips_months_without_that_day() {
+        Repetition r = new Repetition(ChronoUnit.MONTHS, LocalDate.of(2021, 1, 31));
+        assertEquals(LocalDate.of(2021, 3, 31), r.nextOccurrence(LocalDate.of(2021, 2, 1)));
+        assertTrue(r.isRecurringOn(LocalDate.of(2021, 5, 31)));
+        assertFalse(r.isRecurringOn(LocalDate.of(2021, 4, 30)));
+    }
+
+    @Test
+    void nextOccurrence_skips_exceptions_and_stops_at_termination() {
+        Repetition r = new Repetition(ChronoUnit.DAYS, nov_1_2020);
+        r.addException(LocalDate.of(2020, 11, 2));
+        r.addException(LocalDate.of(2020, 11, 3));
+        r.setTermination(new Termination(5)); // 01/11 -> 05/11
+        assertEquals(LocalDate.of(2020, 11, 4), r.nextOccurrence(LocalDate.of(2020, 11, 2)));
+        assertEquals(LocalDate.of(2020, 11, 5), r.nextOccurrence(LocalDate.of(2020, 11, 5)));
+        assertNull(r.nextOccurrence(LocalDate.of(2020, 11, 6)));
+    }
+
+    @Test
+    void termination_date_off_the_frequency_is_an_occurrence() {
+        Repetition r = new Repetition(ChronoUnit.WEEKS, nov_1_2020); // dimanche
+        r.setTermination(new Termination(LocalDate.of(2020, 11, 10))); // mardi
+        assertEquals(LocalDate.of(2020, 11, 10), r.nextOccurrence(LocalDate.of(2020, 11, 9)));
+        assertNull(r.nextOccurrence(LocalDate.of(2020, 11, 11)));
+    }
+
+    @Test
+    void yearly_count_termination_keeps_simplified_logic() {
+        Repetition r = new Repetition(ChronoUnit.YEARS, nov_1_2020);
+        r.setTermination(new Termination(2)); // années écoulées < 2
+        assertTrue(r.isRecurringOn(LocalDate.of(2022, 10, 31)));
+        assertFalse(r.isRecurringOn(LocalDate.of(2022, 11, 1)));
+        assertEquals(LocalDate.of(2022, 10, 31), r.nextOccurrence(LocalDate.of(2022, 10, 31)));
+        assertNull(r.nextOccurrence(LocalDate.of(2022, 11, 2)));
+    }
+
+    @Test
+    void exceptions_are_kept_sorted_without_duplicates() {
+        Repetition r = new Repetition(ChronoUnit.DAYS, nov_1_2020);
+        r.addException(LocalDate.of(2020, 11, 9));
+        r.addException(LocalDate.of(2020, 11, 3));
+        r.addException(LocalDate.of(2020, 11, 9));
+        r.addException(LocalDate.of(2020, 11, 5));
+        assertArrayEquals(new long[]{
+            LocalDate.of(2020, 11, 3).toEpochDay(),
+            LocalDate.of(2020, 11, 5).toEpochDay(),
+            LocalDate.of(2020, 11, 9).toEpochDay()}, r.exceptionDays());
+    }
+
+    @Test
+    void thousands_of_exceptions_are_skipped_at_once() {
+        Repetition r = new Repetition(ChronoUnit.DAYS, nov_1_2020);
+        // Les 5000 jours suivant le début sont tous des exceptions, sauf un jour sur 1000
+        for (int d = 1; d <= 5000; d++) {
+            if (d % 1000 != 0) {
+                r.addException(nov_1_2020.plusDays(d));
+            }
+        }
+        assertEquals(nov_1_2020.plusDays(1000), r.nextOccurrence(nov_1_2020.plusDays(1)));
+        assertEquals(nov_1_2020.plusDays(5001), r.nextOccurrence(nov_1_2020.plusDays(5000).plusDays(1)));
+        assertFalse(r.isRecurringOn(nov_1_2020.plusDays(4321)));
+        assertTrue(r.isRecurringOn(nov_1_2020.plusDays(4000)));
+    }
+
+    @Test
+    void time_based_frequency_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Repetition(ChronoUnit.HOURS, nov_1_2020));
+    }
+}
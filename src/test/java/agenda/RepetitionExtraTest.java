@@ -6,6 +6,7 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 public class RepetitionExtraTest {
@@ -39,6 +40,24 @@ public class RepetitionExtraTest {
         assertTrue(e.isInDay(LocalDate.of(2020, 11, 4)));
     }
 
+    @Test
+    void bulk_exceptions_are_merged_with_existing_ones() {
+        Event e = new Event("Daily", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60));
+        e.setRepetition(ChronoUnit.DAYS);
+        e.addException(LocalDate.of(2020, 11, 3));
+        long[] days = {
+            LocalDate.of(2020, 11, 2).toEpochDay(),
+            LocalDate.of(2020, 11, 3).toEpochDay(),
+            LocalDate.of(2020, 11, 5).toEpochDay()
+        };
+        e.addExceptions(days);
+        assertEquals(List.of(LocalDate.of(2020, 11, 2), LocalDate.of(2020, 11, 3), LocalDate.of(2020, 11, 5)),
+            e.freeze().repetition().exceptions());
+        assertFalse(e.isInDay(LocalDate.of(2020, 11, 5)));
+        assertTrue(e.isInDay(LocalDate.of(2020, 11, 4)));
+        assertThrows(IllegalArgumentException.class, () -> e.addExceptions(new long[] {days[2], days[0] - 1}));
+    }
+
     @Test
     void weekly_not_on_same_weekday_isFalse() {
         Event e = new Event("Weekly", LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(60)); // Sunday
@@ -0,0 +1,175 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TieredAgendaTest {
+
+    static final LocalDate ORIGIN = AgendaIndexTest.ORIGIN;
+    static final LocalDate CUTOFF = ORIGIN.plusDays(60);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * L'état complet d'un événement (les événements archivés sont relus : on ne peut pas comparer les instances)
+     */
+    static String describe(Event e) {
+        EventSnapshot s = e.freeze();
+        String text = s.title() + " " + s.start() + " " + s.duration();
+        if (s.isRepetitive()) {
+            RepetitionSnapshot r = s.repetition();
+            text += " " + r.frequency() + " " + r.exceptions() + " " + r.lastOccurrence();
+        }
+        return text;
+    }
+
+    static List<String> sortedDescriptions(List<Event> events) {
+        return events.stream().map(TieredAgendaTest::describe).sorted().toList();
+    }
+
+    @Test
+    void archived_and_hot_events_answer_like_a_single_agenda() throws IOException {
+        List<Event> events = AgendaIndexTest.randomEvents(new Random(24), 2000);
+        Agenda expected = new Agenda();
+        expected.addAll(events);
+        TieredAgenda tiered = TieredAgenda.open(directory);
+        tiered.addAll(events);
+
+        int archived = tiered.archive(CUTOFF);
+        assertTrue(archived > 0);
+        assertEquals(archived, tiered.archivedSize());
+        assertEquals(events.size(), tiered.archivedSize() + tiered.hotSize());
+        assertEquals(0, tiered.archive(CUTOFF));
+
+        for (LocalDate day = ORIGIN.minusDays(10); day.isBefore(ORIGIN.plusDays(250)); day = day.plusDays(1)) {
+            assertEquals(sortedDescriptions(expected.eventsInDay(day)), sortedDescriptions(tiered.eventsInDay(day)),
+                day.toString());
+        }
+        for (int t = 0; t < 20; t++) {
+            assertEquals(sortedDescriptions(expected.findByTitle("Event " + t)),
+                sortedDescriptions(tiered.findByTitle("Event " + t)));
+        }
+
+        // Les segments sont relus à l'ouverture
+        TieredAgenda reopened = TieredAgenda.open(directory);
+        assertEquals(archived, reopened.archivedSize());
+        assertEquals(0, reopened.hotSize());
+        LocalDate day = ORIGIN.plusDays(3);
+        assertEquals(sortedDescriptions(AgendaFile.map(directory.resolve("archive-0.bin")).eventsInDay(day)),
+            sortedDescriptions(reopened.eventsInDay(day)));
+        assertFalse(reopened.eventsInDay(day).isEmpty());
+    }
+
+    @Test
+    void archived_events_do_not_occur_from_the_cutoff_on() throws IOException {
+        TieredAgenda tiered = TieredAgenda.open(directory);
+        Event old = new Event("Ancien", ORIGIN.atTime(9, 0), Duration.ofHours(1));
+        Event weekly = new Event("Hebdo", ORIGIN.atTime(10, 0), Duration.ofHours(1));
+        weekly.setRepetition(ChronoUnit.WEEKS);
+        weekly.setTermination(3);
+        Event endless = new Event("Quotidien", ORIGIN.atTime(11, 0), Duration.ofHours(1));
+        endless.setRepetition(ChronoUnit.DAYS);
+        Event recent = new Event("Récent", CUTOFF.atTime(9, 0), Duration.ofHours(1));
+        tiered.addAll(List.of(old, weekly, endless, recent));
+
+        assertEquals(2, tiered.archive(CUTOFF));
+        assertEquals(2, tiered.hotSize());
+        // Les événements en mémoire restent les mêmes instances
+        assertEquals(List.of(endless, recent), tiered.eventsInDay(CUTOFF));
+        assertEquals(List.of("Ancien"), tiered.findByTitle("Ancien").stream().map(Event::getTitle).toList());
+        assertEquals(List.of("Hebdo", "Quotidien"),
+            tiered.eventsInDay(ORIGIN.plusDays(14)).stream().map(Event::getTitle).toList());
+    }
+
+    @Test
+    void removeFinishedBefore_keeps_the_agenda_consistent() {
+        List<Event> events = AgendaIndexTest.randomEvents(new Random(240), 1000);
+        Agenda agenda = new Agenda();
+        agenda.addAll(events);
+        List<Event> removed = agenda.removeFinishedBefore(CUTOFF.toEpochDay());
+        assertFalse(removed.isEmpty());
+        assertEquals(events.size(), removed.size() + agenda.events.size());
+        for (Event e : removed) {
+            assertTrue(e.freeze().lastTouchedDay() < CUTOFF.toEpochDay());
+        }
+        // Ajouts après le retrait : les rangs restent ceux de la liste des événements
+        Event late = new Event("Event 1", CUTOFF.atTime(8, 0), Duration.ofHours(2));
+        agenda.addEvent(late);
+        late.setRepetition(ChronoUnit.WEEKS);
+        for (LocalDate day = ORIGIN; day.isBefore(ORIGIN.plusDays(200)); day = day.plusDays(1)) {
+            assertEquals(AgendaIndexTest.scan(agenda.events, day), agenda.eventsInDay(day), day.toString());
+        }
+        assertEquals(agenda.events.stream().filter(e -> "Event 1".equals(e.getTitle())).toList(),
+            agenda.findByTitle("Event 1"));
+        assertEquals(agenda.events.stream().filter(e -> "Event 2".equals(e.getTitle())).toList(),
+            agenda.findByTitleIgnoreCase("EVENT 2"));
+        LocalDateTime from = CUTOFF.atStartOfDay();
+        LocalDateTime to = from.plusDays(7);
+        List<Occurrence> occurrences = agenda.eventsBetween(from, to).toList();
+        for (Occurrence o : occurrences) {
+            assertTrue(agenda.events.contains(o.event()));
+        }
+    }
+
+    @Test
+    void a_failed_archive_leaves_the_hot_events_in_place() throws IOException {
+        List<Event> events = AgendaIndexTest.randomEvents(new Random(241), 300);
+        TieredAgenda tiered = TieredAgenda.open(directory);
+        tiered.addAll(events);
+        // Le segment ne peut pas être mis en place : un répertoire non vide occupe son nom
+        Path blocked = Files.createDirectories(directory.resolve("archive-0.bin"));
+        Files.createFile(blocked.resolve("busy"));
+
+        assertThrows(IOException.class, () -> tiered.archive(CUTOFF));
+        assertEquals(events.size(), tiered.hotSize());
+        assertEquals(0, tiered.archivedSize());
+        assertFalse(Files.exists(directory.resolve("archive-0.tmp")));
+        // Les événements restent à leur rang d'origine
+        for (LocalDate day = ORIGIN; day.isBefore(ORIGIN.plusDays(120)); day = day.plusDays(1)) {
+            assertEquals(AgendaIndexTest.scan(events, day), tiered.eventsInDay(day), day.toString());
+        }
+
+        Files.delete(blocked.resolve("busy"));
+        Files.delete(blocked);
+        int archived = tiered.archive(CUTOFF);
+        assertTrue(archived > 0);
+        assertEquals(events.size(), archived + tiered.hotSize());
+    }
+
+    @Test
+    void finishedBefore_announces_what_removeFinishedBefore_removes() {
+        List<Event> events = AgendaIndexTest.randomEvents(new Random(242), 1000);
+        Agenda agenda = new Agenda();
+        agenda.addAll(events);
+        List<Event> announced = agenda.finishedBefore(CUTOFF.toEpochDay());
+        assertEquals(events.size(), agenda.events.size());
+        assertEquals(announced, agenda.removeFinishedBefore(CUTOFF.toEpochDay()));
+    }
+
+    @Test
+    void an_event_added_twice_leaves_at_both_ranks() {
+        Event twice = new Event("Deux fois", ORIGIN.atTime(9, 0), Duration.ofHours(1));
+        Event recent = new Event("Récent", CUTOFF.atTime(9, 0), Duration.ofHours(1));
+        Agenda hot = new Agenda();
+        hot.addEvent(twice);
+        hot.addEvent(recent);
+        hot.addEvent(twice);
+        assertEquals(List.of(twice, twice), hot.removeFinishedBefore(CUTOFF.toEpochDay()));
+        // Retiré à ses deux rangs : une modification ultérieure ne touche plus l'agenda
+        twice.setRepetition(ChronoUnit.DAYS);
+        assertEquals(List.of(recent), hot.eventsInDay(CUTOFF));
+        assertEquals(List.of(recent), hot.events);
+    }
+}
@@ -0,0 +1,102 @@
+package agenda;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TitleIndexTest {
+
+    Agenda agenda;
+    Event standUp = event("Stand-up");
+    Event standUpLower = event("stand-up");
+    Event standard = event("Standard review");
+    Event lunch = event("Lunch");
+    Event standUpAgain = event("Stand-up");
+
+    static Event event(String title) {
+        return new Event(title, LocalDateTime.of(2020, 11, 1, 10, 0), Duration.ofMinutes(30));
+    }
+
+    @BeforeEach
+    void setUp() {
+        agenda = new Agenda();
+        for (Event e : List.of(standUp, standUpLower, standard, lunch, standUpAgain)) {
+            agenda.addEvent(e);
+        }
+    }
+
+    @Test
+    void findByTitle_is_exact_and_in_insertion_order() {
+        assertEquals(List.of(standUp, standUpAgain), agenda.findByTitle("Stand-up"));
+        assertEquals(List.of(), agenda.findByTitle("Unknown"));
+    }
+
+    @Test
+    void findByTitleIgnoreCase_merges_case_variants_in_insertion_order() {
+        assertEquals(List.of(standUp, standUpLower, standUpAgain), agenda.findByTitleIgnoreCase("STAND-UP"));
+    }
+
+    @Test
+    void findByTitlePrefix_is_case_insensitive_and_sorted_by_title() {
+        assertEquals(List.of(standUp, standUpLower, standUpAgain, standard), agenda.findByTitlePrefix("sta"));
+        assertEquals(List.of(standard), agenda.findByTitlePrefix("Standa"));
+        assertEquals(List.of(lunch), agenda.findByTitlePrefix("l"));
+        assertEquals(List.of(), agenda.findByTitlePrefix("x"));
+    }
+
+    @Test
+    void findByTitlePrefix_honours_limit() {
+        assertEquals(List.of(standUp, standUpLower), agenda.findByTitlePrefix("s", 2));
+        assertEquals(5, agenda.findByTitlePrefix("", 10).size());
+    }
+
+    @Test
+    void returned_lists_are_copies() {
+        agenda.findByTitle("Lunch").clear();
+        assertEquals(List.of(lunch), agenda.findByTitle("Lunch"));
+    }
+
+    @Test
+    void equal_titles_share_one_instance() {
+        // Titres construits à l'exécution : instances distinctes avant le partage
+        Event built = event(new StringBuilder("Stand").append("-up").toString());
+        assertSame(standUp.getTitle(), built.getTitle());
+        assertSame(standUp.getTitle(), standUpAgain.getTitle());
+        assertNull(event(null).getTitle());
+    }
+
+    @Test
+    void findByTitle_accepts_a_title_that_is_not_shared() {
+        String query = new StringBuilder("Lun").append("ch").toString();
+        assertEquals(List.of(lunch), agenda.findByTitle(query));
+        Event untitled = event(null);
+        agenda.addEvent(untitled);
+        assertEquals(List.of(untitled), agenda.findByTitle(null));
+    }
+
+    @Test
+    void a_null_title_finds_the_untitled_events_in_both_finders() {
+        assertEquals(List.of(), agenda.findByTitle(null));
+        assertEquals(List.of(), agenda.findByTitleIgnoreCase(null));
+        Event untitled = event(null);
+        agenda.addEvent(untitled);
+        assertEquals(List.of(untitled), agenda.findByTitle(null));
+        assertEquals(List.of(untitled), agenda.findByTitleIgnoreCase(null));
+        ConcurrentAgenda concurrent = new ConcurrentAgenda();
+        concurrent.addEvent(untitled);
+        assertEquals(List.of(untitled), concurrent.findByTitleIgnoreCase(null));
+    }
+
+    @Test
+    void findByTitle_does_not_share_the_query() {
+        String query = new StringBuilder("Jamais").append(" vu").toString();
+        assertTrue(agenda.findByTitle(query).isEmpty());
+        // La requête n'est pas entrée dans le dictionnaire des titres partagés
+        String title = new StringBuilder("Jamais ").append("vu").toString();
+        assertSame(title, event(title).getTitle());
+    }
+}